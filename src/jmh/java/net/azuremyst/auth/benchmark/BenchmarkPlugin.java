@@ -0,0 +1,187 @@
+package net.azuremyst.auth.benchmark;
+
+import net.azuremyst.auth.AzureAuth;
+import net.azuremyst.auth.config.ConfigManager;
+import net.azuremyst.auth.database.DatabaseManager;
+import net.azuremyst.auth.database.UuidCodec;
+import net.azuremyst.auth.metrics.MetricsRegistry;
+import net.azuremyst.auth.utils.PasswordUtils;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Окружение плагина для бенчмарков без сервера
+ *
+ * JavaPlugin нельзя создать вне загрузчика плагинов Bukkit, поэтому
+ * AzureAuth подменяется mock-объектом, а менеджеры создаются настоящие:
+ * ConfigManager читает config.yml из ресурсов плагина, файлы пишутся
+ * во временную папку. Вызовы mock-объекта создают объекты, поэтому
+ * в измеряемом коде менеджеры берутся из полей состояния, а не из плагина.
+ */
+final class BenchmarkPlugin {
+    
+    static final Logger LOGGER = Logger.getLogger("AzureAuth-Benchmark");
+    
+    static {
+        LOGGER.setLevel(Level.WARNING);
+    }
+    
+    private BenchmarkPlugin() {
+    }
+    
+    /**
+     * Создание плагина с настоящим ConfigManager
+     *
+     * @param settings значения, заменяющие config.yml (ключ - путь в конфиге)
+     */
+    static AzureAuth create(Path dataFolder, Map<String, Object> settings) {
+        YamlConfiguration config = loadResource("config.yml");
+        settings.forEach(config::set);
+        
+        AzureAuth plugin = mock(AzureAuth.class, RETURNS_DEEP_STUBS);
+        when(plugin.getDataFolder()).thenReturn(dataFolder.toFile());
+        when(plugin.getLogger()).thenReturn(LOGGER);
+        when(plugin.getConfig()).thenReturn(config);
+        when(plugin.getMetrics()).thenReturn(new MetricsRegistry());
+        when(plugin.getResource(anyString())).thenAnswer(invocation ->
+            BenchmarkPlugin.class.getClassLoader().getResourceAsStream(invocation.getArgument(0)));
+        
+        ConfigManager configManager = new ConfigManager(plugin);
+        configManager.loadConfig();
+        when(plugin.getConfigManager()).thenReturn(configManager);
+        return plugin;
+    }
+    
+    private static YamlConfiguration loadResource(String name) {
+        InputStream stream = BenchmarkPlugin.class.getClassLoader().getResourceAsStream(name);
+        if (stream == null) {
+            throw new IllegalStateException("Ресурс не найден: " + name);
+        }
+        return YamlConfiguration.loadConfiguration(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Игрок с заданным UUID
+     *
+     * Прокси не записывает вызовы (в отличие от mock-объекта) и не создает
+     * объектов при вызове методов без аргументов.
+     */
+    static Player player(UUID uuid, String name) {
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getUniqueId":
+                        return uuid;
+                    case "getName":
+                        return name;
+                    case "isOnline":
+                        return Boolean.TRUE;
+                    case "hashCode":
+                        return uuid.hashCode();
+                    case "equals":
+                        return proxy == args[0];
+                    case "toString":
+                        return "Player[" + name + "]";
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+    
+    /**
+     * Добавление игроков с общим хешем пароля и сессией на сутки одной транзакцией
+     *
+     * @param uuids         заполняется UUID новых игроков
+     * @param sessionTokens заполняется токенами их сессий
+     */
+    static void seedPlayers(AzureAuth plugin, DatabaseManager database, String passwordHash, String ipAddress,
+                            UUID[] uuids, String[] sessionTokens) throws SQLException {
+        String tablePrefix = plugin.getConfigManager().getDatabaseTablePrefix();
+        long expiration = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1);
+        boolean compact = database.isCompactSchema();
+        
+        try (Connection connection = database.getPool().getConnection();
+             PreparedStatement users = connection.prepareStatement("INSERT INTO " + tablePrefix
+                 + "users (uuid, username, password_hash, salt, ip_address) VALUES (?, ?, ?, '', ?)");
+             PreparedStatement sessions = connection.prepareStatement("INSERT INTO " + tablePrefix
+                 + "sessions (uuid, ip_address, session_token, expires_date) VALUES (?, ?, ?, ?)")) {
+            connection.setAutoCommit(false);
+            try {
+                for (int i = 0; i < uuids.length; i++) {
+                    uuids[i] = UUID.randomUUID();
+                    sessionTokens[i] = PasswordUtils.generateSessionToken();
+                    
+                    setUuid(users, 1, uuids[i], compact);
+                    users.setString(2, "Bench" + i);
+                    users.setString(3, passwordHash);
+                    users.setString(4, ipAddress);
+                    users.addBatch();
+                    
+                    setUuid(sessions, 1, uuids[i], compact);
+                    sessions.setString(2, ipAddress);
+                    sessions.setString(3, sessionTokens[i]);
+                    if (compact) {
+                        sessions.setLong(4, expiration);
+                    } else {
+                        sessions.setTimestamp(4, new Timestamp(expiration));
+                    }
+                    sessions.addBatch();
+                }
+                users.executeBatch();
+                sessions.executeBatch();
+                connection.commit();
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+    
+    private static void setUuid(PreparedStatement stmt, int index, UUID uuid, boolean compact) throws SQLException {
+        if (compact) {
+            stmt.setBytes(index, UuidCodec.toBytes(uuid));
+        } else {
+            stmt.setString(index, uuid.toString());
+        }
+    }
+    
+    static Path createDataFolder() {
+        try {
+            return Files.createTempDirectory("azureauth-benchmark");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    static void deleteDataFolder(Path dataFolder) {
+        try (Stream<Path> files = Files.walk(dataFolder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            // Временная папка
+        }
+    }
+}
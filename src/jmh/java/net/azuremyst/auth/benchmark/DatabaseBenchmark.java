@@ -0,0 +1,111 @@
+package net.azuremyst.auth.benchmark;
+
+import net.azuremyst.auth.AzureAuth;
+import net.azuremyst.auth.database.DatabaseManager;
+import net.azuremyst.auth.models.LoginRecord;
+import net.azuremyst.auth.models.PlayerData;
+import net.azuremyst.auth.security.PasswordHashingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Запросы входа и сессий DatabaseManager к SQLite во временной папке
+ *
+ * Кэш данных игроков и журнал действий отключены, чтобы каждый вызов
+ * доходил до базы. Игроки и их сессии добавляются одной транзакцией.
+ * Параметр compactSchema сравнивает строковую и компактную схемы.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseBenchmark {
+    
+    private static final String IP_ADDRESS = "127.0.0.1";
+    
+    @Param({"10000"})
+    private int players;
+    
+    @Param({"false", "true"})
+    private boolean compactSchema;
+    
+    private Path dataFolder;
+    private PasswordHashingService hashing;
+    private DatabaseManager database;
+    private UUID[] uuids;
+    private String[] sessionTokens;
+    
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        dataFolder = BenchmarkPlugin.createDataFolder();
+        AzureAuth plugin = BenchmarkPlugin.create(dataFolder, Map.of(
+            "database.type", "SQLITE",
+            "database.compact-schema", compactSchema,
+            "performance.cache.enabled", false,
+            "logging.enabled", false));
+        
+        hashing = new PasswordHashingService(plugin);
+        when(plugin.getPasswordHashingService()).thenReturn(hashing);
+        
+        database = new DatabaseManager(plugin);
+        database.initialize();
+        
+        uuids = new UUID[players];
+        sessionTokens = new String[players];
+        BenchmarkPlugin.seedPlayers(plugin, database, hashing.hash("benchmark"), IP_ADDRESS, uuids, sessionTokens);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.closeConnection();
+        hashing.shutdown();
+        BenchmarkPlugin.deleteDataFolder(dataFolder);
+    }
+    
+    private int nextPlayer() {
+        return ThreadLocalRandom.current().nextInt(players);
+    }
+    
+    @Benchmark
+    public LoginRecord getLoginRecord() throws SQLException {
+        return database.getLoginRecord(uuids[nextPlayer()]);
+    }
+    
+    @Benchmark
+    public boolean playerExists() {
+        return database.playerExists(uuids[nextPlayer()]);
+    }
+    
+    @Benchmark
+    public PlayerData getPlayerData() {
+        return database.getPlayerData(uuids[nextPlayer()]);
+    }
+    
+    @Benchmark
+    public boolean isValidSession() {
+        int player = nextPlayer();
+        return database.isValidSession(uuids[player], IP_ADDRESS, sessionTokens[player]);
+    }
+}
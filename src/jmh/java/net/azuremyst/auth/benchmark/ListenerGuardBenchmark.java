@@ -0,0 +1,121 @@
+package net.azuremyst.auth.benchmark;
+
+import net.azuremyst.auth.AzureAuth;
+import net.azuremyst.auth.config.ConfigManager;
+import net.azuremyst.auth.listeners.RestrictionGuard;
+import net.azuremyst.auth.managers.AuthManager;
+import net.azuremyst.auth.utils.CommandAllowlist;
+import net.azuremyst.auth.utils.NotificationThrottler;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверки, выполняемые PlayerListener на каждое событие движения, чата и команды
+ *
+ * Вызывает тот же {@link RestrictionGuard}, что и обработчики, и ограничение
+ * частоты уведомлений; без отмены события и отправки сообщения.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenerGuardBenchmark {
+    
+    @Param({"true", "false"})
+    private boolean authenticated;
+    
+    @Param({"1000"})
+    private int onlinePlayers;
+    
+    private Path dataFolder;
+    private AuthManager authManager;
+    private RestrictionGuard guard;
+    private NotificationThrottler notificationThrottler;
+    private Player player;
+    private Location from;
+    private Location to;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        dataFolder = BenchmarkPlugin.createDataFolder();
+        AzureAuth plugin = BenchmarkPlugin.create(dataFolder, Map.of());
+        ConfigManager configManager = plugin.getConfigManager();
+        authManager = new AuthManager(plugin);
+        CommandAllowlist commandAllowlist = CommandAllowlist.compile(configManager.getAllowedCommands(), null);
+        guard = new RestrictionGuard(authManager, configManager, () -> commandAllowlist);
+        notificationThrottler = new NotificationThrottler(
+            configManager.getMovementNotificationCooldown(),
+            configManager.getChatNotificationCooldown(),
+            configManager.getCommandNotificationCooldown());
+        
+        // Остальные игроки онлайн, половина авторизована
+        for (int i = 1; i < onlinePlayers; i++) {
+            Player other = BenchmarkPlugin.player(UUID.randomUUID(), "Player" + i);
+            authManager.trackPlayer(other.getUniqueId());
+            if (i % 2 == 0) {
+                authManager.forceLogin(other);
+            }
+        }
+        
+        player = BenchmarkPlugin.player(UUID.randomUUID(), "Benchmark");
+        from = new Location(null, 0.0, 64.0, 0.0);
+        to = new Location(null, 0.1, 64.0, 0.0);
+        authManager.trackPlayer(player.getUniqueId());
+        if (authenticated) {
+            authManager.forceLogin(player);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        authManager.shutdown();
+        BenchmarkPlugin.deleteDataFolder(dataFolder);
+    }
+    
+    @Benchmark
+    public boolean moveGuard() {
+        if (guard.blocksMovement(player, from, to)) {
+            notificationThrottler.tryAcquire(player.getUniqueId(), NotificationThrottler.Notification.MOVEMENT_BLOCKED);
+            return true;
+        }
+        return false;
+    }
+    
+    @Benchmark
+    public boolean chatGuard() {
+        if (guard.blocksChat(player)) {
+            notificationThrottler.tryAcquire(player.getUniqueId(), NotificationThrottler.Notification.CHAT_BLOCKED);
+            return true;
+        }
+        return false;
+    }
+    
+    @Benchmark
+    public boolean commandGuard() {
+        if (guard.blocksCommand(player, "/spawn")) {
+            notificationThrottler.tryAcquire(player.getUniqueId(), NotificationThrottler.Notification.COMMAND_BLOCKED);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,535 @@
+package net.azuremyst.auth.benchmark;
+
+import net.azuremyst.auth.AzureAuth;
+import net.azuremyst.auth.config.ConfigManager;
+import net.azuremyst.auth.database.AuditLogWriter;
+import net.azuremyst.auth.database.ConnectionPool;
+import net.azuremyst.auth.database.DatabaseManager;
+import net.azuremyst.auth.managers.LoginAdmissionController;
+import net.azuremyst.auth.managers.SessionManager;
+import net.azuremyst.auth.security.PasswordHashingService;
+import net.azuremyst.auth.utils.TimingWheel;
+import org.bukkit.entity.Player;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Нагрузочный тест входа: N игроков, поток прибытий с заданной частотой
+ *
+ * Операции повторяют пути плагина: регистрация - registerPlayerAsync
+ * (как AuthManager.registerPlayer), вход и неверный пароль - очередь
+ * допуска и verifyLoginAsync (как AuthManager.attemptLogin), восстановление
+ * сессии - getPlayerData и индекс сессий (как обработчик AsyncPlayerPreLoginEvent).
+ *
+ * Прибытия не ждут завершения предыдущих операций (открытая модель, интервалы
+ * по Пуассону), задержка считается от запланированного момента прибытия,
+ * поэтому перегрузка видна в перцентилях, а не скрывается снижением нагрузки.
+ *
+ * Запуск: mvn -Pbenchmarks test-compile exec:exec@load-test -Dload.args="..."
+ * <pre>
+ *   --players=1000            зарегистрированных игроков (вход и сессии)
+ *   --rate=50                 прибытий в секунду
+ *   --duration=60             длительность в секундах
+ *   --mix=register:5,login:70,wrong-password:10,session-restore:15
+ *   --audit-log=true          запись журнала действий в БД, как на сервере по умолчанию
+ *                             (false - без нее, только нагрузка входа)
+ *   --set=путь=значение       параметр config.yml, можно повторять, например
+ *                             --set=database.type=MYSQL --set=database.mysql.host=127.0.0.1
+ * </pre>
+ */
+public final class LoginLoadGenerator {
+    
+    private static final String PASSWORD = "LoadTest#2024pw";
+    private static final String WRONG_PASSWORD = "LoadTest#wrong";
+    private static final String IP_ADDRESS = "10.0.0.1";
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(120);
+    
+    enum Operation {
+        REGISTER("register"),
+        LOGIN("login"),
+        WRONG_PASSWORD("wrong-password"),
+        SESSION_RESTORE("session-restore");
+        
+        private final String name;
+        
+        Operation(String name) {
+            this.name = name;
+        }
+        
+        static Operation fromName(String name) {
+            for (Operation operation : values()) {
+                if (operation.name.equalsIgnoreCase(name)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Неизвестная операция: " + name);
+        }
+    }
+    
+    // Параметры
+    private int players = 1000;
+    private double rate = 50;
+    private int durationSeconds = 60;
+    private final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+    private final Map<String, Object> settings = new LinkedHashMap<>();
+    
+    // Окружение
+    private Path dataFolder;
+    private PasswordHashingService hashing;
+    private DatabaseManager database;
+    private SessionManager sessionManager;
+    private LoginAdmissionController admissionController;
+    private int maxAttempts;
+    private long lockDurationMillis;
+    
+    // Игроки: входят и восстанавливают сессию одни, неверный пароль вводится для других,
+    // чтобы блокировки от неудачных попыток не искажали результаты входа
+    private UUID[] loginPlayers;
+    private String[] sessionTokens;
+    private Player[] loginProxies;
+    private UUID[] targetPlayers;
+    private Player[] targetProxies;
+    private final AtomicInteger registrations = new AtomicInteger();
+    
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private PoolStats writePoolStats;
+    private PoolStats readPoolStats;
+    private volatile int peakAdmissionQueue;
+    
+    private LoginLoadGenerator() {
+        mix.put(Operation.REGISTER, 5);
+        mix.put(Operation.LOGIN, 70);
+        mix.put(Operation.WRONG_PASSWORD, 10);
+        mix.put(Operation.SESSION_RESTORE, 15);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoginLoadGenerator generator = new LoginLoadGenerator();
+        generator.parse(args);
+        generator.setup();
+        try {
+            generator.run();
+        } finally {
+            generator.shutdown();
+        }
+    }
+    
+    private void parse(String[] args) {
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Ожидается --параметр=значение: " + arg);
+            }
+            
+            String key = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (key) {
+                case "players":
+                    players = Integer.parseInt(value);
+                    break;
+                case "rate":
+                    rate = Double.parseDouble(value);
+                    break;
+                case "duration":
+                    durationSeconds = Integer.parseInt(value);
+                    break;
+                case "mix":
+                    mix.clear();
+                    for (String part : value.split(",")) {
+                        String[] entry = part.split(":");
+                        mix.put(Operation.fromName(entry[0].trim()), Integer.parseInt(entry[1].trim()));
+                    }
+                    break;
+                case "audit-log":
+                    settings.put("logging.enabled", Boolean.parseBoolean(value));
+                    break;
+                case "set":
+                    int equals = value.indexOf('=');
+                    if (equals < 0) {
+                        throw new IllegalArgumentException("Ожидается --set=путь=значение: " + arg);
+                    }
+                    settings.put(value.substring(0, equals), parseValue(value.substring(equals + 1)));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Неизвестный параметр: " + key);
+            }
+        }
+        
+        if (players < 1 || rate <= 0 || durationSeconds < 1
+                || mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("players, rate, duration и сумма mix должны быть больше 0");
+        }
+    }
+    
+    private static Object parseValue(String value) {
+        if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+            return Boolean.parseBoolean(value);
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            // Не число
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+    
+    private void setup() throws Exception {
+        dataFolder = BenchmarkPlugin.createDataFolder();
+        AzureAuth plugin = BenchmarkPlugin.create(dataFolder, settings);
+        ConfigManager config = plugin.getConfigManager();
+        
+        hashing = new PasswordHashingService(plugin);
+        when(plugin.getPasswordHashingService()).thenReturn(hashing);
+        when(plugin.getTimingWheel()).thenReturn(new TimingWheel(BenchmarkPlugin.LOGGER, 1000L));
+        
+        database = new DatabaseManager(plugin);
+        database.initialize();
+        when(plugin.getDatabaseManager()).thenReturn(database);
+        
+        admissionController = new LoginAdmissionController(plugin);
+        maxAttempts = config.getMaxLoginAttempts();
+        lockDurationMillis = config.getBruteForceProtectionTime() * 1000L;
+        
+        System.out.printf(Locale.ROOT, "БД: %s, хеширование: %s (%d потоков), одновременных входов: %d%n",
+            config.getDatabaseType(), hashing.getAlgorithm(), hashing.getThreads(),
+            admissionController.getMaxConcurrent());
+        
+        long started = System.nanoTime();
+        String passwordHash = hashing.hash(PASSWORD);
+        loginPlayers = new UUID[players];
+        sessionTokens = new String[players];
+        BenchmarkPlugin.seedPlayers(plugin, database, passwordHash, IP_ADDRESS, loginPlayers, sessionTokens);
+        targetPlayers = new UUID[Math.max(1, players / 10)];
+        BenchmarkPlugin.seedPlayers(plugin, database, passwordHash, IP_ADDRESS, targetPlayers,
+            new String[targetPlayers.length]);
+        
+        loginProxies = proxies(loginPlayers);
+        targetProxies = proxies(targetPlayers);
+        
+        sessionManager = new SessionManager(plugin);
+        sessionManager.loadSessions();
+        
+        // Сообщения о каждом отклоненном запросе не нужны: отказы считаются ошибками операций
+        BenchmarkPlugin.LOGGER.setLevel(Level.SEVERE);
+        System.out.printf(Locale.ROOT, "Подготовлено игроков: %d + %d за %.1f с%n",
+            loginPlayers.length, targetPlayers.length, (System.nanoTime() - started) / 1e9);
+    }
+    
+    private static Player[] proxies(UUID[] uuids) {
+        Player[] result = new Player[uuids.length];
+        for (int i = 0; i < uuids.length; i++) {
+            result[i] = BenchmarkPlugin.player(uuids[i], "Bench" + i);
+        }
+        return result;
+    }
+    
+    private void run() throws InterruptedException {
+        Operation[] operations = mix.keySet().toArray(new Operation[0]);
+        int[] weights = new int[operations.length];
+        int totalWeight = 0;
+        for (int i = 0; i < operations.length; i++) {
+            totalWeight += mix.get(operations[i]);
+            weights[i] = totalWeight;
+        }
+        
+        // Потоки "сетевого" уровня: запуск операции не задерживает следующие прибытия,
+        // даже если БД работает синхронно (performance.async-database: false)
+        ExecutorService clients = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "LoadTest-Client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledExecutorService monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "LoadTest-Monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        // При SQLite с WAL чтение идет через отдельный пул, его ожидание учитывается отдельно
+        writePoolStats = new PoolStats(database.getPool());
+        readPoolStats = database.getReadPool() != null ? new PoolStats(database.getReadPool()) : null;
+        
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        monitor.scheduleAtFixedRate(this::sample, 50, 50, TimeUnit.MILLISECONDS);
+        monitor.scheduleAtFixedRate(() -> progress(start), 5, 5, TimeUnit.SECONDS);
+        
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long next = start;
+        long arrivals = 0;
+        while (next < end) {
+            long delay = next - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+                continue;
+            }
+            
+            int pick = random.nextInt(totalWeight);
+            int index = 0;
+            while (pick >= weights[index]) {
+                index++;
+            }
+            
+            Operation operation = operations[index];
+            long arrival = next;
+            inFlight.incrementAndGet();
+            clients.execute(() -> execute(operation, arrival));
+            arrivals++;
+            
+            next += (long) (-Math.log(1.0 - random.nextDouble()) / rate * 1e9);
+        }
+        
+        // Ожидание завершения начатых операций
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        long elapsed = System.nanoTime() - start;
+        monitor.shutdownNow();
+        clients.shutdownNow();
+        
+        report(arrivals, elapsed);
+        System.out.println();
+        writePoolStats.print();
+        if (readPoolStats != null) {
+            readPoolStats.print();
+        }
+        AuditLogWriter auditLog = database.getAuditLogWriter();
+        if (auditLog != null) {
+            System.out.printf(Locale.ROOT, "Журнал действий: записано %d (пакетов %d), отброшено %d, ошибок %d%n",
+                auditLog.getWrittenCount(), auditLog.getBatchCount(), auditLog.getDroppedCount(),
+                auditLog.getFailedCount());
+        }
+        System.out.printf(Locale.ROOT, "Очередь входа: ожидание среднее %.3f мс, макс. %.3f мс, макс. очередь %d, "
+                + "отклонено %d%n",
+            admissionController.getAverageWaitMillis(), admissionController.getMaxWaitMillis(),
+            Math.max(peakAdmissionQueue, admissionController.getPeakQueueSize()),
+            admissionController.getRejectedCount());
+        System.out.printf(Locale.ROOT, "Хеширование: %d операций, в среднем %.2f мс, отклонено %d%n",
+            hashing.getHashCount(), hashing.getAverageMillis(), hashing.getRejectedCount());
+        if (inFlight.get() > 0) {
+            System.out.println("Не завершено операций: " + inFlight.get());
+        }
+    }
+    
+    private void execute(Operation operation, long arrival) {
+        CompletableFuture<String> result;
+        try {
+            result = start(operation);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        
+        result.whenComplete((status, error) -> {
+            long latency = System.nanoTime() - arrival;
+            OperationStats operationStats = stats.get(operation);
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                operationStats.record(latency, "ошибка " + cause.getClass().getSimpleName());
+                operationStats.errors.increment();
+            } else {
+                operationStats.record(latency, status);
+            }
+            inFlight.decrementAndGet();
+        });
+    }
+    
+    private CompletableFuture<String> start(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case REGISTER: {
+                int number = registrations.incrementAndGet();
+                return database.registerPlayerAsync(UUID.randomUUID(), "Load" + number, PASSWORD, IP_ADDRESS)
+                        .thenApply(registered -> registered ? "REGISTERED" : "FAILED");
+            }
+            case LOGIN: {
+                int player = random.nextInt(loginPlayers.length);
+                return login(loginProxies[player], PASSWORD);
+            }
+            case WRONG_PASSWORD: {
+                int player = random.nextInt(targetPlayers.length);
+                return login(targetProxies[player], WRONG_PASSWORD);
+            }
+            default: {
+                UUID uuid = loginPlayers[random.nextInt(loginPlayers.length)];
+                return database.getPlayerDataAsync(uuid)
+                        .thenApply(data -> data == null ? "NOT_REGISTERED"
+                            : sessionManager.hasValidSession(uuid, IP_ADDRESS) ? "SESSION_RESTORED" : "NO_SESSION");
+            }
+        }
+    }
+    
+    /**
+     * Вход через очередь допуска, как в AuthManager.attemptLogin
+     */
+    private CompletableFuture<String> login(Player player, String password) {
+        UUID uuid = player.getUniqueId();
+        CompletableFuture<String> done = new CompletableFuture<>();
+        
+        LoginAdmissionController.Admission admission = admissionController.submit(player, () ->
+                database.verifyLoginAsync(uuid, password, IP_ADDRESS, maxAttempts, lockDurationMillis)
+                        .whenComplete((result, error) -> {
+                            if (error != null) {
+                                done.completeExceptionally(error);
+                            } else {
+                                done.complete(result.getStatus().name());
+                            }
+                        }));
+        
+        if (admission == LoginAdmissionController.Admission.DUPLICATE
+                || admission == LoginAdmissionController.Admission.QUEUE_FULL) {
+            done.complete(admission.name());
+        }
+        return done;
+    }
+    
+    private void sample() {
+        writePoolStats.sample();
+        if (readPoolStats != null) {
+            readPoolStats.sample();
+        }
+        peakAdmissionQueue = Math.max(peakAdmissionQueue, admissionController.getQueueSize());
+    }
+    
+    private void progress(long start) {
+        long completed = 0;
+        for (OperationStats operationStats : stats.values()) {
+            completed += operationStats.count();
+        }
+        System.out.printf(Locale.ROOT, "[%3d с] завершено %d, выполняется %d, очередь входа %d%n",
+            TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), completed, inFlight.get(),
+            admissionController.getQueueSize());
+    }
+    
+    private void report(long arrivals, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Прибытий: %d за %d с (%.1f/с запрошено), время с ожиданием завершения %.1f с%n",
+            arrivals, durationSeconds, rate, seconds);
+        System.out.printf(Locale.ROOT, "%-16s %8s %8s %10s %10s %10s %10s %10s%n",
+            "операция", "всего", "ошибок", "опер/с", "p50 мс", "p99 мс", "p999 мс", "макс мс");
+        
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operationStats = entry.getValue();
+            long[] latencies = operationStats.sortedLatencies();
+            if (latencies.length == 0) {
+                continue;
+            }
+            
+            System.out.printf(Locale.ROOT, "%-16s %8d %8d %10.1f %10.3f %10.3f %10.3f %10.3f%n",
+                entry.getKey().name, latencies.length, operationStats.errors.sum(), latencies.length / seconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                latencies[latencies.length - 1] / 1e6);
+            System.out.println("                 " + operationStats.statuses());
+        }
+    }
+    
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+    
+    private void shutdown() {
+        admissionController.shutdown();
+        database.closeConnection();
+        hashing.shutdown();
+        BenchmarkPlugin.deleteDataFolder(dataFolder);
+    }
+    
+    /**
+     * Выдачи и ожидание соединений пула за время теста
+     */
+    private static final class PoolStats {
+        
+        private final ConnectionPool pool;
+        private final long borrowsBefore;
+        private final double waitBefore;
+        private final long timeoutsBefore;
+        private volatile int peakWaiters;
+        
+        private PoolStats(ConnectionPool pool) {
+            this.pool = pool;
+            this.borrowsBefore = pool.getBorrowCount();
+            this.waitBefore = pool.getAverageWaitMillis() * borrowsBefore;
+            this.timeoutsBefore = pool.getBorrowTimeouts();
+        }
+        
+        private void sample() {
+            peakWaiters = Math.max(peakWaiters, pool.getWaitingThreads());
+        }
+        
+        private void print() {
+            long borrows = pool.getBorrowCount() - borrowsBefore;
+            double waitMillis = pool.getAverageWaitMillis() * pool.getBorrowCount() - waitBefore;
+            System.out.printf(Locale.ROOT, "Пул соединений %s (до %d): выдач %d, ожидание среднее %.3f мс, макс. %.3f мс, "
+                    + "тайм-аутов %d, макс. ожидающих потоков %d%n",
+                pool.getName(), pool.getMaximumSize(), borrows, borrows == 0 ? 0.0 : waitMillis / borrows,
+                pool.getMaxWaitMillis(), pool.getBorrowTimeouts() - timeoutsBefore, peakWaiters);
+        }
+    }
+    
+    /**
+     * Задержки и итоги одной операции
+     */
+    private static final class OperationStats {
+        
+        private long[] latencies = new long[1024];
+        private int size;
+        private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder errors = new LongAdder();
+        
+        synchronized void record(long latencyNanos, String status) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        }
+        
+        synchronized int count() {
+            return size;
+        }
+        
+        synchronized long[] sortedLatencies() {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+        
+        String statuses() {
+            List<String> parts = new ArrayList<>();
+            new TreeMap<>(statuses).forEach((status, count) -> parts.add(status + "=" + count.sum()));
+            return String.join(", ", parts);
+        }
+    }
+}
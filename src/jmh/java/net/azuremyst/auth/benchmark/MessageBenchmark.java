@@ -0,0 +1,64 @@
+package net.azuremyst.auth.benchmark;
+
+import net.azuremyst.auth.AzureAuth;
+import net.azuremyst.auth.utils.MessageUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Получение сообщений из messages_ru.yml с подстановкой параметров
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageBenchmark {
+    
+    private Path dataFolder;
+    private MessageUtils messages;
+    private String seconds;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        dataFolder = BenchmarkPlugin.createDataFolder();
+        AzureAuth plugin = BenchmarkPlugin.create(dataFolder, Map.of());
+        messages = new MessageUtils(plugin);
+        seconds = "42";
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkPlugin.deleteDataFolder(dataFolder);
+    }
+    
+    @Benchmark
+    public String getMessage() {
+        return messages.getMessage("login-success");
+    }
+    
+    @Benchmark
+    public String getMessageWithParams() {
+        return messages.getMessage("time-remaining", seconds);
+    }
+    
+    @Benchmark
+    public String getMissingMessage() {
+        return messages.getMessage("no-such-message");
+    }
+}
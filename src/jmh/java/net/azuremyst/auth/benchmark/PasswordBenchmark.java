@@ -0,0 +1,57 @@
+package net.azuremyst.auth.benchmark;
+
+import net.azuremyst.auth.utils.PasswordUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка сложности пароля и старое хеширование SHA-256
+ *
+ * checkPasswordStrengthRegex - прежняя проверка регулярными выражениями,
+ * для сравнения с PasswordStrengthAnalyzer; совпадение оценок проверяет
+ * PasswordStrengthCheck.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PasswordBenchmark {
+    
+    @Param({"qwerty", "Password123", "xK9#mQ2$vL7!pR4&", "correct-horse-Battery-staple-42"})
+    private String password;
+    
+    private String salt;
+    
+    @Setup
+    public void setup() {
+        salt = PasswordUtils.generateSalt();
+    }
+    
+    @Benchmark
+    public PasswordUtils.PasswordStrength checkPasswordStrength() {
+        return PasswordUtils.checkPasswordStrength(password);
+    }
+    
+    @Benchmark
+    public PasswordUtils.PasswordStrength checkPasswordStrengthRegex() {
+        return RegexPasswordStrength.checkPasswordStrength(password);
+    }
+    
+    @Benchmark
+    public String hashPasswordLegacy() {
+        return PasswordUtils.hashPassword(password, salt);
+    }
+}
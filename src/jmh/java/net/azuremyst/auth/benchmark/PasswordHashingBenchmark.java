@@ -0,0 +1,67 @@
+package net.azuremyst.auth.benchmark;
+
+import net.azuremyst.auth.AzureAuth;
+import net.azuremyst.auth.security.PasswordHashingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Хеширование и проверка пароля с параметрами из config.yml по умолчанию
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordHashingBenchmark {
+    
+    private static final String PASSWORD = "xK9#mQ2$vL7!pR4&";
+    
+    @Param({"SCRYPT", "PBKDF2"})
+    private String algorithm;
+    
+    private Path dataFolder;
+    private PasswordHashingService hashing;
+    private String storedHash;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        dataFolder = BenchmarkPlugin.createDataFolder();
+        AzureAuth plugin = BenchmarkPlugin.create(dataFolder,
+            Map.of("security.password-hashing.algorithm", algorithm));
+        hashing = new PasswordHashingService(plugin);
+        storedHash = hashing.hash(PASSWORD);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        hashing.shutdown();
+        BenchmarkPlugin.deleteDataFolder(dataFolder);
+    }
+    
+    @Benchmark
+    public String hash() {
+        return hashing.hash(PASSWORD);
+    }
+    
+    @Benchmark
+    public boolean verify() {
+        return hashing.verify(PASSWORD, storedHash, null);
+    }
+}
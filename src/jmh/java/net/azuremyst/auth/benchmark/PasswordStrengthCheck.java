@@ -0,0 +1,171 @@
+package net.azuremyst.auth.benchmark;
+
+import net.azuremyst.auth.utils.PasswordUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Сравнение PasswordUtils.checkPasswordStrength с прежней проверкой регулярными выражениями
+ *
+ * Проверяются особенности прежней реализации, которые сохраняет
+ * PasswordStrengthAnalyzer: переводы строки (проверки ".*X.*" с ними не
+ * совпадают), посимвольное сравнение обратной ссылки в (.)\1{2,} (суррогатные
+ * пары и одиночные суррогаты) и toLowerCase(), меняющий длину строки (İ).
+ * Затем - случайные пароли из тех же фрагментов. Каждый набор проверяется
+ * в корневой и турецкой локали.
+ *
+ * Запускается перед бенчмарками (mvn -Pbenchmarks verify) и завершается
+ * с кодом 1 при любом расхождении.
+ * <pre>
+ *   --count=200000            случайных паролей на локаль
+ *   --seed=1                  начальное значение генератора
+ * </pre>
+ */
+public final class PasswordStrengthCheck {
+    
+    private static final String[] EDGE_CASES = {
+        null, "", "a", "Ab1!x", "Ab1!xy", "Ab1!xyz", "Ab1!xyzw", "Ab1!xyzwvut", "Ab1!xyzwvuts",
+        
+        // Переводы строки
+        "Password1!\n", "\nStrongPass1!", "Xy9!\r\nKq2#", "Zx8#\u0085Wv7$", "Qa1!\u2028Ws2@",
+        "Ed3#\u2029Rf4$", "Tg5%\rYh6^", "admin\nXy9!zz", "xx123\nAbCd!", "aaa\rBcd1!x",
+        "Pass\u2028qwe9!", "ABC\u0085def!9", "\n\n\n\n\n\n", "\u2028\u2028\u2028Ab1!",
+        "Xy9!\u000BKq2#", "Xy9!\u000CKq2#", "Xy9!\u001CKq2#",
+        
+        // Повторы: посимвольное сравнение, как обратная ссылка
+        "aaaBcd1!", "Bcd1!zzz", "AAbcd1!x", "aAaAaA1!", "\u0100\u0100\u0100Bcd1!",
+        "\uD83D\uDE00\uD83D\uDE00\uD83D\uDE00Ab1!", "Ab1!\uD83D\uDE00\uD83D\uDE00xyz",
+        "\uD83D\uD83D\uD83DAb1!x", "\uDE00\uDE00\uDE00Ab1!x", "Ab1!x\uD83D\uD83D\uD83D",
+        "\uD83D\uDE00\uD83D\uD83D\uDE00\uDE00Ab1!", "\uD83D\uD83D\uDE00\uD83D\uDE00Ab1!",
+        "\uDE00\uD83D\uDE00\uD83D\uDE00\uD83DAb1!", "\uD83D\uDE00\uDE00\uDE00Ab1!x",
+        "Ab1!\uD83D\uDE00\uD83D\uDE00\uD83D", "\uD800\uDC00\uD800\uDC00\uD800\uDC01Ab1!",
+        
+        // Нижний регистр другой длины и регистронезависимые слова
+        "\u0130PASSWORD1!", "PASSWORD\u0130x1!", "ADM\u0130N1!xyz", "Adm\u0131n1!xyz",
+        "\u0130\u0130\u0130\u0130\u0130\u0130Ab1!", "QW\u0130E9!xyzw", "\u0130admin9!X",
+        "MiNeCrAfT!9", "PLAYER", "gAmE#77Xy", "\u212Aey1!abcd", "\u03A3\u03A3\u03A3\u03A3\u03A31!",
+        "\uFB03cient1!X", "\u00DFtrasse1!X", "R\u00D6\u00D6T1!xyz", "US\u0130R1!xyzw", "Us\u0130r1!xyzw",
+        "AzureMyst1!", "serVer2024!", "QWErty!!Z", "xAbCx1!xx", "x1234567!A", "000000Ab!",
+    };
+    
+    private static final String[] FRAGMENTS = {
+        "a", "Z", "k", "7", "0", "!", "#", "\\", "\"", " ", "~", "\u00E9", "Ж",
+        "password", "PassWord", "123456", "qwerty", "QWE", "admin", "ADMIN", "root", "user", "minecraft",
+        "123123", "111111", "000000", "azuremyst", "server", "game", "player", "abc", "ABC", "123",
+        "aaa", "zz", "777", "!!!", "\n", "\r", "\r\n", "\u0085", "\u2028", "\u2029",
+        "\u0130", "\u0131", "\u212A", "\u03A3", "\u00DF", "\uFB03",
+        "\uD83D\uDE00", "\uD83D", "\uDE00", "\uD800\uDC00"
+    };
+    
+    private static final int MAX_REPORTED = 20;
+    
+    private int count = 200_000;
+    private long seed = 1;
+    private long checked;
+    private long differenceCount;
+    private final List<String> differences = new ArrayList<>();
+    
+    public static void main(String[] args) {
+        PasswordStrengthCheck check = new PasswordStrengthCheck();
+        check.parse(args);
+        
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            for (Locale locale : new Locale[] {Locale.ROOT, new Locale("tr", "TR")}) {
+                Locale.setDefault(locale);
+                check.run();
+            }
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+        
+        if (!check.report()) {
+            System.exit(1);
+        }
+    }
+    
+    private void parse(String[] args) {
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Ожидается --параметр=значение: " + arg);
+            }
+            
+            String key = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (key) {
+                case "count":
+                    count = Integer.parseInt(value);
+                    break;
+                case "seed":
+                    seed = Long.parseLong(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Неизвестный параметр: " + key);
+            }
+        }
+    }
+    
+    private void run() {
+        for (String password : EDGE_CASES) {
+            compare(password);
+        }
+        
+        Random random = new Random(seed);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.setLength(0);
+            int parts = 1 + random.nextInt(6);
+            for (int p = 0; p < parts; p++) {
+                builder.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            compare(builder.toString());
+        }
+    }
+    
+    private void compare(String password) {
+        checked++;
+        PasswordUtils.PasswordStrength expected = RegexPasswordStrength.checkPasswordStrength(password);
+        PasswordUtils.PasswordStrength actual = PasswordUtils.checkPasswordStrength(password);
+        if (expected != actual) {
+            differenceCount++;
+            if (differences.size() < MAX_REPORTED) {
+                differences.add("[" + Locale.getDefault() + "] " + escape(password)
+                    + ": ожидалось " + expected + ", получено " + actual);
+            }
+        }
+    }
+    
+    private boolean report() {
+        if (differenceCount == 0) {
+            System.out.println("Проверка сложности паролей: " + checked + " паролей, расхождений нет");
+            return true;
+        }
+        
+        System.out.println("Проверка сложности паролей: " + checked + " паролей, расхождений: " + differenceCount);
+        for (String difference : differences) {
+            System.out.println("  " + difference);
+        }
+        return false;
+    }
+    
+    private static String escape(String value) {
+        if (value == null) {
+            return "null";
+        }
+        
+        StringBuilder builder = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c > 0x7E) {
+                builder.append(String.format("\\u%04X", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+}
@@ -0,0 +1,89 @@
+package net.azuremyst.auth.benchmark;
+
+import net.azuremyst.auth.utils.PasswordUtils;
+
+import java.util.regex.Pattern;
+
+/**
+ * Прежняя проверка сложности пароля регулярными выражениями
+ *
+ * Эталон для PasswordStrengthAnalyzer: сравнивается с ним в PasswordBenchmark
+ * и PasswordStrengthCheck. Код перенесен из PasswordUtils без изменений.
+ */
+public final class RegexPasswordStrength {
+    
+    // Регулярные выражения для проверки безопасности пароля
+    private static final Pattern LOWERCASE = Pattern.compile(".*[a-z].*");
+    private static final Pattern UPPERCASE = Pattern.compile(".*[A-Z].*");
+    private static final Pattern DIGITS = Pattern.compile(".*[0-9].*");
+    private static final Pattern SPECIAL_CHARS = Pattern.compile(".*[!@#$%^&*()_+\\-=\\[\\]{};':\"\\\\|,.<>\\/?].*");
+    
+    private RegexPasswordStrength() {
+    }
+    
+    /**
+     * Проверка безопасности пароля
+     */
+    public static PasswordUtils.PasswordStrength checkPasswordStrength(String password) {
+        if (password == null || password.length() < 6) {
+            return PasswordUtils.PasswordStrength.VERY_WEAK;
+        }
+        
+        int score = 0;
+        
+        // Длина пароля
+        if (password.length() >= 8) score++;
+        if (password.length() >= 12) score++;
+        
+        // Содержит строчные буквы
+        if (LOWERCASE.matcher(password).matches()) score++;
+        
+        // Содержит заглавные буквы
+        if (UPPERCASE.matcher(password).matches()) score++;
+        
+        // Содержит цифры
+        if (DIGITS.matcher(password).matches()) score++;
+        
+        // Содержит специальные символы
+        if (SPECIAL_CHARS.matcher(password).matches()) score++;
+        
+        // Не содержит общих паттернов
+        if (!containsCommonPatterns(password)) score++;
+        
+        return PasswordUtils.PasswordStrength.fromScore(score);
+    }
+    
+    /**
+     * Проверка на наличие общих небезопасных паттернов
+     */
+    private static boolean containsCommonPatterns(String password) {
+        String lowerPassword = password.toLowerCase();
+        
+        // Список общих небезопасных паролей
+        String[] commonPasswords = {
+            "password", "123456", "qwerty", "admin", "root", "user",
+            "minecraft", "123123", "111111", "000000", "password123",
+            "azuremyst", "server", "game", "player"
+        };
+        
+        for (String common : commonPasswords) {
+            if (lowerPassword.contains(common)) {
+                return true;
+            }
+        }
+        
+        // Проверка на последовательности
+        if (lowerPassword.matches(".*123.*") ||
+            lowerPassword.matches(".*abc.*") ||
+            lowerPassword.matches(".*qwe.*")) {
+            return true;
+        }
+        
+        // Проверка на повторяющиеся символы
+        if (password.matches(".*(.)\\1{2,}.*")) {
+            return true;
+        }
+        
+        return false;
+    }
+}
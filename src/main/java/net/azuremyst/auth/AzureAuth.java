@@ -2,13 +2,29 @@ package net.azuremyst.auth;
 
 import net.azuremyst.auth.commands.AuthCommand;
 import net.azuremyst.auth.config.ConfigManager;
+import net.azuremyst.auth.config.ConfigWatcher;
+import net.azuremyst.auth.database.AuditLogWriter;
+import net.azuremyst.auth.database.ConnectionPool;
 import net.azuremyst.auth.database.DatabaseManager;
+import net.azuremyst.auth.database.LogArchiver;
 import net.azuremyst.auth.listeners.PlayerListener;
 import net.azuremyst.auth.managers.AuthManager;
 import net.azuremyst.auth.managers.SessionManager;
+import net.azuremyst.auth.metrics.MetricsHttpServer;
+import net.azuremyst.auth.metrics.MetricsRegistry;
+import net.azuremyst.auth.security.BreachedPasswordFilter;
+import net.azuremyst.auth.security.PasswordHashingService;
+import net.azuremyst.auth.utils.CommandAllowlist;
 import net.azuremyst.auth.utils.MessageUtils;
+import net.azuremyst.auth.utils.PasswordUtils;
+import net.azuremyst.auth.utils.TimingWheel;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
 /**
  * AzureAuth - Плагин авторизации для сервера AzureMyst
  * Обеспечивает безопасную регистрацию и авторизацию игроков
@@ -23,7 +39,15 @@ public class AzureAuth extends JavaPlugin {
     private DatabaseManager databaseManager;
     private AuthManager authManager;
     private SessionManager sessionManager;
+    private PasswordHashingService passwordHashingService;
     private MessageUtils messageUtils;
+    private TimingWheel timingWheel;
+    private volatile CommandAllowlist commandAllowlist;
+    private ConfigWatcher configWatcher;
+    private MetricsRegistry metrics;
+    private MetricsHttpServer metricsServer;
+    private LogArchiver logArchiver;
+    private PlayerListener playerListener;
     
     @Override
     public void onEnable() {
@@ -35,9 +59,30 @@ public class AzureAuth extends JavaPlugin {
         // Регистрация команд
         registerCommands();
         
+        // Разрешенные команды: псевдонимы команд других плагинов известны
+        // только после их включения, поэтому список пересобирается в первом тике
+        rebuildCommandAllowlist();
+        getServer().getScheduler().runTask(this, this::rebuildCommandAllowlist);
+        
         // Регистрация слушателей
         registerListeners();
         
+        // Таймеры авторизации и сессий
+        startTimingWheel();
+        
+        // Общая БД MySQL: обнаружение перевода таблиц в другую схему другим сервером
+        getServer().getScheduler().runTaskTimerAsynchronously(this,
+            () -> databaseManager.checkSchemaLayout(), 1200L, 1200L);
+        
+        // Отслеживание изменений config.yml (advanced.watch-config)
+        updateConfigWatcher();
+        
+        // Эндпоинт метрик Prometheus (metrics.http)
+        updateMetricsServer();
+        
+        // Срок хранения журнала действий (logging.retention)
+        updateLogRetention();
+        
         getLogger().info("§a[AzureAuth] Плагин успешно загружен!");
         getLogger().info("§a[AzureAuth] Версия: " + getDescription().getVersion());
         getLogger().info("§a[AzureAuth] Разработано для сервера AzureMyst");
@@ -45,13 +90,38 @@ public class AzureAuth extends JavaPlugin {
     
     @Override
     public void onDisable() {
+        if (configWatcher != null) {
+            configWatcher.stop();
+            configWatcher = null;
+        }
+        
+        if (metricsServer != null) {
+            metricsServer.stop();
+            metricsServer = null;
+        }
+        
+        // Очистка журнала использует соединения БД, поэтому останавливается раньше
+        if (logArchiver != null) {
+            logArchiver.stop();
+            logArchiver = null;
+        }
+        
+        if (authManager != null) {
+            authManager.shutdown();
+        }
+        
         // Сохранение данных перед отключением
+        if (sessionManager != null) {
+            sessionManager.saveAllSessions();
+        }
+        
+        // Закрытие БД: завершение запросов, запись очереди логов, закрытие соединений
         if (databaseManager != null) {
             databaseManager.closeConnection();
         }
         
-        if (sessionManager != null) {
-            sessionManager.saveAllSessions();
+        if (passwordHashingService != null) {
+            passwordHashingService.shutdown();
         }
         
         getLogger().info("§c[AzureAuth] Плагин отключен!");
@@ -62,13 +132,24 @@ public class AzureAuth extends JavaPlugin {
      */
     private void initializeComponents() {
         try {
+            // Реестр метрик (нужен остальным компонентам при создании)
+            metrics = new MetricsRegistry();
+            
             // Менеджер конфигурации
             configManager = new ConfigManager(this);
             configManager.loadConfig();
+            PasswordUtils.setWeakPasswords(configManager.getWeakPasswords());
+            loadBreachedPasswordFilter();
             
             // Утилиты сообщений
             messageUtils = new MessageUtils(this);
             
+            // Колесо таймеров (шаг 1 секунда)
+            timingWheel = new TimingWheel(getLogger(), 1000L);
+            
+            // Хеширование паролей
+            passwordHashingService = new PasswordHashingService(this);
+            
             // Менеджер базы данных
             databaseManager = new DatabaseManager(this);
             databaseManager.initialize();
@@ -78,7 +159,10 @@ public class AzureAuth extends JavaPlugin {
             
             // Менеджер сессий
             sessionManager = new SessionManager(this);
+            sessionManager.loadSessions();
             
+            registerMetrics();
+        
         } catch (Exception e) {
             getLogger().severe("§c[AzureAuth] Ошибка при инициализации компонентов: " + e.getMessage());
             e.printStackTrace();
@@ -98,11 +182,162 @@ public class AzureAuth extends JavaPlugin {
         getCommand("azureauth").setExecutor(authCommand);
     }
     
+    /**
+     * Сборка списка команд, разрешенных неавторизованным игрокам
+     */
+    private void rebuildCommandAllowlist() {
+        commandAllowlist = CommandAllowlist.compile(configManager.getAllowedCommands(), getServer());
+    }
+    
+    /**
+     * Загрузка фильтра утекших паролей (security.breached-passwords)
+     *
+     * При перезагрузке файл открывается заново, только если изменились путь,
+     * размер или время изменения файла; иначе остается текущее отображение.
+     */
+    private void loadBreachedPasswordFilter() {
+        if (!configManager.isBreachedPasswordsEnabled()) {
+            PasswordUtils.setBreachedPasswordFilter(null);
+            return;
+        }
+        
+        File file = new File(getDataFolder(), configManager.getBreachedPasswordsFile());
+        BreachedPasswordFilter current = PasswordUtils.getBreachedPasswordFilter();
+        if (current != null && current.isOpenedFrom(file.toPath())) {
+            return;
+        }
+        
+        try {
+            BreachedPasswordFilter filter = BreachedPasswordFilter.open(file.toPath());
+            PasswordUtils.setBreachedPasswordFilter(filter);
+            getLogger().info("§a[AzureAuth] Фильтр утекших паролей загружен: " + filter.getEntryCount() + " записей");
+        } catch (IOException e) {
+            PasswordUtils.setBreachedPasswordFilter(null);
+            getLogger().warning("§c[AzureAuth] Не удалось загрузить фильтр утекших паролей " + file.getName()
+                + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Запуск или остановка отслеживания config.yml по текущей настройке
+     */
+    private void updateConfigWatcher() {
+        boolean enabled = configManager.isWatchConfig();
+        if (enabled && configWatcher == null) {
+            configWatcher = new ConfigWatcher(getLogger(), new File(getDataFolder(), "config.yml").toPath(),
+                () -> runSync(this::reloadPlugin));
+            configWatcher.start();
+        } else if (!enabled && configWatcher != null) {
+            configWatcher.stop();
+            configWatcher = null;
+        }
+    }
+    
+    /**
+     * Регистрация датчиков очередей и состояния плагина
+     */
+    private void registerMetrics() {
+        metrics.gauge("login_queue_size", "Login attempts waiting for admission",
+            () -> authManager.getAdmissionController().getQueueSize());
+        metrics.gauge("login_in_flight", "Login attempts being verified",
+            () -> authManager.getAdmissionController().getInFlight());
+        metrics.gauge("hashing_queue_size", "Password hashing tasks waiting for a thread",
+            () -> passwordHashingService.getQueueSize());
+        metrics.gauge("hashing_active_threads", "Password hashing threads busy",
+            () -> passwordHashingService.getActiveCount());
+        metrics.gauge("database_queue_size", "Database queries waiting for a thread",
+            () -> databaseManager.getQueueSize());
+        metrics.gauge("database_write_queue_size", "Database writes waiting for the SQLite writer thread",
+            () -> databaseManager.getWriteQueueSize());
+        metrics.gauge("audit_log_queue_size", "Audit log entries waiting to be written", () -> {
+            AuditLogWriter writer = databaseManager.getAuditLogWriter();
+            return writer != null ? writer.getQueueSize() : 0;
+        });
+        metrics.gauge("pool_active_connections", "Database connections in use", () -> {
+            ConnectionPool pool = databaseManager.getPool();
+            return pool != null ? pool.getActiveConnections() : 0;
+        });
+        metrics.gauge("pool_waiting_threads", "Threads waiting for a database connection", () -> {
+            ConnectionPool pool = databaseManager.getPool();
+            return pool != null ? pool.getWaitingThreads() : 0;
+        });
+        metrics.gauge("read_pool_active_connections", "SQLite read-only connections in use", () -> {
+            ConnectionPool pool = databaseManager.getReadPool();
+            return pool != null ? pool.getActiveConnections() : 0;
+        });
+        metrics.gauge("authenticated_players", "Authenticated players online",
+            () -> authManager.getAuthenticatedCount());
+        metrics.gauge("active_sessions", "Players with an active session",
+            () -> sessionManager.getSessionCount());
+        metrics.gauge("scheduled_timers", "Timeouts scheduled on the timing wheel",
+            () -> timingWheel.size());
+    }
+    
+    /**
+     * Запуск, перезапуск или остановка эндпоинта метрик по текущей настройке
+     */
+    private void updateMetricsServer() {
+        if (!configManager.isMetricsHttpEnabled()) {
+            if (metricsServer != null) {
+                metricsServer.stop();
+                metricsServer = null;
+                getLogger().info("§a[AzureAuth] Эндпоинт метрик остановлен");
+            }
+            return;
+        }
+        
+        String host = configManager.getMetricsHttpHost();
+        int port = configManager.getMetricsHttpPort();
+        if (metricsServer != null && metricsServer.isRunning()
+                && metricsServer.getHost().equals(host) && metricsServer.getPort() == port) {
+            return;
+        }
+        
+        if (metricsServer == null) {
+            metricsServer = new MetricsHttpServer(metrics, getLogger());
+        }
+        if (metricsServer.start(host, port)) {
+            getLogger().info("§a[AzureAuth] Метрики доступны по адресу http://" + host + ":" + port + "/metrics");
+        }
+    }
+    
+    /**
+     * Запуск, изменение интервала или остановка очистки журнала по текущей настройке
+     */
+    private void updateLogRetention() {
+        if (!configManager.isLogRetentionEnabled()) {
+            if (logArchiver != null) {
+                logArchiver.stop();
+                logArchiver = null;
+            }
+            return;
+        }
+        
+        if (logArchiver == null) {
+            logArchiver = new LogArchiver(this);
+        }
+        logArchiver.start();
+    }
+    
+    /**
+     * Запуск продвижения колеса таймеров в основном потоке
+     * (одна задача Bukkit на все таймауты входа, сессий и блокировок)
+     */
+    private void startTimingWheel() {
+        getServer().getScheduler().runTaskTimer(this,
+            () -> timingWheel.advance(System.currentTimeMillis()), 20L, 20L);
+    }
+    
     /**
      * Регистрация слушателей событий
      */
     private void registerListeners() {
-        getServer().getPluginManager().registerEvents(new PlayerListener(this), this);
+        playerListener = new PlayerListener(this);
+        getServer().getPluginManager().registerEvents(playerListener, this);
+        
+        // Предзагруженные данные игроков, которые так и не зашли
+        getServer().getScheduler().runTaskTimerAsynchronously(this,
+            () -> playerListener.getPreLoginCache().removeExpired(), 600L, 600L);
     }
     
     // Геттеры для доступа к компонентам
@@ -126,20 +361,92 @@ public class AzureAuth extends JavaPlugin {
         return sessionManager;
     }
     
+    public PasswordHashingService getPasswordHashingService() {
+        return passwordHashingService;
+    }
+    
     public MessageUtils getMessageUtils() {
         return messageUtils;
     }
     
+    public TimingWheel getTimingWheel() {
+        return timingWheel;
+    }
+    
+    public CommandAllowlist getCommandAllowlist() {
+        return commandAllowlist;
+    }
+    
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Очистка журнала действий, null если logging.retention не настроен
+     */
+    public LogArchiver getLogArchiver() {
+        return logArchiver;
+    }
+    
+    /**
+     * Выполнение задачи в основном потоке сервера
+     */
+    public void runSync(Runnable task) {
+        if (getServer().isPrimaryThread()) {
+            task.run();
+        } else if (isEnabled()) {
+            getServer().getScheduler().runTask(this, task);
+        }
+    }
+    
+    /**
+     * Исполнитель для продолжения асинхронных операций в основном потоке
+     */
+    public Executor getMainThreadExecutor() {
+        return this::runSync;
+    }
+    
+    /**
+     * Обработка ошибки асинхронной операции
+     */
+    public Void handleAsyncError(Player player, Throwable error) {
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        getLogger().severe("§c[AzureAuth] Ошибка асинхронной операции: " + cause.getMessage());
+        
+        if (player != null) {
+            runSync(() -> {
+                if (player.isOnline()) {
+                    messageUtils.sendMessage(player, "system-error");
+                }
+            });
+        }
+        return null;
+    }
+    
     /**
      * Перезагрузка плагина
+     *
+     * @return false, если конфигурация содержит ошибки и не была применена
      */
-    public void reloadPlugin() {
+    public boolean reloadPlugin() {
         try {
-            configManager.loadConfig();
+            if (!configManager.reloadConfig()) {
+                return false;
+            }
             messageUtils.reloadMessages();
+            PasswordUtils.setWeakPasswords(configManager.getWeakPasswords());
+            loadBreachedPasswordFilter();
+            rebuildCommandAllowlist();
+            updateConfigWatcher();
+            updateMetricsServer();
+            updateLogRetention();
+            databaseManager.applyCacheSettings();
+            playerListener.applyNotificationCooldowns();
             getLogger().info("§a[AzureAuth] Плагин успешно перезагружен!");
+            return true;
         } catch (Exception e) {
             getLogger().severe("§c[AzureAuth] Ошибка при перезагрузке: " + e.getMessage());
+            return false;
         }
     }
 }
@@ -1,6 +1,15 @@
 package net.azuremyst.auth.commands;
 
 import net.azuremyst.auth.AzureAuth;
+import net.azuremyst.auth.database.AuditLogWriter;
+import net.azuremyst.auth.database.ConnectionPool;
+import net.azuremyst.auth.database.LogArchiver;
+import net.azuremyst.auth.database.PlayerDataCache;
+import net.azuremyst.auth.managers.AuthManager;
+import net.azuremyst.auth.managers.LoginAdmissionController;
+import net.azuremyst.auth.metrics.LatencyHistogram;
+import net.azuremyst.auth.security.PasswordHashingService;
+import net.azuremyst.auth.utils.ComponentCache;
 import net.azuremyst.auth.utils.PasswordUtils;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -11,6 +20,8 @@ import org.bukkit.entity.Player;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Обработчик команд авторизации
@@ -85,14 +96,30 @@ public class AuthCommand implements CommandExecutor, TabCompleter {
             return true;
         }
         
-        if (plugin.getDatabaseManager().playerExists(player.getUniqueId())) {
-            plugin.getMessageUtils().sendMessage(player, "already-registered");
-            return true;
-        }
-        
+        plugin.getDatabaseManager().playerExistsAsync(player.getUniqueId())
+                .thenAcceptAsync(exists -> {
+                    if (!player.isOnline()) {
+                        return;
+                    }
+                    
+                    if (exists) {
+                        plugin.getMessageUtils().sendMessage(player, "already-registered");
+                        return;
+                    }
+                    
+                    continueRegister(player, args);
+                }, plugin.getMainThreadExecutor())
+                .exceptionally(error -> plugin.handleAsyncError(player, error));
+        return true;
+    }
+    
+    /**
+     * Проверка параметров регистрации после проверки существования аккаунта
+     */
+    private void continueRegister(Player player, String[] args) {
         if (args.length == 0) {
             plugin.getMessageUtils().sendMessage(player, "register-usage");
-            return true;
+            return;
         }
         
         String password;
@@ -105,26 +132,26 @@ public class AuthCommand implements CommandExecutor, TabCompleter {
             confirmPassword = args[1];
         } else {
             plugin.getMessageUtils().sendMessage(player, "register-usage");
-            return true;
+            return;
         }
         
         // Проверка длины пароля
         if (password.length() < plugin.getConfigManager().getMinPasswordLength()) {
             plugin.getMessageUtils().sendMessage(player, "password-too-short", 
                 String.valueOf(plugin.getConfigManager().getMinPasswordLength()));
-            return true;
+            return;
         }
         
         if (password.length() > plugin.getConfigManager().getMaxPasswordLength()) {
             plugin.getMessageUtils().sendMessage(player, "password-too-long",
                 String.valueOf(plugin.getConfigManager().getMaxPasswordLength()));
-            return true;
+            return;
         }
         
         // Проверка подтверждения пароля
         if (confirmPassword != null && !password.equals(confirmPassword)) {
             plugin.getMessageUtils().sendMessage(player, "passwords-dont-match");
-            return true;
+            return;
         }
         
         // Проверка безопасности пароля
@@ -133,13 +160,39 @@ public class AuthCommand implements CommandExecutor, TabCompleter {
             if (!strength.isAcceptable()) {
                 player.sendMessage("§cПароль слишком слабый! Сила пароля: " + strength.getDisplayName());
                 player.sendMessage(PasswordUtils.getPasswordRequirements());
-                return true;
+                return;
             }
         }
         
-        // Регистрация игрока
-        plugin.getAuthManager().registerPlayer(player, password);
-        return true;
+        // Регистрация игрока (после проверки по списку утечек)
+        checkBreachedPassword(player, password,
+            () -> plugin.getAuthManager().registerPlayer(player, password));
+    }
+    
+    /**
+     * Проверка пароля по фильтру утекших паролей в пуле хеширования
+     * (чтение отображенного файла может обращаться к диску)
+     */
+    private void checkBreachedPassword(Player player, String password, Runnable onAccepted) {
+        if (!plugin.getConfigManager().isBreachedPasswordsEnabled()) {
+            onAccepted.run();
+            return;
+        }
+        
+        plugin.getPasswordHashingService().isBreachedAsync(password)
+                .thenAcceptAsync(breached -> {
+                    if (!player.isOnline()) {
+                        return;
+                    }
+                    
+                    if (breached) {
+                        plugin.getMessageUtils().sendMessage(player, "password-breached");
+                        return;
+                    }
+                    
+                    onAccepted.run();
+                }, plugin.getMainThreadExecutor())
+                .exceptionally(error -> plugin.handleAsyncError(player, error));
     }
     
     /**
@@ -188,25 +241,41 @@ public class AuthCommand implements CommandExecutor, TabCompleter {
         String newPassword = args[1];
         
         // Проверка старого пароля
-        if (!plugin.getDatabaseManager().checkPassword(player.getUniqueId(), oldPassword)) {
-            plugin.getMessageUtils().sendMessage(player, "wrong-password");
-            plugin.getDatabaseManager().logAction(player.getUniqueId(), player.getName(), 
-                "CHANGE_PASSWORD_FAILED", player.getAddress().getAddress().getHostAddress(),
-                "Wrong old password");
-            return true;
-        }
-        
+        plugin.getDatabaseManager().checkPasswordAsync(player.getUniqueId(), oldPassword)
+                .thenAcceptAsync(valid -> {
+                    if (!player.isOnline()) {
+                        return;
+                    }
+                    
+                    if (!valid) {
+                        plugin.getMessageUtils().sendMessage(player, "wrong-password");
+                        plugin.getDatabaseManager().logActionAsync(player.getUniqueId(), player.getName(),
+                            "CHANGE_PASSWORD_FAILED", player.getAddress().getAddress().getHostAddress(),
+                            "Wrong old password");
+                        return;
+                    }
+                    
+                    continueChangePassword(player, oldPassword, newPassword);
+                }, plugin.getMainThreadExecutor())
+                .exceptionally(error -> plugin.handleAsyncError(player, error));
+        return true;
+    }
+    
+    /**
+     * Проверка и сохранение нового пароля после проверки старого
+     */
+    private void continueChangePassword(Player player, String oldPassword, String newPassword) {
         // Проверка нового пароля
         if (newPassword.length() < plugin.getConfigManager().getMinPasswordLength()) {
             plugin.getMessageUtils().sendMessage(player, "password-too-short",
                 String.valueOf(plugin.getConfigManager().getMinPasswordLength()));
-            return true;
+            return;
         }
         
         if (newPassword.length() > plugin.getConfigManager().getMaxPasswordLength()) {
             plugin.getMessageUtils().sendMessage(player, "password-too-long",
                 String.valueOf(plugin.getConfigManager().getMaxPasswordLength()));
-            return true;
+            return;
         }
         
         // Проверка безопасности нового пароля
@@ -215,30 +284,40 @@ public class AuthCommand implements CommandExecutor, TabCompleter {
             if (!strength.isAcceptable()) {
                 player.sendMessage("§cНовый пароль слишком слабый! Сила пароля: " + strength.getDisplayName());
                 player.sendMessage(PasswordUtils.getPasswordRequirements());
-                return true;
+                return;
             }
         }
         
         // Проверка, что новый пароль отличается от старого
         if (oldPassword.equals(newPassword)) {
             plugin.getMessageUtils().sendMessage(player, "same-password");
-            return true;
-        }
-        
-        // Изменение пароля
-        if (plugin.getDatabaseManager().changePassword(player.getUniqueId(), newPassword)) {
-            plugin.getMessageUtils().sendMessage(player, "password-changed");
-            plugin.getDatabaseManager().logAction(player.getUniqueId(), player.getName(),
-                "CHANGE_PASSWORD", player.getAddress().getAddress().getHostAddress(),
-                "Password changed successfully");
-            
-            // Деактивация всех сессий для безопасности
-            plugin.getDatabaseManager().deactivateAllSessions(player.getUniqueId());
-        } else {
-            plugin.getMessageUtils().sendMessage(player, "password-change-error");
+            return;
         }
         
-        return true;
+        checkBreachedPassword(player, newPassword, () -> savePassword(player, newPassword));
+    }
+    
+    /**
+     * Сохранение нового пароля
+     */
+    private void savePassword(Player player, String newPassword) {
+        UUID uuid = player.getUniqueId();
+        String ipAddress = player.getAddress().getAddress().getHostAddress();
+        
+        plugin.getDatabaseManager().changePasswordAsync(uuid, newPassword)
+                .thenAcceptAsync(changed -> {
+                    if (changed) {
+                        plugin.getMessageUtils().sendMessage(player, "password-changed");
+                        plugin.getDatabaseManager().logActionAsync(uuid, player.getName(),
+                            "CHANGE_PASSWORD", ipAddress, "Password changed successfully");
+                        
+                        // Деактивация всех сессий для безопасности
+                        plugin.getSessionManager().deactivateSession(uuid);
+                    } else {
+                        plugin.getMessageUtils().sendMessage(player, "password-change-error");
+                    }
+                }, plugin.getMainThreadExecutor())
+                .exceptionally(error -> plugin.handleAsyncError(player, error));
     }
     
     /**
@@ -259,8 +338,11 @@ public class AuthCommand implements CommandExecutor, TabCompleter {
         
         switch (subCommand) {
             case "reload":
-                plugin.reloadPlugin();
-                sender.sendMessage("§a[AzureAuth] Плагин успешно перезагружен!");
+                if (plugin.reloadPlugin()) {
+                    sender.sendMessage("§a[AzureAuth] Плагин успешно перезагружен!");
+                } else {
+                    sender.sendMessage("§c[AzureAuth] Ошибка при перезагрузке, подробности в консоли");
+                }
                 return true;
                 
             case "stats":
@@ -280,10 +362,15 @@ public class AuthCommand implements CommandExecutor, TabCompleter {
                 return handlePlayerInfo(sender, args);
                 
             case "cleanup":
-                plugin.getDatabaseManager().cleanupExpiredSessions();
-                sender.sendMessage("§a[AzureAuth] Очистка устаревших сессий завершена!");
+                plugin.getDatabaseManager().cleanupExpiredSessionsAsync()
+                        .thenRunAsync(() -> sender.sendMessage("§a[AzureAuth] Очистка устаревших сессий завершена!"),
+                            plugin.getMainThreadExecutor())
+                        .exceptionally(error -> plugin.handleAsyncError(null, error));
                 return true;
                 
+            case "purgelogs":
+                return handlePurgeLogs(sender);
+                
             default:
                 showAdminHelp(sender);
                 return true;
@@ -302,6 +389,33 @@ public class AuthCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage("§e/azureauth forcelogin <игрок> §7- Принудительный вход");
         sender.sendMessage("§e/azureauth resetpassword <игрок> §7- Сбросить пароль");
         sender.sendMessage("§e/azureauth cleanup §7- Очистить устаревшие сессии");
+        sender.sendMessage("§e/azureauth purgelogs §7- Архивировать и удалить старые записи журнала");
+    }
+    
+    /**
+     * Внеочередная очистка журнала по logging.retention
+     */
+    private boolean handlePurgeLogs(CommandSender sender) {
+        LogArchiver archiver = plugin.getLogArchiver();
+        if (archiver == null) {
+            sender.sendMessage("§c[AzureAuth] Срок хранения журнала не задан (logging.retention)");
+            return true;
+        }
+        
+        sender.sendMessage("§e[AzureAuth] Очистка журнала запущена...");
+        archiver.runAsync()
+                .thenAcceptAsync(result -> {
+                    if (result == null) {
+                        sender.sendMessage("§c[AzureAuth] Очистка журнала уже выполняется");
+                    } else {
+                        sender.sendMessage((result.isFailed() ? "§c" : "§a") + "[AzureAuth] Очистка журнала "
+                            + (result.isFailed() ? "прервана ошибкой" : "завершена") + ": удалено §f"
+                            + result.getDeleted() + "§a, архивировано §f" + result.getArchived() + "§a за §f"
+                            + result.getElapsedMillis() + " мс §a(§f" + result.getRowsPerSecond() + "§a записей/с)");
+                    }
+                }, plugin.getMainThreadExecutor())
+                .exceptionally(error -> plugin.handleAsyncError(null, error));
+        return true;
     }
     
     /**
@@ -310,14 +424,111 @@ public class AuthCommand implements CommandExecutor, TabCompleter {
     private void showStats(CommandSender sender) {
         sender.sendMessage("§6=== Статистика AzureAuth ===");
         sender.sendMessage("§7Версия плагина: §f" + plugin.getDescription().getVersion());
-        sender.sendMessage("§7База данных: §f" + plugin.getConfigManager().getDatabaseType());
-        sender.sendMessage("§7Соединение с БД: " + 
-            (plugin.getDatabaseManager().isConnectionValid() ? "§aАктивно" : "§cНеактивно"));
+        sender.sendMessage("§7База данных: §f" + (plugin.getDatabaseManager().isMySQL() ? "MYSQL" : "SQLITE"));
+        sender.sendMessage("§7Пул соединений БД: " + 
+            (plugin.getDatabaseManager().isConnectionValid() ? "§aОткрыт" : "§cЗакрыт"));
+        
+        ConnectionPool pool = plugin.getDatabaseManager().getPool();
+        if (pool != null) {
+            sender.sendMessage("§7Соединения: §f" + pool.getActiveConnections() + "§7 активно / §f"
+                + pool.getIdleConnections() + "§7 свободно / §f" + pool.getMaximumSize() + "§7 максимум");
+            sender.sendMessage(String.format("§7Ожидание соединения: §fср. %.2f мс§7, §fмакс. %.2f мс§7, таймаутов: §f%d",
+                pool.getAverageWaitMillis(), pool.getMaxWaitMillis(), pool.getBorrowTimeouts()));
+        }
+        
+        ConnectionPool readPool = plugin.getDatabaseManager().getReadPool();
+        if (readPool != null) {
+            sender.sendMessage("§7Соединения для чтения (WAL): §f" + readPool.getActiveConnections() + "§7 активно / §f"
+                + readPool.getIdleConnections() + "§7 свободно / §f" + readPool.getMaximumSize() + "§7 максимум");
+            sender.sendMessage("§7Очередь потока записи: §f" + plugin.getDatabaseManager().getWriteQueueSize());
+        }
+        
+        PlayerDataCache cache = plugin.getDatabaseManager().getPlayerDataCache();
+        if (cache != null) {
+            sender.sendMessage(String.format("§7Кэш игроков: §f%d§7/§f%d§7, попаданий: §f%d§7, промахов: §f%d§7 (§f%.1f%%§7)",
+                cache.size(), cache.getMaximumSize(), cache.getHitCount(), cache.getMissCount(), cache.getHitRate() * 100));
+            sender.sendMessage("§7Вытеснено из кэша: §f" + cache.getEvictionCount() + "§7, устарело: §f"
+                + cache.getExpirationCount() + "§7, не допущено: §f" + cache.getRejectionCount());
+        }
+        
+        AuditLogWriter auditLog = plugin.getDatabaseManager().getAuditLogWriter();
+        if (auditLog != null) {
+            sender.sendMessage("§7Очередь логов: §f" + auditLog.getQueueSize() + "§7, записано: §f"
+                + auditLog.getWrittenCount() + "§7 (пакетов: §f" + auditLog.getBatchCount() + "§7), отброшено: §f"
+                + auditLog.getDroppedCount() + "§7, ошибок: §f" + auditLog.getFailedCount());
+        }
+        
+        LogArchiver archiver = plugin.getLogArchiver();
+        if (archiver != null) {
+            LogArchiver.Result last = archiver.getLastResult();
+            if (archiver.isRunning()) {
+                sender.sendMessage("§7Очистка журнала: §eвыполняется");
+            } else if (last != null) {
+                sender.sendMessage("§7Последняя очистка журнала: удалено §f" + last.getDeleted() + "§7, архивировано §f"
+                    + last.getArchived() + "§7 за §f" + last.getElapsedMillis() + " мс§7 (§f"
+                    + last.getRowsPerSecond() + "§7 записей/с)" + (last.isFailed() ? ", §cс ошибкой" : ""));
+            }
+        }
+        
+        ComponentCache components = plugin.getMessageUtils().getComponentCache();
+        sender.sendMessage(String.format("§7Кэш Action Bar: §f%d§7/§f%d§7, попаданий: §f%d§7, промахов: §f%d§7 (§f%.1f%%§7)",
+            components.size(), components.getMaximumSize(), components.getHitCount(), components.getMissCount(),
+            components.getHitRate() * 100));
+        
+        PasswordHashingService hashing = plugin.getPasswordHashingService();
+        sender.sendMessage(String.format("§7Хеширование паролей: §f%s§7, потоков: §f%d§7, в работе: §f%d§7, в очереди: §f%d",
+            hashing.getAlgorithm(), hashing.getThreads(), hashing.getActiveCount(), hashing.getQueueSize()));
+        sender.sendMessage(String.format("§7Хешей вычислено: §f%d§7 (ср. §f%.1f мс§7), отклонено: §f%d",
+            hashing.getHashCount(), hashing.getAverageMillis(), hashing.getRejectedCount()));
+        
+        LoginAdmissionController admission = plugin.getAuthManager().getAdmissionController();
+        sender.sendMessage(String.format("§7Очередь входа: §f%d§7 (пик §f%d§7), проверяется: §f%d§7/§f%d",
+            admission.getQueueSize(), admission.getPeakQueueSize(), admission.getInFlight(), admission.getMaxConcurrent()));
+        sender.sendMessage(String.format("§7Ожидание входа: §fср. %.1f мс§7, §fмакс. %.1f мс§7, повторов отклонено: §f%d§7, переполнений: §f%d",
+            admission.getAverageWaitMillis(), admission.getMaxWaitMillis(), admission.getDuplicateCount(), admission.getRejectedCount()));
+        
         sender.sendMessage("§7Авторизованных игроков: §f" + plugin.getAuthManager().getAuthenticatedCount());
         sender.sendMessage("§7Регистрация: " + 
             (plugin.getConfigManager().isRegistrationEnabled() ? "§aВключена" : "§cОтключена"));
         sender.sendMessage("§7Сессии: " + 
             (plugin.getConfigManager().isSessionEnabled() ? "§aВключены" : "§cОтключены"));
+        sender.sendMessage("§7Игроков с активными сессиями: §f" + plugin.getSessionManager().getSessionCount());
+        sender.sendMessage("§7Запланированных таймеров: §f" + plugin.getTimingWheel().size());
+        sender.sendMessage("§7Очередь запросов к БД: §f" + plugin.getDatabaseManager().getQueueSize());
+        
+        AuthManager authManager = plugin.getAuthManager();
+        sender.sendMessage("§7Входы: §f" + formatCounts(authManager.getLoginCounter().snapshot()));
+        sender.sendMessage("§7Регистрации: §f" + formatCounts(authManager.getRegistrationCounter().snapshot()));
+        
+        sender.sendMessage("§6--- Задержки операций (кол-во, ср., p50, p99) ---");
+        for (Map.Entry<String, LatencyHistogram> entry : plugin.getMetrics().getHistograms().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            long count = histogram.getCount();
+            if (count == 0) {
+                continue;
+            }
+            sender.sendMessage(String.format("§7%s: §f%d§7, §f%.2f§7 / §f%.2f§7 / §f%.2f мс",
+                entry.getKey(), count, histogram.getAverageMillis(),
+                histogram.getPercentileMillis(0.5), histogram.getPercentileMillis(0.99)));
+        }
+    }
+    
+    /**
+     * Форматирование значений счётчика: "success 10, wrong_password 2"
+     */
+    private static String formatCounts(Map<String, Long> counts) {
+        if (counts.isEmpty()) {
+            return "0";
+        }
+        
+        StringBuilder builder = new StringBuilder();
+        counts.forEach((label, count) -> {
+            if (builder.length() > 0) {
+                builder.append("§7, §f");
+            }
+            builder.append(label).append(' ').append(count);
+        });
+        return builder.toString();
     }
     
     /**
@@ -384,7 +595,7 @@ public class AuthCommand implements CommandExecutor, TabCompleter {
             if (args.length == 1) {
                 if (sender.hasPermission("azureauth.admin")) {
                     completions.addAll(Arrays.asList("reload", "stats", "info", "unregister", 
-                        "forcelogin", "resetpassword", "cleanup"));
+                        "forcelogin", "resetpassword", "cleanup", "purgelogs"));
                 }
             }
         }
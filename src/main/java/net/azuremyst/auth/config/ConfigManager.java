@@ -1,15 +1,43 @@
 package net.azuremyst.auth.config;
 
 import net.azuremyst.auth.AzureAuth;
-import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
 
 /**
  * Менеджер конфигурации для плагина AzureAuth
+ *
+ * Значения хранятся в неизменяемом {@link ConfigSnapshot}; при перезагрузке
+ * новый снимок проверяется и заменяет текущий целиком.
  */
 public class ConfigManager {
     
+    /**
+     * Разделы config.yml, которые применяются только при запуске плагина
+     * (пулы потоков и соединений, схема БД, очередь логов и т.д.)
+     */
+    private static final List<String> RESTART_REQUIRED = List.of(
+        "database",
+        "performance.async-database",
+        "performance.database-threads",
+        "performance.database-queue-size",
+        "performance.login-admission",
+        "performance.component-cache",
+        "security.password-hashing",
+        "logging.batch");
+    
     private final AzureAuth plugin;
-    private FileConfiguration config;
+    private volatile ConfigSnapshot snapshot;
     
     public ConfigManager(AzureAuth plugin) {
         this.plugin = plugin;
@@ -21,148 +49,469 @@ public class ConfigManager {
     public void loadConfig() {
         plugin.saveDefaultConfig();
         plugin.reloadConfig();
-        config = plugin.getConfig();
+        
+        ConfigSnapshot loaded = new ConfigSnapshot(plugin.getConfig());
+        for (String error : loaded.validate()) {
+            plugin.getLogger().severe("§c[AzureAuth] Ошибка в config.yml: " + error);
+        }
+        snapshot = loaded;
+    }
+    
+    /**
+     * Перезагрузка конфигурации
+     *
+     * Файл сначала читается и проверяется отдельно; при ошибках текущая
+     * конфигурация остается без изменений.
+     *
+     * @return true, если новая конфигурация применена
+     */
+    public boolean reloadConfig() {
+        File configFile = new File(plugin.getDataFolder(), "config.yml");
+        YamlConfiguration candidate = YamlConfiguration.loadConfiguration(configFile);
+        
+        InputStream defConfigStream = plugin.getResource("config.yml");
+        if (defConfigStream != null) {
+            candidate.setDefaults(YamlConfiguration.loadConfiguration(
+                new InputStreamReader(defConfigStream, StandardCharsets.UTF_8)));
+        }
+        
+        ConfigSnapshot loaded = new ConfigSnapshot(candidate);
+        List<String> errors = loaded.validate();
+        if (!errors.isEmpty()) {
+            for (String error : errors) {
+                plugin.getLogger().severe("§c[AzureAuth] Ошибка в config.yml: " + error);
+            }
+            plugin.getLogger().warning("§c[AzureAuth] Конфигурация не перезагружена, используются прежние настройки");
+            return false;
+        }
+        
+        List<String> restartRequired = changedSections(plugin.getConfig(), candidate);
+        
+        plugin.reloadConfig();
+        snapshot = loaded;
+        
+        for (String path : restartRequired) {
+            plugin.getLogger().warning("§e[AzureAuth] Изменения в разделе " + path
+                + " вступят в силу только после перезапуска сервера");
+        }
+        return true;
+    }
+    
+    /**
+     * Разделы из RESTART_REQUIRED, значения которых различаются в двух конфигурациях
+     */
+    private static List<String> changedSections(ConfigurationSection previous, ConfigurationSection current) {
+        List<String> changed = new ArrayList<>();
+        for (String path : RESTART_REQUIRED) {
+            if (!Objects.equals(flatten(previous.get(path)), flatten(current.get(path)))) {
+                changed.add(path);
+            }
+        }
+        return changed;
+    }
+    
+    private static Object flatten(Object value) {
+        if (!(value instanceof ConfigurationSection)) {
+            return value;
+        }
+        
+        // Вложенные разделы сравниваются по значениям, а не по ссылкам
+        Map<String, Object> values = new TreeMap<>();
+        ((ConfigurationSection) value).getValues(true).forEach((key, nested) -> {
+            if (!(nested instanceof ConfigurationSection)) {
+                values.put(key, nested);
+            }
+        });
+        return values;
+    }
+    
+    /**
+     * Текущий снимок конфигурации (для чтения нескольких значений за раз)
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
     }
     
     // Настройки базы данных
     public String getDatabaseType() {
-        return config.getString("database.type", "SQLITE");
+        return snapshot.getDatabaseType();
     }
     
     public String getDatabaseHost() {
-        return config.getString("database.mysql.host", "localhost");
+        return snapshot.getDatabaseHost();
     }
     
     public int getDatabasePort() {
-        return config.getInt("database.mysql.port", 3306);
+        return snapshot.getDatabasePort();
     }
     
     public String getDatabaseName() {
-        return config.getString("database.mysql.database", "azureauth");
+        return snapshot.getDatabaseName();
     }
     
     public String getDatabaseUsername() {
-        return config.getString("database.mysql.username", "root");
+        return snapshot.getDatabaseUsername();
     }
     
     public String getDatabasePassword() {
-        return config.getString("database.mysql.password", "password");
+        return snapshot.getDatabasePassword();
+    }
+    
+    /**
+     * Дополнительные параметры подключения JDBC (database.mysql.connection-properties)
+     */
+    public Map<String, String> getDatabaseConnectionProperties() {
+        return snapshot.getDatabaseConnectionProperties();
+    }
+    
+    // Настройки пула соединений
+    public int getPoolMinimumIdle() {
+        return snapshot.getPoolMinimumIdle();
+    }
+    
+    public int getPoolMaximumSize() {
+        return snapshot.getPoolMaximumSize();
+    }
+    
+    public long getPoolIdleTimeout() {
+        return snapshot.getPoolIdleTimeout();
+    }
+    
+    public long getPoolMaxLifetime() {
+        return snapshot.getPoolMaxLifetime();
+    }
+    
+    public long getPoolConnectionTimeout() {
+        return snapshot.getPoolConnectionTimeout();
+    }
+    
+    public int getPoolValidationTimeout() {
+        return snapshot.getPoolValidationTimeout();
+    }
+    
+    public boolean isSqliteWal() {
+        return snapshot.isSqliteWal();
+    }
+    
+    public String getSqliteSynchronous() {
+        return snapshot.getSqliteSynchronous();
+    }
+    
+    public int getSqliteMmapSize() {
+        return snapshot.getSqliteMmapSize();
+    }
+    
+    public int getSqliteCacheSize() {
+        return snapshot.getSqliteCacheSize();
+    }
+    
+    public long getSqliteBusyTimeout() {
+        return snapshot.getSqliteBusyTimeout();
+    }
+    
+    public int getSqliteReaderConnections() {
+        return snapshot.getSqliteReaderConnections();
+    }
+    
+    public boolean isCompactSchema() {
+        return snapshot.isCompactSchema();
     }
     
     public String getDatabaseTablePrefix() {
-        return config.getString("database.table-prefix", "azureauth_");
+        return snapshot.getDatabaseTablePrefix();
     }
     
     // Настройки авторизации
     public boolean isRegistrationEnabled() {
-        return config.getBoolean("auth.registration-enabled", true);
+        return snapshot.isRegistrationEnabled();
     }
     
     public int getMinPasswordLength() {
-        return config.getInt("auth.min-password-length", 6);
+        return snapshot.getMinPasswordLength();
     }
     
     public int getMaxPasswordLength() {
-        return config.getInt("auth.max-password-length", 32);
+        return snapshot.getMaxPasswordLength();
     }
     
     public int getLoginTimeout() {
-        return config.getInt("auth.login-timeout", 60);
+        return snapshot.getLoginTimeout();
     }
     
     public int getMaxLoginAttempts() {
-        return config.getInt("auth.max-login-attempts", 3);
+        return snapshot.getMaxLoginAttempts();
     }
     
     public boolean isSessionEnabled() {
-        return config.getBoolean("auth.sessions.enabled", true);
+        return snapshot.isSessionEnabled();
     }
     
     public int getSessionDuration() {
-        return config.getInt("auth.sessions.duration", 3600);
+        return snapshot.getSessionDuration();
+    }
+    
+    public boolean isSessionAutoCreate() {
+        return snapshot.isSessionAutoCreate();
     }
     
     public boolean isCaptchaEnabled() {
-        return config.getBoolean("auth.captcha.enabled", true);
+        return snapshot.isCaptchaEnabled();
     }
     
     public int getCaptchaAfterAttempts() {
-        return config.getInt("auth.captcha.after-attempts", 2);
+        return snapshot.getCaptchaAfterAttempts();
     }
     
     // Настройки безопасности
     public boolean isIpWhitelistEnabled() {
-        return config.getBoolean("security.ip-whitelist.enabled", false);
+        return snapshot.isIpWhitelistEnabled();
     }
     
     public boolean isForceSecurePassword() {
-        return config.getBoolean("security.force-secure-password", true);
+        return snapshot.isForceSecurePassword();
     }
     
     public boolean isEmailVerificationEnabled() {
-        return config.getBoolean("security.email-verification.enabled", false);
+        return snapshot.isEmailVerificationEnabled();
     }
     
     public int getBruteForceProtectionTime() {
-        return config.getInt("security.brute-force-protection-time", 300);
+        return snapshot.getBruteForceProtectionTime();
+    }
+    
+    public List<String> getWeakPasswords() {
+        return snapshot.getWeakPasswords();
+    }
+    
+    public boolean isBreachedPasswordsEnabled() {
+        return snapshot.isBreachedPasswordsEnabled();
+    }
+    
+    public String getBreachedPasswordsFile() {
+        return snapshot.getBreachedPasswordsFile();
+    }
+    
+    // Настройки хеширования паролей
+    public String getPasswordHashAlgorithm() {
+        return snapshot.getPasswordHashAlgorithm();
+    }
+    
+    public int getHashingThreads() {
+        return snapshot.getHashingThreads();
+    }
+    
+    public int getHashingQueueSize() {
+        return snapshot.getHashingQueueSize();
+    }
+    
+    public int getPbkdf2Iterations() {
+        return snapshot.getPbkdf2Iterations();
+    }
+    
+    public int getScryptLogCost() {
+        return snapshot.getScryptLogCost();
+    }
+    
+    public int getScryptBlockSize() {
+        return snapshot.getScryptBlockSize();
+    }
+    
+    public int getScryptParallelization() {
+        return snapshot.getScryptParallelization();
     }
     
     // Настройки сообщений
     public String getLanguage() {
-        return config.getString("messages.language", "ru");
+        return snapshot.getLanguage();
+    }
+    
+    public String getMessagePrefix() {
+        return snapshot.getMessagePrefix();
+    }
+    
+    public boolean isShowPrefix() {
+        return snapshot.isShowPrefix();
     }
     
     public boolean isChatBlocked() {
-        return config.getBoolean("restrictions.block-chat", true);
+        return snapshot.isChatBlocked();
     }
     
     public boolean isMovementBlocked() {
-        return config.getBoolean("restrictions.block-movement", true);
+        return snapshot.isMovementBlocked();
     }
     
     public boolean areCommandsBlocked() {
-        return config.getBoolean("restrictions.block-commands", true);
+        return snapshot.areCommandsBlocked();
     }
     
     public boolean isInventoryBlocked() {
-        return config.getBoolean("restrictions.block-inventory", true);
+        return snapshot.isInventoryBlocked();
+    }
+    
+    public List<String> getAllowedCommands() {
+        return snapshot.getAllowedCommands();
     }
     
     // Настройки уведомлений
     public boolean isBossBarEnabled() {
-        return config.getBoolean("notifications.bossbar.enabled", true);
+        return snapshot.isBossBarEnabled();
     }
     
     public boolean isActionBarEnabled() {
-        return config.getBoolean("notifications.actionbar.enabled", true);
+        return snapshot.isActionBarEnabled();
     }
     
     public boolean isTitleEnabled() {
-        return config.getBoolean("notifications.title.enabled", true);
+        return snapshot.isTitleEnabled();
     }
     
     public boolean isSoundEnabled() {
-        return config.getBoolean("notifications.sound.enabled", true);
+        return snapshot.isSoundEnabled();
+    }
+    
+    // Задержки между повторными уведомлениями об ограничениях (мс)
+    public long getMovementNotificationCooldown() {
+        return snapshot.getMovementNotificationCooldown();
+    }
+    
+    public long getChatNotificationCooldown() {
+        return snapshot.getChatNotificationCooldown();
+    }
+    
+    public long getCommandNotificationCooldown() {
+        return snapshot.getCommandNotificationCooldown();
     }
     
     // Настройки логирования
     public boolean isLoggingEnabled() {
-        return config.getBoolean("logging.enabled", true);
+        return snapshot.isLoggingEnabled();
     }
     
     public boolean isLogToFile() {
-        return config.getBoolean("logging.log-to-file", true);
+        return snapshot.isLogToFile();
     }
     
     public boolean isLogToConsole() {
-        return config.getBoolean("logging.log-to-console", true);
+        return snapshot.isLogToConsole();
     }
     
     public boolean isLogLoginAttempts() {
-        return config.getBoolean("logging.log-login-attempts", true);
+        return snapshot.isLogLoginAttempts();
     }
     
     public boolean isLogRegistrations() {
-        return config.getBoolean("logging.log-registrations", true);
+        return snapshot.isLogRegistrations();
+    }
+    
+    public int getLogQueueSize() {
+        return snapshot.getLogQueueSize();
+    }
+    
+    public int getLogBatchSize() {
+        return snapshot.getLogBatchSize();
+    }
+    
+    public long getLogFlushInterval() {
+        return snapshot.getLogFlushInterval();
+    }
+    
+    public String getLogOverflowPolicy() {
+        return snapshot.getLogOverflowPolicy();
+    }
+    
+    public long getLogBlockTimeout() {
+        return snapshot.getLogBlockTimeout();
+    }
+    
+    public boolean isLogRetentionEnabled() {
+        return snapshot.isLogRetentionEnabled();
+    }
+    
+    public int getLogRetentionMaxAgeDays() {
+        return snapshot.getLogRetentionMaxAgeDays();
+    }
+    
+    public int getLogRetentionMaxRows() {
+        return snapshot.getLogRetentionMaxRows();
+    }
+    
+    public boolean isLogRetentionArchive() {
+        return snapshot.isLogRetentionArchive();
+    }
+    
+    public String getLogRetentionArchiveFolder() {
+        return snapshot.getLogRetentionArchiveFolder();
+    }
+    
+    public int getLogRetentionInterval() {
+        return snapshot.getLogRetentionInterval();
+    }
+    
+    public int getLogRetentionBatchSize() {
+        return snapshot.getLogRetentionBatchSize();
+    }
+    
+    public int getLogRetentionDeleteChunkSize() {
+        return snapshot.getLogRetentionDeleteChunkSize();
+    }
+    
+    public long getLogRetentionDeletePause() {
+        return snapshot.getLogRetentionDeletePause();
+    }
+    
+    // Настройки производительности
+    public boolean isAsyncDatabase() {
+        return snapshot.isAsyncDatabase();
+    }
+    
+    public int getDatabaseThreads() {
+        return snapshot.getDatabaseThreads();
+    }
+    
+    public int getDatabaseQueueSize() {
+        return snapshot.getDatabaseQueueSize();
+    }
+    
+    public int getLoginMaxConcurrent() {
+        return snapshot.getLoginMaxConcurrent();
+    }
+    
+    public int getLoginMaxQueueSize() {
+        return snapshot.getLoginMaxQueueSize();
+    }
+    
+    public boolean isCacheEnabled() {
+        return snapshot.isCacheEnabled();
+    }
+    
+    public int getCacheSize() {
+        return snapshot.getCacheSize();
+    }
+    
+    public int getCacheExpireAfter() {
+        return snapshot.getCacheExpireAfter();
+    }
+    
+    public int getComponentCacheSize() {
+        return snapshot.getComponentCacheSize();
+    }
+    
+    // Дополнительные настройки
+    public boolean isWatchConfig() {
+        return snapshot.isWatchConfig();
+    }
+    
+    // Метрики
+    public boolean isMetricsHttpEnabled() {
+        return snapshot.isMetricsHttpEnabled();
+    }
+    
+    public String getMetricsHttpHost() {
+        return snapshot.getMetricsHttpHost();
+    }
+    
+    public int getMetricsHttpPort() {
+        return snapshot.getMetricsHttpPort();
     }
 }
@@ -0,0 +1,666 @@
+package net.azuremyst.auth.config;
+
+import net.azuremyst.auth.utils.PasswordUtils;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Неизменяемый снимок конфигурации
+ *
+ * Все значения читаются из config.yml один раз при загрузке. Геттеры
+ * возвращают поля без обращения к дереву FileConfiguration, поэтому снимок
+ * можно читать из любого потока, в том числе на каждом PlayerMoveEvent.
+ */
+public final class ConfigSnapshot {
+    
+    private final String databaseType;
+    private final String databaseHost;
+    private final int databasePort;
+    private final String databaseName;
+    private final String databaseUsername;
+    private final String databasePassword;
+    private final Map<String, String> connectionProperties;
+    private final int poolMinimumIdle;
+    private final int poolMaximumSize;
+    private final long poolIdleTimeout;
+    private final long poolMaxLifetime;
+    private final long poolConnectionTimeout;
+    private final int poolValidationTimeout;
+    private final boolean sqliteWal;
+    private final String sqliteSynchronous;
+    private final int sqliteMmapSize;
+    private final int sqliteCacheSize;
+    private final long sqliteBusyTimeout;
+    private final int sqliteReaderConnections;
+    private final boolean compactSchema;
+    private final String databaseTablePrefix;
+    private final boolean registrationEnabled;
+    private final int minPasswordLength;
+    private final int maxPasswordLength;
+    private final int loginTimeout;
+    private final int maxLoginAttempts;
+    private final boolean sessionEnabled;
+    private final int sessionDuration;
+    private final boolean sessionAutoCreate;
+    private final boolean captchaEnabled;
+    private final int captchaAfterAttempts;
+    private final boolean ipWhitelistEnabled;
+    private final boolean forceSecurePassword;
+    private final boolean emailVerificationEnabled;
+    private final int bruteForceProtectionTime;
+    private final List<String> weakPasswords;
+    private final boolean breachedPasswordsEnabled;
+    private final String breachedPasswordsFile;
+    private final String passwordHashAlgorithm;
+    private final int hashingThreads;
+    private final int hashingQueueSize;
+    private final int pbkdf2Iterations;
+    private final int scryptLogCost;
+    private final int scryptBlockSize;
+    private final int scryptParallelization;
+    private final String language;
+    private final String messagePrefix;
+    private final boolean showPrefix;
+    private final boolean chatBlocked;
+    private final boolean movementBlocked;
+    private final boolean commandsBlocked;
+    private final boolean inventoryBlocked;
+    private final List<String> allowedCommands;
+    private final boolean bossBarEnabled;
+    private final boolean actionBarEnabled;
+    private final boolean titleEnabled;
+    private final boolean soundEnabled;
+    private final long movementNotificationCooldown;
+    private final long chatNotificationCooldown;
+    private final long commandNotificationCooldown;
+    private final boolean loggingEnabled;
+    private final boolean logToFile;
+    private final boolean logToConsole;
+    private final boolean logLoginAttempts;
+    private final boolean logRegistrations;
+    private final int logQueueSize;
+    private final int logBatchSize;
+    private final long logFlushInterval;
+    private final String logOverflowPolicy;
+    private final long logBlockTimeout;
+    private final int logRetentionMaxAgeDays;
+    private final int logRetentionMaxRows;
+    private final boolean logRetentionArchive;
+    private final String logRetentionArchiveFolder;
+    private final int logRetentionInterval;
+    private final int logRetentionBatchSize;
+    private final int logRetentionDeleteChunkSize;
+    private final long logRetentionDeletePause;
+    private final boolean asyncDatabase;
+    private final int databaseThreads;
+    private final int databaseQueueSize;
+    private final int loginMaxConcurrent;
+    private final int loginMaxQueueSize;
+    private final boolean cacheEnabled;
+    private final int cacheSize;
+    private final int cacheExpireAfter;
+    private final int componentCacheSize;
+    private final boolean watchConfig;
+    private final boolean metricsHttpEnabled;
+    private final String metricsHttpHost;
+    private final int metricsHttpPort;
+    
+    public ConfigSnapshot(ConfigurationSection config) {
+        this.databaseType = config.getString("database.type", "SQLITE");
+        this.databaseHost = config.getString("database.mysql.host", "localhost");
+        this.databasePort = config.getInt("database.mysql.port", 3306);
+        this.databaseName = config.getString("database.mysql.database", "azureauth");
+        this.databaseUsername = config.getString("database.mysql.username", "root");
+        this.databasePassword = config.getString("database.mysql.password", "password");
+        
+        Map<String, String> properties = new HashMap<>();
+        ConfigurationSection section = config.getConfigurationSection("database.mysql.connection-properties");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                properties.put(key, section.getString(key));
+            }
+        }
+        this.connectionProperties = Collections.unmodifiableMap(properties);
+        
+        this.poolMinimumIdle = config.getInt("database.mysql.pool.minimum-idle", 2);
+        this.poolMaximumSize = config.getInt("database.mysql.pool.maximum-size", 10);
+        this.poolIdleTimeout = config.getLong("database.mysql.pool.idle-timeout", 600);
+        this.poolMaxLifetime = config.getLong("database.mysql.pool.max-lifetime", 1800);
+        this.poolConnectionTimeout = config.getLong("database.mysql.pool.connection-timeout", 5000);
+        this.poolValidationTimeout = config.getInt("database.mysql.pool.validation-timeout", 3);
+        this.sqliteWal = config.getBoolean("database.sqlite.wal", true);
+        this.sqliteSynchronous = config.getString("database.sqlite.synchronous", "NORMAL");
+        this.sqliteMmapSize = config.getInt("database.sqlite.mmap-size", 256);
+        this.sqliteCacheSize = config.getInt("database.sqlite.cache-size", 16);
+        this.sqliteBusyTimeout = config.getLong("database.sqlite.busy-timeout", 5000);
+        this.sqliteReaderConnections = config.getInt("database.sqlite.reader-connections", 4);
+        this.compactSchema = config.getBoolean("database.compact-schema", false);
+        this.databaseTablePrefix = config.getString("database.table-prefix", "azureauth_");
+        this.registrationEnabled = config.getBoolean("auth.registration-enabled", true);
+        this.minPasswordLength = config.getInt("auth.min-password-length", 6);
+        this.maxPasswordLength = config.getInt("auth.max-password-length", 32);
+        this.loginTimeout = config.getInt("auth.login-timeout", 60);
+        this.maxLoginAttempts = config.getInt("auth.max-login-attempts", 3);
+        this.sessionEnabled = config.getBoolean("auth.sessions.enabled", true);
+        this.sessionDuration = config.getInt("auth.sessions.duration", 3600);
+        this.sessionAutoCreate = config.getBoolean("auth.sessions.auto-create", true);
+        this.captchaEnabled = config.getBoolean("auth.captcha.enabled", true);
+        this.captchaAfterAttempts = config.getInt("auth.captcha.after-attempts", 2);
+        this.ipWhitelistEnabled = config.getBoolean("security.ip-whitelist.enabled", false);
+        this.forceSecurePassword = config.getBoolean("security.force-secure-password", true);
+        this.emailVerificationEnabled = config.getBoolean("security.email-verification.enabled", false);
+        this.bruteForceProtectionTime = config.getInt("security.brute-force-protection-time", 300);
+        this.weakPasswords = config.contains("security.weak-passwords")
+            ? List.copyOf(config.getStringList("security.weak-passwords"))
+            : PasswordUtils.DEFAULT_WEAK_PASSWORDS;
+        this.breachedPasswordsEnabled = config.getBoolean("security.breached-passwords.enabled", false);
+        this.breachedPasswordsFile = config.getString("security.breached-passwords.file", "breached-passwords.bloom");
+        this.passwordHashAlgorithm = config.getString("security.password-hashing.algorithm", "SCRYPT");
+        this.hashingThreads = config.getInt("security.password-hashing.threads", 0);
+        this.hashingQueueSize = config.getInt("security.password-hashing.queue-size", 256);
+        this.pbkdf2Iterations = config.getInt("security.password-hashing.pbkdf2.iterations", 600000);
+        this.scryptLogCost = config.getInt("security.password-hashing.scrypt.log-cost", 14);
+        this.scryptBlockSize = config.getInt("security.password-hashing.scrypt.block-size", 8);
+        this.scryptParallelization = config.getInt("security.password-hashing.scrypt.parallelization", 5);
+        this.language = config.getString("messages.language", "ru");
+        this.messagePrefix = config.getString("messages.prefix", "");
+        this.showPrefix = config.getBoolean("messages.show-prefix", true);
+        this.chatBlocked = config.getBoolean("restrictions.block-chat", true);
+        this.movementBlocked = config.getBoolean("restrictions.block-movement", true);
+        this.commandsBlocked = config.getBoolean("restrictions.block-commands", true);
+        this.inventoryBlocked = config.getBoolean("restrictions.block-inventory", true);
+        this.allowedCommands = List.copyOf(config.getStringList("restrictions.allowed-commands"));
+        this.bossBarEnabled = config.getBoolean("notifications.bossbar.enabled", true);
+        this.actionBarEnabled = config.getBoolean("notifications.actionbar.enabled", true);
+        this.titleEnabled = config.getBoolean("notifications.title.enabled", true);
+        this.soundEnabled = config.getBoolean("notifications.sound.enabled", true);
+        this.movementNotificationCooldown = config.getLong("notifications.cooldowns.movement-blocked", 3000);
+        this.chatNotificationCooldown = config.getLong("notifications.cooldowns.chat-blocked", 1000);
+        this.commandNotificationCooldown = config.getLong("notifications.cooldowns.command-blocked", 1000);
+        this.loggingEnabled = config.getBoolean("logging.enabled", true);
+        this.logToFile = config.getBoolean("logging.log-to-file", true);
+        this.logToConsole = config.getBoolean("logging.log-to-console", true);
+        this.logLoginAttempts = config.getBoolean("logging.log-login-attempts", true);
+        this.logRegistrations = config.getBoolean("logging.log-registrations", true);
+        this.logQueueSize = config.getInt("logging.batch.queue-size", 10000);
+        this.logBatchSize = config.getInt("logging.batch.batch-size", 100);
+        this.logFlushInterval = config.getLong("logging.batch.flush-interval", 2000);
+        this.logOverflowPolicy = config.getString("logging.batch.overflow-policy", "DROP_OLDEST");
+        this.logBlockTimeout = config.getLong("logging.batch.block-timeout", 1000);
+        this.logRetentionMaxAgeDays = config.getInt("logging.retention.max-age-days", 0);
+        this.logRetentionMaxRows = config.getInt("logging.retention.max-rows", 0);
+        this.logRetentionArchive = config.getBoolean("logging.retention.archive", true);
+        this.logRetentionArchiveFolder = config.getString("logging.retention.archive-folder", "logs-archive");
+        this.logRetentionInterval = config.getInt("logging.retention.interval", 60);
+        this.logRetentionBatchSize = config.getInt("logging.retention.batch-size", 5000);
+        this.logRetentionDeleteChunkSize = config.getInt("logging.retention.delete-chunk-size", 500);
+        this.logRetentionDeletePause = config.getLong("logging.retention.delete-pause", 20);
+        this.asyncDatabase = config.getBoolean("performance.async-database", true);
+        this.databaseThreads = config.getInt("performance.database-threads", 2);
+        this.databaseQueueSize = config.getInt("performance.database-queue-size", 1000);
+        this.loginMaxConcurrent = config.getInt("performance.login-admission.max-concurrent", 0);
+        this.loginMaxQueueSize = config.getInt("performance.login-admission.max-queue-size", 500);
+        this.cacheEnabled = config.getBoolean("performance.cache.enabled", true);
+        this.cacheSize = config.getInt("performance.cache.size", 1000);
+        this.cacheExpireAfter = config.getInt("performance.cache.expire-after", 300);
+        this.componentCacheSize = config.getInt("performance.component-cache.size", 512);
+        this.watchConfig = config.getBoolean("advanced.watch-config", false);
+        this.metricsHttpEnabled = config.getBoolean("metrics.http.enabled", false);
+        this.metricsHttpHost = config.getString("metrics.http.host", "127.0.0.1");
+        this.metricsHttpPort = config.getInt("metrics.http.port", 9464);
+    }
+    
+    /**
+     * Проверка значений
+     *
+     * @return список ошибок (пустой, если конфигурация корректна)
+     */
+    public List<String> validate() {
+        List<String> errors = new ArrayList<>();
+        
+        if (!"SQLITE".equalsIgnoreCase(databaseType) && !"MYSQL".equalsIgnoreCase(databaseType)) {
+            errors.add("database.type: ожидается SQLITE или MYSQL, указано " + databaseType);
+        }
+        if (poolMaximumSize < 1 || poolMinimumIdle < 0 || poolMinimumIdle > poolMaximumSize) {
+            errors.add("database.mysql.pool: должно быть 0 <= minimum-idle <= maximum-size, maximum-size >= 1");
+        }
+        if (!"OFF".equalsIgnoreCase(sqliteSynchronous) && !"NORMAL".equalsIgnoreCase(sqliteSynchronous)
+                && !"FULL".equalsIgnoreCase(sqliteSynchronous) && !"EXTRA".equalsIgnoreCase(sqliteSynchronous)) {
+            errors.add("database.sqlite.synchronous: ожидается OFF, NORMAL, FULL или EXTRA, указано " + sqliteSynchronous);
+        }
+        if (sqliteMmapSize < 0 || sqliteCacheSize < 1 || sqliteBusyTimeout < 0 || sqliteReaderConnections < 1) {
+            errors.add("database.sqlite: mmap-size и busy-timeout должны быть не меньше 0, cache-size и reader-connections - не меньше 1");
+        }
+        if (minPasswordLength < 1 || minPasswordLength > maxPasswordLength) {
+            errors.add("auth: должно быть 1 <= min-password-length <= max-password-length");
+        }
+        if (maxLoginAttempts < 1) {
+            errors.add("auth.max-login-attempts: должно быть не меньше 1");
+        }
+        if (sessionEnabled && sessionDuration <= 0) {
+            errors.add("auth.sessions.duration: должно быть больше 0");
+        }
+        if (!"SCRYPT".equalsIgnoreCase(passwordHashAlgorithm) && !"PBKDF2".equalsIgnoreCase(passwordHashAlgorithm)) {
+            errors.add("security.password-hashing.algorithm: ожидается SCRYPT или PBKDF2, указано " + passwordHashAlgorithm);
+        }
+        if (pbkdf2Iterations < 1) {
+            errors.add("security.password-hashing.pbkdf2.iterations: должно быть не меньше 1");
+        }
+        if (scryptLogCost < 1 || scryptLogCost > 30 || scryptBlockSize < 1 || scryptParallelization < 1) {
+            errors.add("security.password-hashing.scrypt: должно быть 1 <= log-cost <= 30, block-size >= 1, parallelization >= 1");
+        }
+        if (!"DROP_OLDEST".equalsIgnoreCase(logOverflowPolicy) && !"BLOCK".equalsIgnoreCase(logOverflowPolicy)) {
+            errors.add("logging.batch.overflow-policy: ожидается DROP_OLDEST или BLOCK, указано " + logOverflowPolicy);
+        }
+        if (logBatchSize < 1 || logQueueSize < 1) {
+            errors.add("logging.batch: queue-size и batch-size должны быть не меньше 1");
+        }
+        if (logRetentionMaxAgeDays < 0 || logRetentionMaxRows < 0) {
+            errors.add("logging.retention: max-age-days и max-rows не могут быть отрицательными");
+        }
+        if (logRetentionInterval < 1 || logRetentionBatchSize < 1 || logRetentionDeleteChunkSize < 1
+                || logRetentionDeletePause < 0) {
+            errors.add("logging.retention: interval, batch-size и delete-chunk-size должны быть не меньше 1, "
+                    + "delete-pause - не меньше 0");
+        }
+        if (logRetentionArchive && (logRetentionArchiveFolder == null || logRetentionArchiveFolder.trim().isEmpty())) {
+            errors.add("logging.retention.archive-folder: не указана папка архива");
+        }
+        if (metricsHttpEnabled && (metricsHttpPort < 1 || metricsHttpPort > 65535)) {
+            errors.add("metrics.http.port: ожидается порт от 1 до 65535, указано " + metricsHttpPort);
+        }
+        
+        return errors;
+    }
+    
+    // Настройки базы данных
+    public String getDatabaseType() {
+        return databaseType;
+    }
+    
+    public String getDatabaseHost() {
+        return databaseHost;
+    }
+    
+    public int getDatabasePort() {
+        return databasePort;
+    }
+    
+    public String getDatabaseName() {
+        return databaseName;
+    }
+    
+    public String getDatabaseUsername() {
+        return databaseUsername;
+    }
+    
+    public String getDatabasePassword() {
+        return databasePassword;
+    }
+    
+    /**
+     * Дополнительные параметры подключения JDBC (database.mysql.connection-properties)
+     */
+    public Map<String, String> getDatabaseConnectionProperties() {
+        return connectionProperties;
+    }
+    
+    // Настройки пула соединений
+    public int getPoolMinimumIdle() {
+        return poolMinimumIdle;
+    }
+    
+    public int getPoolMaximumSize() {
+        return poolMaximumSize;
+    }
+    
+    public long getPoolIdleTimeout() {
+        return poolIdleTimeout;
+    }
+    
+    public long getPoolMaxLifetime() {
+        return poolMaxLifetime;
+    }
+    
+    public long getPoolConnectionTimeout() {
+        return poolConnectionTimeout;
+    }
+    
+    public int getPoolValidationTimeout() {
+        return poolValidationTimeout;
+    }
+    
+    public boolean isSqliteWal() {
+        return sqliteWal;
+    }
+    
+    public String getSqliteSynchronous() {
+        return sqliteSynchronous;
+    }
+    
+    public int getSqliteMmapSize() {
+        return sqliteMmapSize;
+    }
+    
+    public int getSqliteCacheSize() {
+        return sqliteCacheSize;
+    }
+    
+    public long getSqliteBusyTimeout() {
+        return sqliteBusyTimeout;
+    }
+    
+    public int getSqliteReaderConnections() {
+        return sqliteReaderConnections;
+    }
+    
+    public boolean isCompactSchema() {
+        return compactSchema;
+    }
+    
+    public String getDatabaseTablePrefix() {
+        return databaseTablePrefix;
+    }
+    
+    // Настройки авторизации
+    public boolean isRegistrationEnabled() {
+        return registrationEnabled;
+    }
+    
+    public int getMinPasswordLength() {
+        return minPasswordLength;
+    }
+    
+    public int getMaxPasswordLength() {
+        return maxPasswordLength;
+    }
+    
+    public int getLoginTimeout() {
+        return loginTimeout;
+    }
+    
+    public int getMaxLoginAttempts() {
+        return maxLoginAttempts;
+    }
+    
+    public boolean isSessionEnabled() {
+        return sessionEnabled;
+    }
+    
+    public int getSessionDuration() {
+        return sessionDuration;
+    }
+    
+    public boolean isSessionAutoCreate() {
+        return sessionAutoCreate;
+    }
+    
+    public boolean isCaptchaEnabled() {
+        return captchaEnabled;
+    }
+    
+    public int getCaptchaAfterAttempts() {
+        return captchaAfterAttempts;
+    }
+    
+    // Настройки безопасности
+    public boolean isIpWhitelistEnabled() {
+        return ipWhitelistEnabled;
+    }
+    
+    public boolean isForceSecurePassword() {
+        return forceSecurePassword;
+    }
+    
+    public boolean isEmailVerificationEnabled() {
+        return emailVerificationEnabled;
+    }
+    
+    public int getBruteForceProtectionTime() {
+        return bruteForceProtectionTime;
+    }
+    
+    public List<String> getWeakPasswords() {
+        return weakPasswords;
+    }
+    
+    public boolean isBreachedPasswordsEnabled() {
+        return breachedPasswordsEnabled;
+    }
+    
+    public String getBreachedPasswordsFile() {
+        return breachedPasswordsFile;
+    }
+    
+    // Настройки хеширования паролей
+    public String getPasswordHashAlgorithm() {
+        return passwordHashAlgorithm;
+    }
+    
+    public int getHashingThreads() {
+        return hashingThreads;
+    }
+    
+    public int getHashingQueueSize() {
+        return hashingQueueSize;
+    }
+    
+    public int getPbkdf2Iterations() {
+        return pbkdf2Iterations;
+    }
+    
+    public int getScryptLogCost() {
+        return scryptLogCost;
+    }
+    
+    public int getScryptBlockSize() {
+        return scryptBlockSize;
+    }
+    
+    public int getScryptParallelization() {
+        return scryptParallelization;
+    }
+    
+    // Настройки сообщений
+    public String getLanguage() {
+        return language;
+    }
+    
+    public String getMessagePrefix() {
+        return messagePrefix;
+    }
+    
+    public boolean isShowPrefix() {
+        return showPrefix;
+    }
+    
+    public boolean isChatBlocked() {
+        return chatBlocked;
+    }
+    
+    public boolean isMovementBlocked() {
+        return movementBlocked;
+    }
+    
+    public boolean areCommandsBlocked() {
+        return commandsBlocked;
+    }
+    
+    public boolean isInventoryBlocked() {
+        return inventoryBlocked;
+    }
+    
+    public List<String> getAllowedCommands() {
+        return allowedCommands;
+    }
+    
+    // Настройки уведомлений
+    public boolean isBossBarEnabled() {
+        return bossBarEnabled;
+    }
+    
+    public boolean isActionBarEnabled() {
+        return actionBarEnabled;
+    }
+    
+    public boolean isTitleEnabled() {
+        return titleEnabled;
+    }
+    
+    public boolean isSoundEnabled() {
+        return soundEnabled;
+    }
+    
+    // Задержки между повторными уведомлениями об ограничениях (мс)
+    public long getMovementNotificationCooldown() {
+        return movementNotificationCooldown;
+    }
+    
+    public long getChatNotificationCooldown() {
+        return chatNotificationCooldown;
+    }
+    
+    public long getCommandNotificationCooldown() {
+        return commandNotificationCooldown;
+    }
+    
+    // Настройки логирования
+    public boolean isLoggingEnabled() {
+        return loggingEnabled;
+    }
+    
+    public boolean isLogToFile() {
+        return logToFile;
+    }
+    
+    public boolean isLogToConsole() {
+        return logToConsole;
+    }
+    
+    public boolean isLogLoginAttempts() {
+        return logLoginAttempts;
+    }
+    
+    public boolean isLogRegistrations() {
+        return logRegistrations;
+    }
+    
+    public int getLogQueueSize() {
+        return logQueueSize;
+    }
+    
+    public int getLogBatchSize() {
+        return logBatchSize;
+    }
+    
+    public long getLogFlushInterval() {
+        return logFlushInterval;
+    }
+    
+    public String getLogOverflowPolicy() {
+        return logOverflowPolicy;
+    }
+    
+    public long getLogBlockTimeout() {
+        return logBlockTimeout;
+    }
+    
+    /**
+     * Очистка журнала включена, если задан срок хранения или предел числа записей
+     */
+    public boolean isLogRetentionEnabled() {
+        return logRetentionMaxAgeDays > 0 || logRetentionMaxRows > 0;
+    }
+    
+    public int getLogRetentionMaxAgeDays() {
+        return logRetentionMaxAgeDays;
+    }
+    
+    public int getLogRetentionMaxRows() {
+        return logRetentionMaxRows;
+    }
+    
+    public boolean isLogRetentionArchive() {
+        return logRetentionArchive;
+    }
+    
+    public String getLogRetentionArchiveFolder() {
+        return logRetentionArchiveFolder;
+    }
+    
+    public int getLogRetentionInterval() {
+        return logRetentionInterval;
+    }
+    
+    public int getLogRetentionBatchSize() {
+        return logRetentionBatchSize;
+    }
+    
+    public int getLogRetentionDeleteChunkSize() {
+        return logRetentionDeleteChunkSize;
+    }
+    
+    public long getLogRetentionDeletePause() {
+        return logRetentionDeletePause;
+    }
+    
+    // Настройки производительности
+    public boolean isAsyncDatabase() {
+        return asyncDatabase;
+    }
+    
+    public int getDatabaseThreads() {
+        return databaseThreads;
+    }
+    
+    public int getDatabaseQueueSize() {
+        return databaseQueueSize;
+    }
+    
+    public int getLoginMaxConcurrent() {
+        return loginMaxConcurrent;
+    }
+    
+    public int getLoginMaxQueueSize() {
+        return loginMaxQueueSize;
+    }
+    
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+    
+    public int getCacheSize() {
+        return cacheSize;
+    }
+    
+    public int getCacheExpireAfter() {
+        return cacheExpireAfter;
+    }
+    
+    public int getComponentCacheSize() {
+        return componentCacheSize;
+    }
+    
+    // Дополнительные настройки
+    public boolean isWatchConfig() {
+        return watchConfig;
+    }
+    
+    // Метрики
+    public boolean isMetricsHttpEnabled() {
+        return metricsHttpEnabled;
+    }
+    
+    public String getMetricsHttpHost() {
+        return metricsHttpHost;
+    }
+    
+    public int getMetricsHttpPort() {
+        return metricsHttpPort;
+    }
+}
@@ -0,0 +1,106 @@
+package net.azuremyst.auth.config;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Отслеживание изменений config.yml (advanced.watch-config)
+ *
+ * Редакторы часто записывают файл в несколько приемов, поэтому перезагрузка
+ * запускается только после паузы без новых изменений. Сама перезагрузка
+ * выполняется переданной задачей (в основном потоке сервера).
+ */
+public class ConfigWatcher {
+    
+    private static final long SETTLE_MILLIS = 500L;
+    
+    private final Logger logger;
+    private final Path directory;
+    private final Path fileName;
+    private final Runnable onChange;
+    private WatchService watchService;
+    private Thread thread;
+    
+    public ConfigWatcher(Logger logger, Path file, Runnable onChange) {
+        this.logger = logger;
+        this.directory = file.toAbsolutePath().getParent();
+        this.fileName = file.getFileName();
+        this.onChange = onChange;
+    }
+    
+    /**
+     * Запуск отслеживания
+     */
+    public void start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+        } catch (IOException e) {
+            logger.warning("§c[AzureAuth] Не удалось запустить отслеживание config.yml: " + e.getMessage());
+            return;
+        }
+        
+        WatchService service = watchService;
+        thread = new Thread(() -> run(service), "AzureAuth-ConfigWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private void run(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = drain(key);
+                
+                // Ожидание паузы в записи файла
+                while (changed) {
+                    WatchKey next = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        onChange.run();
+                        break;
+                    }
+                    drain(next);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Остановка
+        }
+    }
+    
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (fileName.equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+    
+    /**
+     * Остановка отслеживания
+     */
+    public void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // Игнорируем
+            }
+            watchService = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+}
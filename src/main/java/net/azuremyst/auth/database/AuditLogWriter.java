@@ -0,0 +1,242 @@
+package net.azuremyst.auth.database;
+
+import net.azuremyst.auth.models.AuditLogEntry;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Отложенная пакетная запись журнала действий
+ *
+ * Записи помещаются в ограниченную очередь и сохраняются фоновым потоком
+ * пакетными INSERT, когда набирается batch-size записей или проходит
+ * flush-interval с момента появления первой записи пакета.
+ */
+public class AuditLogWriter {
+    
+    /**
+     * Поведение при переполнении очереди
+     */
+    public enum OverflowPolicy {
+        /** Удалять самую старую запись из очереди */
+        DROP_OLDEST,
+        /** Ждать освобождения места (не дольше block-timeout), затем отбросить запись */
+        BLOCK;
+        
+        public static OverflowPolicy fromString(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException | NullPointerException e) {
+                return DROP_OLDEST;
+            }
+        }
+    }
+    
+    /**
+     * Сохранение пакета записей
+     */
+    @FunctionalInterface
+    public interface BatchSink {
+        void write(List<AuditLogEntry> batch) throws SQLException;
+    }
+    
+    private final BatchSink sink;
+    private final Logger logger;
+    private final BlockingQueue<AuditLogEntry> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMillis;
+    private final Thread writerThread;
+    private volatile boolean running;
+    
+    // Статистика
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    
+    public AuditLogWriter(BatchSink sink, Logger logger, int queueSize, int batchSize, long flushIntervalMillis,
+                          OverflowPolicy overflowPolicy, long blockTimeoutMillis) {
+        this.sink = sink;
+        this.logger = logger;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(1L, flushIntervalMillis);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMillis = Math.max(0L, blockTimeoutMillis);
+        
+        this.writerThread = new Thread(this::run, "AzureAuth-AuditLog");
+        this.writerThread.setDaemon(true);
+    }
+    
+    public void start() {
+        running = true;
+        writerThread.start();
+    }
+    
+    /**
+     * Добавление записи в очередь
+     * (при BLOCK может ждать до block-timeout, только для фоновых потоков)
+     */
+    public void enqueue(AuditLogEntry entry) {
+        add(entry, true);
+    }
+    
+    /**
+     * Добавление записи без ожидания (для основного потока сервера):
+     * при BLOCK и заполненной очереди запись отбрасывается
+     */
+    public void offer(AuditLogEntry entry) {
+        add(entry, false);
+    }
+    
+    private void add(AuditLogEntry entry, boolean mayBlock) {
+        if (!running) {
+            dropped.increment();
+            return;
+        }
+        
+        if (queue.offer(entry)) {
+            return;
+        }
+        
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            if (!mayBlock) {
+                dropped.increment();
+                return;
+            }
+            try {
+                if (!queue.offer(entry, blockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    dropped.increment();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.increment();
+            }
+            return;
+        }
+        
+        // DROP_OLDEST: освобождаем место, удаляя самые старые записи
+        while (!queue.offer(entry)) {
+            if (queue.poll() != null) {
+                dropped.increment();
+            }
+        }
+    }
+    
+    /**
+     * Цикл фонового потока
+     */
+    private void run() {
+        List<AuditLogEntry> batch = new ArrayList<>(batchSize);
+        
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditLogEntry first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMillis;
+                
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    
+                    AuditLogEntry next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Остановка: оставшиеся записи дописываются в close()
+                Thread.currentThread().interrupt();
+                break;
+            }
+            
+            flush(batch);
+        }
+        
+        flush(batch);
+    }
+    
+    private void flush(List<AuditLogEntry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        try {
+            sink.write(batch);
+            written.add(batch.size());
+            batches.increment();
+        } catch (SQLException e) {
+            failed.add(batch.size());
+            logger.severe("§c[AzureAuth] Ошибка при пакетной записи логов (" + batch.size() + " записей): " + e.getMessage());
+        } finally {
+            batch.clear();
+        }
+    }
+    
+    /**
+     * Остановка с записью всех оставшихся в очереди записей
+     */
+    public void close() {
+        if (!running) {
+            return;
+        }
+        
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        if (writerThread.isAlive()) {
+            writerThread.interrupt();
+            try {
+                writerThread.join(1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        // Дописываем то, что не успел записать фоновый поток
+        List<AuditLogEntry> remaining = new ArrayList<>(batchSize);
+        while (queue.drainTo(remaining, batchSize) > 0) {
+            flush(remaining);
+        }
+    }
+    
+    public int getQueueSize() {
+        return queue.size();
+    }
+    
+    public long getWrittenCount() {
+        return written.sum();
+    }
+    
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+    
+    public long getFailedCount() {
+        return failed.sum();
+    }
+    
+    public long getBatchCount() {
+        return batches.sum();
+    }
+}
@@ -0,0 +1,387 @@
+package net.azuremyst.auth.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Ограниченный пул JDBC соединений
+ *
+ * Соединение, полученное через {@link #getConnection()}, возвращается в пул
+ * при вызове {@link Connection#close()}, поэтому его удобно использовать
+ * в try-with-resources.
+ */
+public class ConnectionPool {
+    
+    /**
+     * Соединения, возвращенные в пул недавно, не проверяются повторно
+     */
+    private static final long VALIDATION_BYPASS_MILLIS = 500L;
+    
+    private final String name;
+    private final String url;
+    private final Properties properties;
+    private final Logger logger;
+    
+    private final int minimumIdle;
+    private final int maximumSize;
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+    private final long connectionTimeoutMillis;
+    private final int validationTimeoutSeconds;
+    
+    private final LinkedBlockingDeque<PooledConnection> idleConnections;
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+    
+    // Статистика ожидания соединений
+    private final LongAdder borrowCount;
+    private final LongAdder borrowWaitNanos;
+    private final AtomicLong maxBorrowWaitNanos;
+    private final LongAdder borrowTimeouts;
+    
+    /**
+     * @param idleTimeoutMillis время простоя до закрытия соединения (0 - не закрывать)
+     * @param maxLifetimeMillis максимальное время жизни соединения (0 - без ограничения)
+     */
+    public ConnectionPool(String name, String url, Properties properties, Logger logger,
+                          int minimumIdle, int maximumSize, long idleTimeoutMillis, long maxLifetimeMillis,
+                          long connectionTimeoutMillis, int validationTimeoutSeconds) {
+        this.name = name;
+        this.url = url;
+        this.properties = properties;
+        this.logger = logger;
+        this.maximumSize = Math.max(1, maximumSize);
+        this.minimumIdle = Math.max(0, Math.min(minimumIdle, this.maximumSize));
+        this.idleTimeoutMillis = Math.max(0L, idleTimeoutMillis);
+        this.maxLifetimeMillis = Math.max(0L, maxLifetimeMillis);
+        this.connectionTimeoutMillis = Math.max(1L, connectionTimeoutMillis);
+        this.validationTimeoutSeconds = Math.max(1, validationTimeoutSeconds);
+        
+        this.idleConnections = new LinkedBlockingDeque<>();
+        this.permits = new Semaphore(this.maximumSize, true);
+        this.totalConnections = new AtomicInteger();
+        this.borrowCount = new LongAdder();
+        this.borrowWaitNanos = new LongAdder();
+        this.maxBorrowWaitNanos = new AtomicLong();
+        this.borrowTimeouts = new LongAdder();
+        
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AzureAuth-" + name + "-Housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Запуск пула: открытие минимального числа соединений и фоновой очистки
+     */
+    public void start() throws SQLException {
+        for (int i = 0; i < minimumIdle; i++) {
+            idleConnections.offerFirst(createConnection());
+        }
+        
+        long period = Math.max(1000L, Math.min(30000L, idleTimeoutMillis > 0 ? idleTimeoutMillis / 2 : 30000L));
+        housekeeper.scheduleWithFixedDelay(this::houseKeep, period, period, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Получение соединения из пула
+     *
+     * @throws SQLTransientConnectionException если свободное соединение не появилось за connection-timeout
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Пул соединений " + name + " закрыт");
+        }
+        
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(connectionTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                borrowTimeouts.increment();
+                throw new SQLTransientConnectionException("Нет свободных соединений в пуле " + name
+                        + " за " + connectionTimeoutMillis + " мс (активно: " + getActiveConnections()
+                        + ", всего: " + totalConnections.get() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Ожидание соединения прервано", e);
+        }
+        
+        try {
+            PooledConnection pooled;
+            while ((pooled = idleConnections.pollFirst()) != null) {
+                if (!isExpired(pooled, System.currentTimeMillis()) && isAlive(pooled)) {
+                    break;
+                }
+                closePhysical(pooled);
+            }
+            
+            if (pooled == null) {
+                pooled = createConnection();
+            }
+            
+            recordBorrow(System.nanoTime() - start);
+            return pooled.borrow();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    
+    /**
+     * Проверка соединения перед выдачей
+     */
+    private boolean isAlive(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastReturned < VALIDATION_BYPASS_MILLIS) {
+            return true;
+        }
+        
+        try {
+            return pooled.connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+    
+    private boolean isExpired(PooledConnection pooled, long now) {
+        return maxLifetimeMillis > 0 && now - pooled.createdAt >= maxLifetimeMillis;
+    }
+    
+    private PooledConnection createConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, properties);
+        totalConnections.incrementAndGet();
+        return new PooledConnection(connection);
+    }
+    
+    private void closePhysical(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        try {
+            pooled.connection.close();
+        } catch (SQLException e) {
+            logger.warning("§e[AzureAuth] Ошибка при закрытии соединения пула " + name + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Возврат соединения в пул
+     */
+    private void release(PooledConnection pooled) {
+        try {
+            if (closed || pooled.broken || isExpired(pooled, System.currentTimeMillis())) {
+                closePhysical(pooled);
+                return;
+            }
+            
+            try {
+                if (!pooled.connection.getAutoCommit()) {
+                    pooled.connection.rollback();
+                    pooled.connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                closePhysical(pooled);
+                return;
+            }
+            
+            pooled.lastReturned = System.currentTimeMillis();
+            idleConnections.offerFirst(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+    
+    /**
+     * Фоновое обслуживание: закрытие простаивающих и устаревших соединений,
+     * поддержание минимального числа простаивающих соединений
+     */
+    private void houseKeep() {
+        if (closed) {
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : idleConnections) {
+            boolean idleTooLong = idleTimeoutMillis > 0 && now - pooled.lastReturned >= idleTimeoutMillis
+                    && idleConnections.size() > minimumIdle;
+            
+            if ((idleTooLong || isExpired(pooled, now)) && idleConnections.remove(pooled)) {
+                closePhysical(pooled);
+            }
+        }
+        
+        try {
+            while (!closed && idleConnections.size() < minimumIdle && totalConnections.get() < maximumSize) {
+                idleConnections.offerLast(createConnection());
+            }
+        } catch (SQLException e) {
+            logger.warning("§e[AzureAuth] Не удалось открыть соединение для пула " + name + ": " + e.getMessage());
+        }
+    }
+    
+    private void recordBorrow(long waitNanos) {
+        borrowCount.increment();
+        borrowWaitNanos.add(waitNanos);
+        maxBorrowWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+    
+    /**
+     * Закрытие пула и всех простаивающих соединений
+     *
+     * Соединения, выданные в данный момент, закрываются при возврате.
+     */
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            closePhysical(pooled);
+        }
+    }
+    
+    public boolean isClosed() {
+        return closed;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+    
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+    
+    public int getIdleConnections() {
+        return idleConnections.size();
+    }
+    
+    public int getActiveConnections() {
+        return maximumSize - permits.availablePermits();
+    }
+    
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+    
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+    
+    public long getBorrowTimeouts() {
+        return borrowTimeouts.sum();
+    }
+    
+    /**
+     * Среднее время ожидания соединения в миллисекундах
+     */
+    public double getAverageWaitMillis() {
+        long count = borrowCount.sum();
+        return count == 0 ? 0.0 : borrowWaitNanos.sum() / (double) count / 1_000_000.0;
+    }
+    
+    /**
+     * Максимальное время ожидания соединения в миллисекундах
+     */
+    public double getMaxWaitMillis() {
+        return maxBorrowWaitNanos.get() / 1_000_000.0;
+    }
+    
+    /**
+     * Физическое соединение и его состояние в пуле
+     */
+    private final class PooledConnection {
+        
+        private final Connection connection;
+        private final long createdAt;
+        private volatile long lastReturned;
+        private volatile boolean broken;
+        
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+            this.createdAt = System.currentTimeMillis();
+            this.lastReturned = createdAt;
+        }
+        
+        /**
+         * Выдача соединения: возвращает обертку, которая при close() возвращает соединение в пул
+         */
+        private Connection borrow() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new LeaseHandler(this));
+        }
+    }
+    
+    /**
+     * Обработчик вызовов выданного соединения
+     */
+    private final class LeaseHandler implements InvocationHandler {
+        
+        private final PooledConnection pooled;
+        private boolean released;
+        
+        private LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pooled.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + name + "]";
+                default:
+                    break;
+            }
+            
+            if (released) {
+                throw new SQLException("Соединение уже возвращено в пул " + name);
+            }
+            
+            try {
+                return method.invoke(pooled.connection, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sqlException) {
+                    String state = sqlException.getSQLState();
+                    if (state != null && state.startsWith("08")) {
+                        // Ошибка уровня соединения - соединение не возвращается в пул
+                        pooled.broken = true;
+                    }
+                }
+                throw cause;
+            }
+        }
+    }
+}
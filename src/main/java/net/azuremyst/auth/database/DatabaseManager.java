@@ -1,14 +1,31 @@
 package net.azuremyst.auth.database;
 
 import net.azuremyst.auth.AzureAuth;
+import net.azuremyst.auth.config.ConfigManager;
+import net.azuremyst.auth.metrics.MetricsRegistry;
+import net.azuremyst.auth.models.AuditLogEntry;
+import net.azuremyst.auth.models.LogRecord;
+import net.azuremyst.auth.models.LoginRecord;
+import net.azuremyst.auth.models.LoginResult;
 import net.azuremyst.auth.models.PlayerData;
-import net.azuremyst.auth.utils.PasswordUtils;
+import net.azuremyst.auth.models.SessionData;
+import net.azuremyst.auth.security.PasswordHashingService;
 
 import java.io.File;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Менеджер базы данных для плагина AzureAuth
@@ -16,193 +33,699 @@ import java.util.UUID;
 public class DatabaseManager {
     
     private final AzureAuth plugin;
-    private Connection connection;
+    private final MetricsRegistry metrics;
+    private ConnectionPool pool;
+    private ConnectionPool readPool;
     private String tablePrefix;
+    private boolean mysql;
+    private volatile boolean compactSchema;
+    private volatile boolean schemaChanged;
+    private ThreadPoolExecutor executor;
+    private ThreadPoolExecutor writeExecutor;
+    private volatile PlayerDataCache playerDataCache;
+    private volatile AuditLogWriter auditLogWriter;
+    private final Object auditLogLock = new Object();
+    private boolean closed;
     
     public DatabaseManager(AzureAuth plugin) {
         this.plugin = plugin;
-        this.tablePrefix = plugin.getConfigManager().getDatabaseTablePrefix();
+        this.metrics = plugin.getMetrics();
     }
     
     /**
      * Инициализация подключения к базе данных
+     *
+     * Тип БД и префикс таблиц фиксируются здесь и не меняются до перезапуска,
+     * даже если config.yml перезагружен с другими значениями.
      */
     public void initialize() throws SQLException {
-        String databaseType = plugin.getConfigManager().getDatabaseType();
+        tablePrefix = plugin.getConfigManager().getDatabaseTablePrefix();
+        mysql = "MYSQL".equalsIgnoreCase(plugin.getConfigManager().getDatabaseType());
         
-        if ("MYSQL".equalsIgnoreCase(databaseType)) {
+        if (mysql) {
             initializeMysql();
         } else {
             initializeSqlite();
         }
         
-        createTables();
+        migrateSchema();
+        initializeExecutor();
+        applyCacheSettings();
+        initializeAuditLog();
         plugin.getLogger().info("§a[AzureAuth] База данных успешно инициализирована!");
     }
     
     /**
-     * Инициализация MySQL соединения
+     * Инициализация пула потоков для асинхронных запросов
+     * (при SQLite с WAL запись выполняет отдельный поток)
+     */
+    private void initializeExecutor() {
+        if (executor != null || !plugin.getConfigManager().isAsyncDatabase()) {
+            return;
+        }
+        
+        int threads = Math.max(1, plugin.getConfigManager().getDatabaseThreads());
+        int queueSize = Math.max(1, plugin.getConfigManager().getDatabaseQueueSize());
+        AtomicInteger threadCounter = new AtomicInteger();
+        
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "AzureAuth-DB-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        
+        if (readPool != null) {
+            writeExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueSize),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "AzureAuth-DB-Writer");
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+    }
+    
+    /**
+     * Создание, пересоздание или отключение кэша данных игроков
+     * по текущей настройке performance.cache (также вызывается при перезагрузке)
+     */
+    public void applyCacheSettings() {
+        ConfigManager config = plugin.getConfigManager();
+        if (!config.isCacheEnabled()) {
+            playerDataCache = null;
+            return;
+        }
+        
+        PlayerDataCache current = playerDataCache;
+        if (current == null || current.getMaximumSize() != Math.max(1, config.getCacheSize())
+                || current.getExpireAfterSeconds() != Math.max(1, config.getCacheExpireAfter())) {
+            playerDataCache = new PlayerDataCache(config.getCacheSize(), config.getCacheExpireAfter());
+        }
+    }
+    
+    /**
+     * Запуск фоновой пакетной записи логов
+     * (повторно вызывается при первой записи, если логирование включили командой reload)
+     */
+    private AuditLogWriter initializeAuditLog() {
+        ConfigManager config = plugin.getConfigManager();
+        synchronized (auditLogLock) {
+            if (auditLogWriter != null || closed || !config.isLoggingEnabled()) {
+                return auditLogWriter;
+            }
+            
+            AuditLogWriter writer = new AuditLogWriter(this::insertLogBatch, plugin.getLogger(),
+                    config.getLogQueueSize(), config.getLogBatchSize(), config.getLogFlushInterval(),
+                    AuditLogWriter.OverflowPolicy.fromString(config.getLogOverflowPolicy()),
+                    config.getLogBlockTimeout());
+            writer.start();
+            auditLogWriter = writer;
+            return writer;
+        }
+    }
+    
+    /**
+     * Инвалидация кэша после изменения данных игрока
+     */
+    private void invalidateCache(UUID uuid) {
+        if (playerDataCache != null) {
+            playerDataCache.invalidate(uuid);
+        }
+    }
+    
+    /**
+     * Получение кэша данных игроков (для статистики), может быть null
+     */
+    public PlayerDataCache getPlayerDataCache() {
+        return playerDataCache;
+    }
+    
+    /**
+     * Выполнение операции с БД в пуле потоков
+     * (или сразу, если асинхронный режим отключен)
+     */
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> operation) {
+        return supplyAsync(executor, operation);
+    }
+    
+    /**
+     * Выполнение изменяющей операции с БД в потоке записи
+     * (без отдельного потока записи - в общем пуле)
+     */
+    private <T> CompletableFuture<T> supplyWriteAsync(Supplier<T> operation) {
+        return supplyAsync(writeExecutor != null ? writeExecutor : executor, operation);
+    }
+    
+    private <T> CompletableFuture<T> supplyAsync(ThreadPoolExecutor target, Supplier<T> operation) {
+        if (target == null) {
+            try {
+                return CompletableFuture.completedFuture(operation.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        
+        try {
+            return CompletableFuture.supplyAsync(operation, target);
+        } catch (RejectedExecutionException e) {
+            plugin.getLogger().warning("§e[AzureAuth] Очередь запросов к БД переполнена, запрос отклонен");
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * Выполнение изменяющей операции с БД без результата
+     */
+    private CompletableFuture<Void> runWriteAsync(Runnable operation) {
+        return supplyWriteAsync(() -> {
+            operation.run();
+            return null;
+        });
+    }
+    
+    /**
+     * Проверка асинхронного режима работы с БД
+     */
+    public boolean isAsync() {
+        return executor != null;
+    }
+    
+    /**
+     * Количество запросов, ожидающих в очереди пула потоков БД
+     */
+    public int getQueueSize() {
+        ThreadPoolExecutor current = executor;
+        return current != null ? current.getQueue().size() : 0;
+    }
+    
+    /**
+     * Количество изменяющих запросов, ожидающих потока записи SQLite
+     */
+    public int getWriteQueueSize() {
+        ThreadPoolExecutor current = writeExecutor;
+        return current != null ? current.getQueue().size() : 0;
+    }
+    
+    /**
+     * Инициализация пула соединений MySQL
      */
     private void initializeMysql() throws SQLException {
-        String host = plugin.getConfigManager().getDatabaseHost();
-        int port = plugin.getConfigManager().getDatabasePort();
-        String database = plugin.getConfigManager().getDatabaseName();
-        String username = plugin.getConfigManager().getDatabaseUsername();
-        String password = plugin.getConfigManager().getDatabasePassword();
+        ConfigManager config = plugin.getConfigManager();
+        String host = config.getDatabaseHost();
+        int port = config.getDatabasePort();
+        String database = config.getDatabaseName();
         
         String url = "jdbc:mysql://" + host + ":" + port + "/" + database + 
-                    "?useSSL=false&useUnicode=true&characterEncoding=UTF-8&autoReconnect=true";
+                    "?useSSL=false&useUnicode=true&characterEncoding=UTF-8";
         
-        connection = DriverManager.getConnection(url, username, password);
-        plugin.getLogger().info("§a[AzureAuth] Подключение к MySQL успешно установлено!");
+        Properties properties = new Properties();
+        properties.setProperty("user", config.getDatabaseUsername());
+        properties.setProperty("password", config.getDatabasePassword());
+        properties.putAll(config.getDatabaseConnectionProperties());
+        
+        pool = new ConnectionPool("MySQL", url, properties, plugin.getLogger(),
+                config.getPoolMinimumIdle(), config.getPoolMaximumSize(),
+                config.getPoolIdleTimeout() * 1000L, config.getPoolMaxLifetime() * 1000L,
+                config.getPoolConnectionTimeout(), config.getPoolValidationTimeout());
+        pool.start();
+        plugin.getLogger().info("§a[AzureAuth] Подключение к MySQL успешно установлено! Размер пула: "
+                + config.getPoolMinimumIdle() + "-" + config.getPoolMaximumSize());
     }
     
     /**
-     * Инициализация SQLite соединения
+     * Инициализация пула соединений SQLite
+     *
+     * SQLite блокирует файл базы целиком при записи, поэтому несколько соединений
+     * только конкурировали бы за блокировку: используется одно постоянное соединение
+     * без ограничения времени жизни, остальные запросы ожидают его в очереди пула.
      */
     private void initializeSqlite() throws SQLException {
+        ConfigManager config = plugin.getConfigManager();
         File dataFolder = plugin.getDataFolder();
         if (!dataFolder.exists()) {
             dataFolder.mkdirs();
         }
         
         String url = "jdbc:sqlite:" + dataFolder.getAbsolutePath() + "/database.db";
-        connection = DriverManager.getConnection(url);
-        plugin.getLogger().info("§a[AzureAuth] Подключение к SQLite успешно установлено!");
-    }
-    
-    /**
-     * Создание таблиц в базе данных
-     */
-    private void createTables() throws SQLException {
-        // Таблица пользователей
-        String createUsersTable = "CREATE TABLE IF NOT EXISTS " + tablePrefix + "users (" +
-                "id INTEGER PRIMARY KEY " + (isMySQL() ? "AUTO_INCREMENT" : "AUTOINCREMENT") + "," +
-                "uuid VARCHAR(36) UNIQUE NOT NULL," +
-                "username VARCHAR(16) NOT NULL," +
-                "password_hash VARCHAR(128) NOT NULL," +
-                "salt VARCHAR(32) NOT NULL," +
-                "email VARCHAR(100)," +
-                "ip_address VARCHAR(45)," +
-                "registration_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "last_login TIMESTAMP," +
-                "is_verified BOOLEAN DEFAULT FALSE," +
-                "failed_attempts INTEGER DEFAULT 0," +
-                "locked_until TIMESTAMP NULL" +
-                ")";
-        
-        // Таблица сессий
-        String createSessionsTable = "CREATE TABLE IF NOT EXISTS " + tablePrefix + "sessions (" +
-                "id INTEGER PRIMARY KEY " + (isMySQL() ? "AUTO_INCREMENT" : "AUTOINCREMENT") + "," +
-                "uuid VARCHAR(36) NOT NULL," +
-                "ip_address VARCHAR(45) NOT NULL," +
-                "session_token VARCHAR(64) UNIQUE NOT NULL," +
-                "created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "expires_date TIMESTAMP NOT NULL," +
-                "is_active BOOLEAN DEFAULT TRUE" +
-                ")";
-        
-        // Таблица логов
-        String createLogsTable = "CREATE TABLE IF NOT EXISTS " + tablePrefix + "logs (" +
-                "id INTEGER PRIMARY KEY " + (isMySQL() ? "AUTO_INCREMENT" : "AUTOINCREMENT") + "," +
-                "uuid VARCHAR(36)," +
-                "username VARCHAR(16)," +
-                "action VARCHAR(50) NOT NULL," +
-                "ip_address VARCHAR(45)," +
-                "details TEXT," +
-                "timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                ")";
-        
-        try (Statement stmt = connection.createStatement()) {
-            stmt.executeUpdate(createUsersTable);
-            stmt.executeUpdate(createSessionsTable);
-            stmt.executeUpdate(createLogsTable);
+        Properties properties = sqliteProperties(config);
+        if (config.isSqliteWal()) {
+            properties.setProperty("journal_mode", "WAL");
+        }
+        
+        // Единственное соединение для записи: SQLite допускает одного писателя
+        pool = new ConnectionPool("SQLite", url, properties, plugin.getLogger(),
+                1, 1, 0L, 0L, config.getPoolConnectionTimeout(), 5);
+        pool.start();
+        
+        // Режим WAL сохраняется в файле БД, поэтому соединения для чтения
+        // открываются после соединения для записи и только на чтение
+        if (config.isSqliteWal()) {
+            Properties readProperties = sqliteProperties(config);
+            readProperties.setProperty("open_mode", "1");
+            int readers = Math.max(1, config.getSqliteReaderConnections());
+            readPool = new ConnectionPool("SQLite-Read", url, readProperties, plugin.getLogger(),
+                    1, readers, 0L, 0L, config.getPoolConnectionTimeout(), 5);
+            readPool.start();
+        }
+        
+        plugin.getLogger().info("§a[AzureAuth] Подключение к SQLite успешно установлено!"
+                + (readPool != null ? " (WAL, соединений для чтения: " + readPool.getMaximumSize() + ")" : ""));
+    }
+    
+    /**
+     * Параметры соединения SQLite (database.sqlite)
+     */
+    private static Properties sqliteProperties(ConfigManager config) {
+        Properties properties = new Properties();
+        properties.setProperty("busy_timeout", String.valueOf(config.getSqliteBusyTimeout()));
+        properties.setProperty("synchronous", config.getSqliteSynchronous().toUpperCase(Locale.ROOT));
+        properties.setProperty("mmap_size", String.valueOf(config.getSqliteMmapSize() * 1024L * 1024L));
+        // Отрицательное значение cache_size задает размер в КиБ, а не в страницах
+        properties.setProperty("cache_size", String.valueOf(-config.getSqliteCacheSize() * 1024L));
+        return properties;
+    }
+    
+    /**
+     * Соединение для запроса только на чтение
+     * (при SQLite с WAL - из пула соединений для чтения)
+     */
+    private Connection getReadConnection() throws SQLException {
+        ensureSchemaUnchanged();
+        ConnectionPool current = readPool;
+        return current != null ? current.getConnection() : pool.getConnection();
+    }
+    
+    /**
+     * Соединение для изменяющего запроса
+     */
+    private Connection getWriteConnection() throws SQLException {
+        ensureSchemaUnchanged();
+        return pool.getConnection();
+    }
+    
+    private void ensureSchemaUnchanged() throws SQLException {
+        if (schemaChanged) {
+            throw new SQLException("раскладка таблиц изменена другим сервером, требуется перезапуск");
+        }
+    }
+    
+    /**
+     * Проверка, что раскладка таблиц не изменилась с момента запуска (только MySQL)
+     *
+     * Другой сервер с общей БД может перевести таблицы в компактную схему.
+     * Запись в прежнем формате повредила бы данные, поэтому после обнаружения
+     * все запросы к БД отклоняются до перезапуска сервера.
+     */
+    public void checkSchemaLayout() {
+        if (!mysql || schemaChanged || pool == null || pool.isClosed()) {
+            return;
+        }
+        
+        SchemaMigrator migrator = new SchemaMigrator(tablePrefix, true, false, plugin.getLogger());
+        try (Connection connection = pool.getConnection()) {
+            if (migrator.detectCompactLayout(connection) != compactSchema) {
+                schemaChanged = true;
+                plugin.getLogger().severe("§c[AzureAuth] Таблицы переводятся или переведены в другую схему "
+                        + "(database.compact-schema на другом сервере). Запросы к БД отклоняются, перезапустите сервер");
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("§c[AzureAuth] Ошибка при проверке схемы БД: " + e.getMessage());
         }
     }
     
+    /**
+     * Создание таблиц и применение миграций схемы
+     */
+    private void migrateSchema() throws SQLException {
+        boolean compactRequested = plugin.getConfigManager().isCompactSchema();
+        SchemaMigrator migrator = new SchemaMigrator(tablePrefix, isMySQL(), compactRequested, plugin.getLogger());
+        try (Connection connection = pool.getConnection()) {
+            int applied = migrator.migrate(connection);
+            if (applied > 0) {
+                plugin.getLogger().info("§a[AzureAuth] Схема БД обновлена до версии " + migrator.getCurrentVersion());
+            }
+        }
+        
+        // Раскладка определяется по БД: перенесенные таблицы обратно не конвертируются
+        compactSchema = migrator.isCompactSchema();
+        if (compactSchema && !compactRequested) {
+            plugin.getLogger().warning("§e[AzureAuth] Таблицы уже в компактной схеме, database.compact-schema: false не применяется");
+        }
+    }
+    
+    /**
+     * Используется ли компактная схема (UUID в 16 байтах, время в миллисекундах)
+     */
+    public boolean isCompactSchema() {
+        return compactSchema;
+    }
+    
+    // Преобразование UUID и времени по раскладке таблиц
+    
+    private void setUuid(PreparedStatement stmt, int index, UUID uuid) throws SQLException {
+        if (uuid == null) {
+            stmt.setNull(index, compactSchema ? Types.BINARY : Types.VARCHAR);
+        } else if (compactSchema) {
+            stmt.setBytes(index, UuidCodec.toBytes(uuid));
+        } else {
+            stmt.setString(index, uuid.toString());
+        }
+    }
+    
+    private UUID getUuid(ResultSet rs, String column) throws SQLException {
+        if (compactSchema) {
+            byte[] bytes = rs.getBytes(column);
+            return bytes != null ? UuidCodec.fromBytes(bytes) : null;
+        }
+        String value = rs.getString(column);
+        return value != null ? UUID.fromString(value) : null;
+    }
+    
+    private void setTime(PreparedStatement stmt, int index, long millis) throws SQLException {
+        if (compactSchema) {
+            stmt.setLong(index, millis);
+        } else {
+            stmt.setTimestamp(index, new Timestamp(millis));
+        }
+    }
+    
+    private Timestamp getTime(ResultSet rs, String column) throws SQLException {
+        if (compactSchema) {
+            long millis = rs.getLong(column);
+            return rs.wasNull() ? null : new Timestamp(millis);
+        }
+        return rs.getTimestamp(column);
+    }
+    
     /**
      * Регистрация нового игрока
      */
     public boolean registerPlayer(UUID uuid, String username, String password, String ipAddress) {
-        String sql = "INSERT INTO " + tablePrefix + "users (uuid, username, password_hash, salt, ip_address) VALUES (?, ?, ?, ?, ?)";
+        return insertPlayer(uuid, username, plugin.getPasswordHashingService().hash(password), ipAddress);
+    }
+    
+    /**
+     * Асинхронная регистрация нового игрока
+     * (хеш вычисляется в пуле хеширования, запись - в пуле БД)
+     */
+    public CompletableFuture<Boolean> registerPlayerAsync(UUID uuid, String username, String password, String ipAddress) {
+        return plugin.getPasswordHashingService().hashAsync(password)
+                .thenCompose(passwordHash -> supplyWriteAsync(() -> insertPlayer(uuid, username, passwordHash, ipAddress)));
+    }
+    
+    /**
+     * Добавление игрока с готовым хешем пароля
+     * (соль хранится в самом хеше, столбец salt остается пустым)
+     */
+    private boolean insertPlayer(UUID uuid, String username, String passwordHash, String ipAddress) {
+        // В компактной схеме у времени нет значения по умолчанию со стороны БД
+        String sql = compactSchema
+                ? "INSERT INTO " + tablePrefix + "users (uuid, username, password_hash, salt, ip_address, registration_date) VALUES (?, ?, ?, '', ?, ?)"
+                : "INSERT INTO " + tablePrefix + "users (uuid, username, password_hash, salt, ip_address) VALUES (?, ?, ?, '', ?)";
+        boolean registered = false;
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            String salt = PasswordUtils.generateSalt();
-            String hashedPassword = PasswordUtils.hashPassword(password, salt);
-            
-            stmt.setString(1, uuid.toString());
+        long start = System.nanoTime();
+        try (Connection connection = getWriteConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            setUuid(stmt, 1, uuid);
             stmt.setString(2, username);
-            stmt.setString(3, hashedPassword);
-            stmt.setString(4, salt);
-            stmt.setString(5, ipAddress);
-            
-            int affectedRows = stmt.executeUpdate();
-            
-            if (affectedRows > 0) {
-                logAction(uuid, username, "REGISTER", ipAddress, "Successful registration");
-                return true;
+            stmt.setString(3, passwordHash);
+            stmt.setString(4, ipAddress);
+            if (compactSchema) {
+                stmt.setLong(5, System.currentTimeMillis());
             }
+            
+            registered = stmt.executeUpdate() > 0;
+            invalidateCache(uuid);
         } catch (SQLException e) {
             plugin.getLogger().severe("§c[AzureAuth] Ошибка при регистрации игрока: " + e.getMessage());
+        } finally {
+            metrics.record("db_insert_player", start);
         }
         
-        return false;
+        // Запись в журнал - после возврата соединения: у SQLite оно единственное
+        if (registered) {
+            logAction(uuid, username, "REGISTER", ipAddress, "Successful registration");
+        }
+        return registered;
     }
     
     /**
      * Проверка пароля игрока
+     * (устаревший хеш при совпадении пароля пересчитывается)
      */
     public boolean checkPassword(UUID uuid, String password) {
-        String sql = "SELECT password_hash, salt FROM " + tablePrefix + "users WHERE uuid = ?";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, uuid.toString());
-            ResultSet rs = stmt.executeQuery();
-            
-            if (rs.next()) {
-                String storedHash = rs.getString("password_hash");
-                String salt = rs.getString("salt");
-                String hashedPassword = PasswordUtils.hashPassword(password, salt);
-                
-                return storedHash.equals(hashedPassword);
-            }
+        LoginRecord record;
+        try {
+            record = getLoginRecord(uuid);
         } catch (SQLException e) {
             plugin.getLogger().severe("§c[AzureAuth] Ошибка при проверке пароля: " + e.getMessage());
+            return false;
         }
         
-        return false;
+        PasswordHashingService hashing = plugin.getPasswordHashingService();
+        if (record == null || !hashing.verify(password, record.getPasswordHash(), record.getSalt())) {
+            return false;
+        }
+        
+        if (hashing.needsRehash(record.getPasswordHash())) {
+            updatePasswordHash(uuid, record.getPasswordHash(), hashing.hash(password));
+        }
+        return true;
+    }
+    
+    /**
+     * Асинхронная проверка пароля игрока
+     */
+    public CompletableFuture<Boolean> checkPasswordAsync(UUID uuid, String password) {
+        return supplyAsync(() -> loadLoginRecord(uuid)).thenCompose(record -> {
+            if (record == null) {
+                return CompletableFuture.completedFuture(false);
+            }
+            
+            return plugin.getPasswordHashingService().verifyAsync(password, record.getPasswordHash(), record.getSalt())
+                    .thenApply(matches -> {
+                        if (matches) {
+                            rehashIfNeeded(uuid, password, record.getPasswordHash());
+                        }
+                        return matches;
+                    });
+        });
     }
     
     /**
      * Проверка существования игрока
      */
     public boolean playerExists(UUID uuid) {
+        if (playerDataCache != null && playerDataCache.getIfPresent(uuid) != null) {
+            return true;
+        }
+        
         String sql = "SELECT 1 FROM " + tablePrefix + "users WHERE uuid = ?";
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, uuid.toString());
+        long start = System.nanoTime();
+        try (Connection connection = getReadConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            setUuid(stmt, 1, uuid);
             ResultSet rs = stmt.executeQuery();
             return rs.next();
         } catch (SQLException e) {
             plugin.getLogger().severe("§c[AzureAuth] Ошибка при проверке существования игрока: " + e.getMessage());
+        } finally {
+            metrics.record("db_player_exists", start);
         }
         
         return false;
     }
     
+    /**
+     * Асинхронная проверка существования игрока
+     */
+    public CompletableFuture<Boolean> playerExistsAsync(UUID uuid) {
+        return supplyAsync(() -> playerExists(uuid));
+    }
+    
     /**
      * Обновление времени последнего входа
      */
     public void updateLastLogin(UUID uuid, String ipAddress) {
-        String sql = "UPDATE " + tablePrefix + "users SET last_login = CURRENT_TIMESTAMP, ip_address = ?, failed_attempts = 0 WHERE uuid = ?";
+        String sql = "UPDATE " + tablePrefix + "users SET last_login = " + (compactSchema ? "?" : "CURRENT_TIMESTAMP")
+                + ", ip_address = ?, failed_attempts = 0, locked_until = NULL WHERE uuid = ?";
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, ipAddress);
-            stmt.setString(2, uuid.toString());
+        long start = System.nanoTime();
+        try (Connection connection = getWriteConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            if (compactSchema) {
+                stmt.setLong(index++, System.currentTimeMillis());
+            }
+            stmt.setString(index++, ipAddress);
+            setUuid(stmt, index, uuid);
             stmt.executeUpdate();
+            invalidateCache(uuid);
         } catch (SQLException e) {
             plugin.getLogger().severe("§c[AzureAuth] Ошибка при обновлении времени входа: " + e.getMessage());
+        } finally {
+            metrics.record("db_update_last_login", start);
+        }
+    }
+    
+    /**
+     * Асинхронное обновление времени последнего входа
+     */
+    public CompletableFuture<Void> updateLastLoginAsync(UUID uuid, String ipAddress) {
+        return runWriteAsync(() -> updateLastLogin(uuid, ipAddress));
+    }
+    
+    /**
+     * Проверка входа: SELECT данных для проверки в пуле БД, сравнение хеша
+     * в пуле хеширования и один UPDATE с результатом попытки в пуле БД
+     *
+     * @param maxAttempts        количество неудачных попыток до блокировки
+     * @param lockDurationMillis длительность блокировки
+     */
+    public CompletableFuture<LoginResult> verifyLoginAsync(UUID uuid, String password, String ipAddress,
+                                                           int maxAttempts, long lockDurationMillis) {
+        return supplyAsync(() -> loadLoginRecord(uuid)).thenCompose(record -> {
+            if (record == null) {
+                return CompletableFuture.completedFuture(LoginResult.notRegistered());
+            }
+            
+            if (record.isLocked()) {
+                return CompletableFuture.completedFuture(LoginResult.locked(record.getTimeUntilUnlock()));
+            }
+            
+            return plugin.getPasswordHashingService().verifyAsync(password, record.getPasswordHash(), record.getSalt())
+                    .thenCompose(matches -> {
+                        if (!matches) {
+                            return supplyWriteAsync(() -> recordLoginFailure(uuid, record, maxAttempts, lockDurationMillis));
+                        }
+                        
+                        rehashIfNeeded(uuid, password, record.getPasswordHash());
+                        return supplyWriteAsync(() -> {
+                            updateLastLogin(uuid, ipAddress);
+                            return LoginResult.success();
+                        });
+                    });
+        });
+    }
+    
+    /**
+     * Загрузка данных для проверки входа (ошибка БД завершает future с исключением)
+     */
+    private LoginRecord loadLoginRecord(UUID uuid) {
+        try {
+            return getLoginRecord(uuid);
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        }
+    }
+    
+    /**
+     * Фоновый пересчет устаревшего хеша после успешной проверки пароля
+     */
+    private void rehashIfNeeded(UUID uuid, String password, String storedHash) {
+        PasswordHashingService hashing = plugin.getPasswordHashingService();
+        if (!hashing.needsRehash(storedHash)) {
+            return;
         }
+        
+        hashing.hashAsync(password)
+                .thenCompose(newHash -> runWriteAsync(() -> updatePasswordHash(uuid, storedHash, newHash)))
+                .exceptionally(error -> {
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    plugin.getLogger().warning("§e[AzureAuth] Не удалось пересчитать хеш пароля: " + cause.getMessage());
+                    return null;
+                });
+    }
+    
+    /**
+     * Замена хеша пароля, если он не изменился с момента проверки
+     * (чтобы не перезаписать одновременную смену пароля)
+     */
+    private void updatePasswordHash(UUID uuid, String expectedHash, String newHash) {
+        String sql = "UPDATE " + tablePrefix + "users SET password_hash = ?, salt = '' WHERE uuid = ? AND password_hash = ?";
+        
+        long start = System.nanoTime();
+        try (Connection connection = getWriteConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, newHash);
+            setUuid(stmt, 2, uuid);
+            stmt.setString(3, expectedHash);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().severe("§c[AzureAuth] Ошибка при обновлении хеша пароля: " + e.getMessage());
+        } finally {
+            metrics.record("db_update_password_hash", start);
+        }
+    }
+    
+    /**
+     * Получение хеша, соли (только для старых хешей), счетчика попыток и времени блокировки одним запросом
+     *
+     * @return данные для проверки или null, если игрок не зарегистрирован
+     */
+    public LoginRecord getLoginRecord(UUID uuid) throws SQLException {
+        String sql = "SELECT password_hash, salt, failed_attempts, locked_until FROM " + tablePrefix + "users WHERE uuid = ?";
+        
+        long start = System.nanoTime();
+        try (Connection connection = getReadConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            setUuid(stmt, 1, uuid);
+            ResultSet rs = stmt.executeQuery();
+            
+            if (!rs.next()) {
+                return null;
+            }
+            
+            return new LoginRecord(rs.getString("password_hash"), rs.getString("salt"),
+                    rs.getInt("failed_attempts"), getTime(rs, "locked_until"));
+        } finally {
+            metrics.record("db_get_login_record", start);
+        }
+    }
+    
+    /**
+     * Запись неудачной попытки одним UPDATE: увеличение счетчика и,
+     * при достижении лимита, блокировка аккаунта со сбросом счетчика
+     *
+     * locked_until присваивается первым: MySQL вычисляет SET слева направо
+     * с учетом уже измененных столбцов, SQLite - по исходной строке,
+     * при таком порядке результат в обеих СУБД одинаковый.
+     */
+    private LoginResult recordLoginFailure(UUID uuid, LoginRecord record, int maxAttempts, long lockDurationMillis) {
+        String sql = "UPDATE " + tablePrefix + "users SET " +
+                "locked_until = CASE WHEN failed_attempts + 1 >= ? THEN ? ELSE locked_until END, " +
+                "failed_attempts = CASE WHEN failed_attempts + 1 >= ? THEN 0 ELSE failed_attempts + 1 END " +
+                "WHERE uuid = ?";
+        
+        long lockedUntil = System.currentTimeMillis() + lockDurationMillis;
+        
+        long start = System.nanoTime();
+        try (Connection connection = getWriteConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, maxAttempts);
+            setTime(stmt, 2, lockedUntil);
+            stmt.setInt(3, maxAttempts);
+            setUuid(stmt, 4, uuid);
+            stmt.executeUpdate();
+            invalidateCache(uuid);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("§c[AzureAuth] Ошибка при обновлении неудачных попыток: " + e.getMessage());
+            return LoginResult.error();
+        } finally {
+            metrics.record("db_record_login_failure", start);
+        }
+        
+        int attempts = record.getFailedAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            return LoginResult.locked(lockDurationMillis / 1000);
+        }
+        return LoginResult.wrongPassword(maxAttempts - attempts);
     }
     
     /**
@@ -211,22 +734,36 @@ public class DatabaseManager {
     public void incrementFailedAttempts(UUID uuid) {
         String sql = "UPDATE " + tablePrefix + "users SET failed_attempts = failed_attempts + 1 WHERE uuid = ?";
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, uuid.toString());
+        long start = System.nanoTime();
+        try (Connection connection = getWriteConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            setUuid(stmt, 1, uuid);
             stmt.executeUpdate();
+            invalidateCache(uuid);
         } catch (SQLException e) {
             plugin.getLogger().severe("§c[AzureAuth] Ошибка при обновлении неудачных попыток: " + e.getMessage());
+        } finally {
+            metrics.record("db_increment_failed_attempts", start);
         }
     }
     
+    /**
+     * Асинхронное увеличение счетчика неудачных попыток
+     */
+    public CompletableFuture<Void> incrementFailedAttemptsAsync(UUID uuid) {
+        return runWriteAsync(() -> incrementFailedAttempts(uuid));
+    }
+    
     /**
      * Получение количества неудачных попыток
      */
     public int getFailedAttempts(UUID uuid) {
         String sql = "SELECT failed_attempts FROM " + tablePrefix + "users WHERE uuid = ?";
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, uuid.toString());
+        long start = System.nanoTime();
+        try (Connection connection = getReadConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            setUuid(stmt, 1, uuid);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
@@ -234,28 +771,54 @@ public class DatabaseManager {
             }
         } catch (SQLException e) {
             plugin.getLogger().severe("§c[AzureAuth] Ошибка при получении неудачных попыток: " + e.getMessage());
+        } finally {
+            metrics.record("db_get_failed_attempts", start);
         }
         
         return 0;
     }
     
+    /**
+     * Асинхронное получение количества неудачных попыток
+     */
+    public CompletableFuture<Integer> getFailedAttemptsAsync(UUID uuid) {
+        return supplyAsync(() -> getFailedAttempts(uuid));
+    }
+    
     /**
      * Изменение пароля
      */
     public boolean changePassword(UUID uuid, String newPassword) {
-        String sql = "UPDATE " + tablePrefix + "users SET password_hash = ?, salt = ? WHERE uuid = ?";
+        return updatePassword(uuid, plugin.getPasswordHashingService().hash(newPassword));
+    }
+    
+    /**
+     * Асинхронное изменение пароля
+     */
+    public CompletableFuture<Boolean> changePasswordAsync(UUID uuid, String newPassword) {
+        return plugin.getPasswordHashingService().hashAsync(newPassword)
+                .thenCompose(passwordHash -> supplyWriteAsync(() -> updatePassword(uuid, passwordHash)));
+    }
+    
+    /**
+     * Запись нового хеша пароля
+     */
+    private boolean updatePassword(UUID uuid, String passwordHash) {
+        String sql = "UPDATE " + tablePrefix + "users SET password_hash = ?, salt = '' WHERE uuid = ?";
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            String salt = PasswordUtils.generateSalt();
-            String hashedPassword = PasswordUtils.hashPassword(newPassword, salt);
-            
-            stmt.setString(1, hashedPassword);
-            stmt.setString(2, salt);
-            stmt.setString(3, uuid.toString());
+        long start = System.nanoTime();
+        try (Connection connection = getWriteConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, passwordHash);
+            setUuid(stmt, 2, uuid);
             
-            return stmt.executeUpdate() > 0;
+            boolean changed = stmt.executeUpdate() > 0;
+            invalidateCache(uuid);
+            return changed;
         } catch (SQLException e) {
             plugin.getLogger().severe("§c[AzureAuth] Ошибка при изменении пароля: " + e.getMessage());
+        } finally {
+            metrics.record("db_update_password", start);
         }
         
         return false;
@@ -265,85 +828,299 @@ public class DatabaseManager {
      * Сохранение сессии
      */
     public void saveSession(UUID uuid, String ipAddress, String sessionToken, long expirationTime) {
-        String sql = "INSERT INTO " + tablePrefix + "sessions (uuid, ip_address, session_token, expires_date) VALUES (?, ?, ?, ?)";
+        String sql = compactSchema
+                ? "INSERT INTO " + tablePrefix + "sessions (uuid, ip_address, session_token, expires_date, created_date) VALUES (?, ?, ?, ?, ?)"
+                : "INSERT INTO " + tablePrefix + "sessions (uuid, ip_address, session_token, expires_date) VALUES (?, ?, ?, ?)";
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, uuid.toString());
+        long start = System.nanoTime();
+        try (Connection connection = getWriteConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            setUuid(stmt, 1, uuid);
             stmt.setString(2, ipAddress);
             stmt.setString(3, sessionToken);
-            stmt.setTimestamp(4, new Timestamp(expirationTime));
+            setTime(stmt, 4, expirationTime);
+            if (compactSchema) {
+                stmt.setLong(5, System.currentTimeMillis());
+            }
             
             stmt.executeUpdate();
         } catch (SQLException e) {
             plugin.getLogger().severe("§c[AzureAuth] Ошибка при сохранении сессии: " + e.getMessage());
+        } finally {
+            metrics.record("db_save_session", start);
         }
     }
     
+    /**
+     * Асинхронное сохранение сессии
+     */
+    public CompletableFuture<Void> saveSessionAsync(UUID uuid, String ipAddress, String sessionToken, long expirationTime) {
+        return runWriteAsync(() -> saveSession(uuid, ipAddress, sessionToken, expirationTime));
+    }
+    
+    /**
+     * Загрузка всех активных неистекших сессий
+     */
+    public List<SessionData> loadActiveSessions() {
+        List<SessionData> sessions = new ArrayList<>();
+        String sql = "SELECT uuid, ip_address, session_token, expires_date FROM " + tablePrefix + "sessions WHERE is_active = TRUE AND expires_date > ?";
+        
+        long start = System.nanoTime();
+        try (Connection connection = getReadConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            setTime(stmt, 1, System.currentTimeMillis());
+            ResultSet rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                sessions.add(new SessionData(getUuid(rs, "uuid"), rs.getString("ip_address"),
+                        rs.getString("session_token"), getTime(rs, "expires_date").getTime()));
+            }
+        } catch (SQLException | IllegalArgumentException e) {
+            plugin.getLogger().severe("§c[AzureAuth] Ошибка при загрузке сессий: " + e.getMessage());
+        } finally {
+            metrics.record("db_load_active_sessions", start);
+        }
+        
+        return sessions;
+    }
+    
     /**
      * Проверка валидности сессии
+     *
+     * Текущее время передается параметром: expires_date записывается через
+     * setTimestamp (или числом в компактной схеме), и в SQLite его нельзя
+     * сравнивать с CURRENT_TIMESTAMP (текст).
      */
     public boolean isValidSession(UUID uuid, String ipAddress, String sessionToken) {
-        String sql = "SELECT 1 FROM " + tablePrefix + "sessions WHERE uuid = ? AND ip_address = ? AND session_token = ? AND expires_date > CURRENT_TIMESTAMP AND is_active = TRUE";
+        String sql = "SELECT 1 FROM " + tablePrefix + "sessions WHERE uuid = ? AND ip_address = ? AND session_token = ? AND expires_date > ? AND is_active = TRUE";
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, uuid.toString());
+        long start = System.nanoTime();
+        try (Connection connection = getReadConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            setUuid(stmt, 1, uuid);
             stmt.setString(2, ipAddress);
             stmt.setString(3, sessionToken);
+            setTime(stmt, 4, System.currentTimeMillis());
             
             ResultSet rs = stmt.executeQuery();
             return rs.next();
         } catch (SQLException e) {
             plugin.getLogger().severe("§c[AzureAuth] Ошибка при проверке сессии: " + e.getMessage());
+        } finally {
+            metrics.record("db_is_valid_session", start);
         }
         
         return false;
     }
     
+    /**
+     * Асинхронная проверка валидности сессии
+     */
+    public CompletableFuture<Boolean> isValidSessionAsync(UUID uuid, String ipAddress, String sessionToken) {
+        return supplyAsync(() -> isValidSession(uuid, ipAddress, sessionToken));
+    }
+    
     /**
      * Деактивация всех сессий игрока
      */
     public void deactivateAllSessions(UUID uuid) {
         String sql = "UPDATE " + tablePrefix + "sessions SET is_active = FALSE WHERE uuid = ?";
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, uuid.toString());
+        long start = System.nanoTime();
+        try (Connection connection = getWriteConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            setUuid(stmt, 1, uuid);
             stmt.executeUpdate();
         } catch (SQLException e) {
             plugin.getLogger().severe("§c[AzureAuth] Ошибка при деактивации сессий: " + e.getMessage());
+        } finally {
+            metrics.record("db_deactivate_all_sessions", start);
         }
     }
     
     /**
-     * Логирование действий
+     * Асинхронная деактивация всех сессий игрока
+     */
+    public CompletableFuture<Void> deactivateAllSessionsAsync(UUID uuid) {
+        return runWriteAsync(() -> deactivateAllSessions(uuid));
+    }
+    
+    /**
+     * Логирование действий из фонового потока
+     * (при overflow-policy BLOCK может ждать места в очереди до block-timeout)
      */
     public void logAction(UUID uuid, String username, String action, String ipAddress, String details) {
         if (!plugin.getConfigManager().isLoggingEnabled()) {
             return;
         }
         
-        String sql = "INSERT INTO " + tablePrefix + "logs (uuid, username, action, ip_address, details) VALUES (?, ?, ?, ?, ?)";
+        AuditLogWriter writer = getAuditLogWriterForWrite();
+        if (writer != null) {
+            writer.enqueue(new AuditLogEntry(uuid, username, action, ipAddress, details));
+        }
+    }
+    
+    /**
+     * Асинхронное логирование действий
+     * (запись помещается в очередь без ожидания, поэтому вызов безопасен в основном
+     * потоке; при overflow-policy BLOCK и заполненной очереди запись отбрасывается)
+     */
+    public CompletableFuture<Void> logActionAsync(UUID uuid, String username, String action, String ipAddress, String details) {
+        if (plugin.getConfigManager().isLoggingEnabled()) {
+            AuditLogWriter writer = getAuditLogWriterForWrite();
+            if (writer != null) {
+                writer.offer(new AuditLogEntry(uuid, username, action, ipAddress, details));
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+    
+    private AuditLogWriter getAuditLogWriterForWrite() {
+        AuditLogWriter writer = auditLogWriter;
+        return writer != null ? writer : initializeAuditLog();
+    }
+    
+    /**
+     * Пакетная запись логов одной транзакцией
+     *
+     * Время записи проставляется БД (DEFAULT CURRENT_TIMESTAMP), поэтому
+     * может отставать от времени события не более чем на flush-interval.
+     * В компактной схеме записывается время создания записи.
+     */
+    private void insertLogBatch(List<AuditLogEntry> batch) throws SQLException {
+        String sql = compactSchema
+                ? "INSERT INTO " + tablePrefix + "logs (uuid, username, action, ip_address, details, timestamp) VALUES (?, ?, ?, ?, ?, ?)"
+                : "INSERT INTO " + tablePrefix + "logs (uuid, username, action, ip_address, details) VALUES (?, ?, ?, ?, ?)";
+        
+        long start = System.nanoTime();
+        try (Connection connection = getWriteConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            connection.setAutoCommit(false);
+            
+            for (AuditLogEntry entry : batch) {
+                setUuid(stmt, 1, entry.getUuid());
+                stmt.setString(2, entry.getUsername());
+                stmt.setString(3, entry.getAction());
+                stmt.setString(4, entry.getIpAddress());
+                stmt.setString(5, entry.getDetails());
+                if (compactSchema) {
+                    stmt.setLong(6, entry.getCreatedAt());
+                }
+                stmt.addBatch();
+            }
+            
+            stmt.executeBatch();
+            connection.commit();
+        } finally {
+            metrics.record("db_insert_log_batch", start);
+        }
+    }
+    
+    /**
+     * Получение очереди записи логов (для статистики), может быть null
+     */
+    public AuditLogWriter getAuditLogWriter() {
+        return auditLogWriter;
+    }
+    
+    /**
+     * Чтение страницы журнала: до limit записей с id больше afterId по возрастанию id
+     *
+     * Постраничное чтение по ключу не зависит от размера таблицы, в отличие от OFFSET.
+     */
+    public List<LogRecord> loadLogsAfter(long afterId, int limit) throws SQLException {
+        String sql = "SELECT id, uuid, username, action, ip_address, details, timestamp FROM " + tablePrefix
+                + "logs WHERE id > ? ORDER BY id LIMIT ?";
+        List<LogRecord> records = new ArrayList<>();
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, uuid != null ? uuid.toString() : null);
-            stmt.setString(2, username);
-            stmt.setString(3, action);
-            stmt.setString(4, ipAddress);
-            stmt.setString(5, details);
+        long start = System.nanoTime();
+        try (Connection connection = getReadConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setLong(1, afterId);
+            stmt.setInt(2, limit);
+            ResultSet rs = stmt.executeQuery();
             
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            plugin.getLogger().severe("§c[AzureAuth] Ошибка при логировании: " + e.getMessage());
+            while (rs.next()) {
+                records.add(new LogRecord(rs.getLong("id"), getLogUuid(rs), rs.getString("username"),
+                        rs.getString("action"), rs.getString("ip_address"), rs.getString("details"), getLogTime(rs)));
+            }
+        } finally {
+            metrics.record("db_load_logs", start);
         }
+        return records;
+    }
+    
+    /**
+     * Наибольший id записи журнала, не входящей в keepRows последних записей
+     * (0, если записей не больше keepRows)
+     */
+    public long getLogIdBeyond(int keepRows) throws SQLException {
+        String sql = "SELECT id FROM " + tablePrefix + "logs ORDER BY id DESC LIMIT 1 OFFSET ?";
+        
+        try (Connection connection = getReadConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, keepRows);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getLong(1) : 0L;
+        }
+    }
+    
+    /**
+     * Удаление записей журнала с id от fromId до toId включительно
+     * (одна короткая транзакция на вызов)
+     */
+    public int deleteLogRange(long fromId, long toId) throws SQLException {
+        String sql = "DELETE FROM " + tablePrefix + "logs WHERE id >= ? AND id <= ?";
+        
+        long start = System.nanoTime();
+        try (Connection connection = getWriteConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setLong(1, fromId);
+            stmt.setLong(2, toId);
+            return stmt.executeUpdate();
+        } finally {
+            metrics.record("db_delete_logs", start);
+        }
+    }
+    
+    private UUID getLogUuid(ResultSet rs) throws SQLException {
+        try {
+            return getUuid(rs, "uuid");
+        } catch (IllegalArgumentException e) {
+            // Повреждённое значение не должно останавливать архивацию
+            return null;
+        }
+    }
+    
+    private long getLogTime(ResultSet rs) throws SQLException {
+        if (compactSchema) {
+            return rs.getLong("timestamp");
+        }
+        // В старой схеме SQLite время DEFAULT CURRENT_TIMESTAMP хранится текстом
+        Long millis = SchemaMigrator.readLegacyMillis(rs, "timestamp", isMySQL());
+        return millis != null ? millis : 0L;
     }
     
     /**
      * Получение данных игрока
      */
     public PlayerData getPlayerData(UUID uuid) {
+        if (playerDataCache != null) {
+            return playerDataCache.getOrLoad(uuid, this::loadPlayerData);
+        }
+        return loadPlayerData(uuid);
+    }
+    
+    /**
+     * Загрузка данных игрока из БД
+     */
+    private PlayerData loadPlayerData(UUID uuid) {
         String sql = "SELECT * FROM " + tablePrefix + "users WHERE uuid = ?";
         
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, uuid.toString());
+        long start = System.nanoTime();
+        try (Connection connection = getReadConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            setUuid(stmt, 1, uuid);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
@@ -352,76 +1129,163 @@ public class DatabaseManager {
                 data.setUsername(rs.getString("username"));
                 data.setEmail(rs.getString("email"));
                 data.setIpAddress(rs.getString("ip_address"));
-                data.setRegistrationDate(rs.getTimestamp("registration_date"));
-                data.setLastLogin(rs.getTimestamp("last_login"));
+                data.setRegistrationDate(getTime(rs, "registration_date"));
+                data.setLastLogin(getTime(rs, "last_login"));
                 data.setVerified(rs.getBoolean("is_verified"));
                 data.setFailedAttempts(rs.getInt("failed_attempts"));
-                data.setLockedUntil(rs.getTimestamp("locked_until"));
+                data.setLockedUntil(getTime(rs, "locked_until"));
                 
                 return data;
             }
         } catch (SQLException e) {
             plugin.getLogger().severe("§c[AzureAuth] Ошибка при получении данных игрока: " + e.getMessage());
+        } finally {
+            metrics.record("db_load_player_data", start);
         }
         
         return null;
     }
     
+    /**
+     * Асинхронное получение данных игрока
+     */
+    public CompletableFuture<PlayerData> getPlayerDataAsync(UUID uuid) {
+        return supplyAsync(() -> getPlayerData(uuid));
+    }
+    
     /**
      * Очистка старых сессий
      */
     public void cleanupExpiredSessions() {
-        String sql = "DELETE FROM " + tablePrefix + "sessions WHERE expires_date < CURRENT_TIMESTAMP";
+        String sql = "DELETE FROM " + tablePrefix + "sessions WHERE expires_date < ?";
         
-        try (Statement stmt = connection.createStatement()) {
-            int deleted = stmt.executeUpdate(sql);
+        long start = System.nanoTime();
+        try (Connection connection = getWriteConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            setTime(stmt, 1, System.currentTimeMillis());
+            int deleted = stmt.executeUpdate();
             if (deleted > 0) {
                 plugin.getLogger().info("§a[AzureAuth] Очищено " + deleted + " устаревших сессий");
             }
         } catch (SQLException e) {
             plugin.getLogger().severe("§c[AzureAuth] Ошибка при очистке сессий: " + e.getMessage());
+        } finally {
+            metrics.record("db_cleanup_expired_sessions", start);
         }
     }
     
+    /**
+     * Асинхронная очистка старых сессий
+     */
+    public CompletableFuture<Void> cleanupExpiredSessionsAsync() {
+        return runWriteAsync(this::cleanupExpiredSessions);
+    }
+    
     /**
      * Проверка типа базы данных
      */
-    private boolean isMySQL() {
-        return "MYSQL".equalsIgnoreCase(plugin.getConfigManager().getDatabaseType());
+    public boolean isMySQL() {
+        return mysql;
     }
     
     /**
-     * Закрытие соединения с базой данных
+     * Префикс таблиц, с которым была инициализирована БД
+     */
+    public String getTablePrefix() {
+        return tablePrefix;
+    }
+    
+    /**
+     * Закрытие соединений с базой данных
      */
     public void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                plugin.getLogger().info("§a[AzureAuth] Соединение с базой данных закрыто");
-            } catch (SQLException e) {
-                plugin.getLogger().severe("§c[AzureAuth] Ошибка при закрытии соединения: " + e.getMessage());
-            }
+        // Сначала завершаем запросы в очереди (они могут добавить записи в журнал),
+        // затем дописываем журнал и только после этого закрываем соединения.
+        // Чтение завершается раньше записи: по его результату может быть поставлена запись
+        shutdownExecutor(executor);
+        executor = null;
+        shutdownExecutor(writeExecutor);
+        writeExecutor = null;
+        
+        AuditLogWriter writer;
+        synchronized (auditLogLock) {
+            closed = true;
+            writer = auditLogWriter;
+            auditLogWriter = null;
+        }
+        if (writer != null) {
+            writer.close();
+        }
+        
+        closeReadPool();
+        if (pool != null && !pool.isClosed()) {
+            pool.close();
+            plugin.getLogger().info("§a[AzureAuth] Соединение с базой данных закрыто");
         }
     }
     
     /**
-     * Проверка активности соединения
+     * Остановка пула потоков с ожиданием завершения запросов
      */
-    public boolean isConnectionValid() {
+    private void shutdownExecutor(ThreadPoolExecutor target) {
+        if (target == null) {
+            return;
+        }
+        
+        target.shutdown();
         try {
-            return connection != null && !connection.isClosed() && connection.isValid(5);
-        } catch (SQLException e) {
-            return false;
+            if (!target.awaitTermination(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("§e[AzureAuth] Не все запросы к БД завершились до отключения");
+                target.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            target.shutdownNow();
+            Thread.currentThread().interrupt();
         }
     }
     
+    /**
+     * Закрытие пула соединений для чтения SQLite
+     */
+    private void closeReadPool() {
+        if (readPool != null) {
+            readPool.close();
+            readPool = null;
+        }
+    }
+    
+    /**
+     * Проверка, что пул соединений открыт
+     *
+     * Соединение из пула не занимается: метод вызывается в основном потоке,
+     * а единственное соединение записи SQLite может быть занято до таймаута пула.
+     */
+    public boolean isConnectionValid() {
+        return pool != null && !pool.isClosed();
+    }
+    
+    /**
+     * Получение пула соединений (для статистики)
+     */
+    public ConnectionPool getPool() {
+        return pool;
+    }
+    
+    /**
+     * Получение пула соединений для чтения SQLite (для статистики), может быть null
+     */
+    public ConnectionPool getReadPool() {
+        return readPool;
+    }
+    
     /**
      * Переподключение к базе данных
      */
     public void reconnect() {
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+            closeReadPool();
+            if (pool != null) {
+                pool.close();
             }
             initialize();
         } catch (SQLException e) {
@@ -0,0 +1,448 @@
+package net.azuremyst.auth.database;
+
+import net.azuremyst.auth.AzureAuth;
+import net.azuremyst.auth.config.ConfigManager;
+import net.azuremyst.auth.metrics.LabeledCounter;
+import net.azuremyst.auth.models.LogRecord;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Очистка журнала действий по сроку хранения (logging.retention)
+ *
+ * Записи старше max-age-days или сверх max-rows читаются страницами по
+ * возрастанию id, дописываются в архив gzip NDJSON (файл на день по UTC)
+ * и удаляются короткими DELETE по диапазону id, чтобы не блокировать
+ * таблицу надолго. Страница удаляется только после сброса архива на диск,
+ * поэтому при сбое между записью и удалением она попадет в архив повторно.
+ *
+ * Журнал пополняется по возрастанию и id, и времени, поэтому чтение
+ * останавливается на первой записи, которую нужно сохранить.
+ */
+public class LogArchiver {
+    
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE.withZone(ZoneOffset.UTC);
+    
+    private final AzureAuth plugin;
+    private final LabeledCounter rowsCounter;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ScheduledFuture<?> task;
+    private int scheduledInterval;
+    private volatile boolean stopped;
+    private volatile Result lastResult;
+    
+    public LogArchiver(AzureAuth plugin) {
+        this.plugin = plugin;
+        this.rowsCounter = plugin.getMetrics().counter("log_retention_rows_total",
+            "Audit log rows removed by retention", "result");
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "AzureAuth-LogRetention");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Запуск очистки по расписанию
+     * (повторный вызов после перезагрузки применяет новый интервал)
+     */
+    public synchronized void start() {
+        int interval = plugin.getConfigManager().getLogRetentionInterval();
+        if (task != null && interval == scheduledInterval) {
+            return;
+        }
+        
+        // Первая очистка - через минуту после запуска, не замедляя включение сервера
+        long initialDelay = task == null ? 1 : interval;
+        if (task != null) {
+            task.cancel(false);
+        }
+        task = scheduler.scheduleWithFixedDelay(this::runScheduled, initialDelay, interval, TimeUnit.MINUTES);
+        scheduledInterval = interval;
+    }
+    
+    /**
+     * Остановка очистки (текущая страница удаляется до конца)
+     */
+    public void stop() {
+        stopped = true;
+        synchronized (this) {
+            if (task != null) {
+                task.cancel(false);
+                task = null;
+            }
+        }
+        
+        scheduler.shutdownNow();
+        try {
+            if (!scheduler.awaitTermination(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("§e[AzureAuth] Очистка журнала не завершилась до отключения");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Внеочередная очистка в фоновом потоке
+     *
+     * @return итог очистки или null, если очистка уже выполняется
+     */
+    public CompletableFuture<Result> runAsync() {
+        return CompletableFuture.supplyAsync(this::run, scheduler);
+    }
+    
+    public boolean isRunning() {
+        return running.get();
+    }
+    
+    /**
+     * Итог последней очистки, может быть null
+     */
+    public Result getLastResult() {
+        return lastResult;
+    }
+    
+    private void runScheduled() {
+        try {
+            run();
+        } catch (RuntimeException e) {
+            plugin.getLogger().severe("§c[AzureAuth] Ошибка при очистке журнала: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Однократная очистка журнала
+     *
+     * @return итог очистки или null, если очистка уже выполняется
+     */
+    public Result run() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            Result result = purge();
+            lastResult = result;
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    private Result purge() {
+        ConfigManager config = plugin.getConfigManager();
+        DatabaseManager database = plugin.getDatabaseManager();
+        int batchSize = config.getLogRetentionBatchSize();
+        int chunkSize = config.getLogRetentionDeleteChunkSize();
+        long pause = config.getLogRetentionDeletePause();
+        long cutoffMillis = config.getLogRetentionMaxAgeDays() > 0
+                ? System.currentTimeMillis() - TimeUnit.DAYS.toMillis(config.getLogRetentionMaxAgeDays())
+                : Long.MIN_VALUE;
+        
+        ArchiveWriter archive = config.isLogRetentionArchive()
+                ? new ArchiveWriter(new File(plugin.getDataFolder(), config.getLogRetentionArchiveFolder()),
+                    database.getTablePrefix())
+                : null;
+        
+        long startNanos = System.nanoTime();
+        long lastReport = startNanos;
+        long archived = 0;
+        long deleted = 0;
+        boolean failed = false;
+        
+        try {
+            long lastExcessId = config.getLogRetentionMaxRows() > 0
+                    ? database.getLogIdBeyond(config.getLogRetentionMaxRows())
+                    : 0L;
+            long afterId = 0L;
+            
+            while (!stopped) {
+                List<LogRecord> page = database.loadLogsAfter(afterId, batchSize);
+                int expired = 0;
+                while (expired < page.size() && isExpired(page.get(expired), cutoffMillis, lastExcessId)) {
+                    expired++;
+                }
+                if (expired == 0) {
+                    break;
+                }
+                
+                List<LogRecord> batch = page.subList(0, expired);
+                if (archive != null) {
+                    archive.write(batch);
+                    archived += batch.size();
+                    rowsCounter.add("archived", batch.size());
+                }
+                
+                int removed = deleteChunks(database, batch, chunkSize, pause);
+                deleted += removed;
+                rowsCounter.add("deleted", removed);
+                afterId = batch.get(batch.size() - 1).getId();
+                
+                long now = System.nanoTime();
+                if (now - lastReport >= PROGRESS_INTERVAL_NANOS) {
+                    lastReport = now;
+                    plugin.getLogger().info("§a[AzureAuth] Очистка журнала: удалено " + deleted + " записей ("
+                            + formatRate(deleted, now - startNanos) + " записей/с)");
+                }
+                
+                if (expired < page.size() || page.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (SQLException | IOException e) {
+            failed = true;
+            plugin.getLogger().severe("§c[AzureAuth] Ошибка при очистке журнала: " + e.getMessage());
+        } finally {
+            if (archive != null) {
+                try {
+                    archive.close();
+                } catch (IOException e) {
+                    failed = true;
+                    plugin.getLogger().severe("§c[AzureAuth] Ошибка при закрытии архива журнала: " + e.getMessage());
+                }
+            }
+        }
+        
+        long elapsedNanos = System.nanoTime() - startNanos;
+        Result result = new Result(archived, deleted, archive != null ? archive.getFileCount() : 0,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), failed);
+        if (deleted > 0) {
+            plugin.getLogger().info("§a[AzureAuth] Очистка журнала завершена: удалено " + deleted + " записей"
+                    + (archive != null ? ", архивировано " + archived + " в " + result.getFileCount() + " файл(ов)" : "")
+                    + " за " + result.getElapsedMillis() + " мс (" + formatRate(deleted, elapsedNanos) + " записей/с)");
+        }
+        return result;
+    }
+    
+    private static boolean isExpired(LogRecord record, long cutoffMillis, long lastExcessId) {
+        return record.getId() <= lastExcessId || record.getTimestamp() < cutoffMillis;
+    }
+    
+    /**
+     * Удаление страницы частями по chunkSize записей
+     *
+     * Страница - непрерывный диапазон id, поэтому каждая часть удаляется
+     * одним DELETE по диапазону. Пауза между частями пропускает запись новых логов.
+     */
+    private int deleteChunks(DatabaseManager database, List<LogRecord> batch, int chunkSize, long pause)
+            throws SQLException {
+        int removed = 0;
+        boolean interrupted = false;
+        
+        for (int from = 0; from < batch.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, batch.size()) - 1;
+            removed += database.deleteLogRange(batch.get(from).getId(), batch.get(to).getId());
+            
+            if (pause > 0 && to < batch.size() - 1 && !interrupted) {
+                try {
+                    Thread.sleep(pause);
+                } catch (InterruptedException e) {
+                    // Остановка: уже архивированная страница удаляется без пауз
+                    interrupted = true;
+                }
+            }
+        }
+        
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return removed;
+    }
+    
+    private static String formatRate(long rows, long elapsedNanos) {
+        if (elapsedNanos <= 0) {
+            return "0";
+        }
+        return String.valueOf(Math.round(rows * 1_000_000_000.0 / elapsedNanos));
+    }
+    
+    /**
+     * Итог очистки журнала
+     */
+    public static final class Result {
+        private final long archived;
+        private final long deleted;
+        private final int fileCount;
+        private final long elapsedMillis;
+        private final boolean failed;
+        
+        private Result(long archived, long deleted, int fileCount, long elapsedMillis, boolean failed) {
+            this.archived = archived;
+            this.deleted = deleted;
+            this.fileCount = fileCount;
+            this.elapsedMillis = elapsedMillis;
+            this.failed = failed;
+        }
+        
+        public long getArchived() {
+            return archived;
+        }
+        
+        public long getDeleted() {
+            return deleted;
+        }
+        
+        public int getFileCount() {
+            return fileCount;
+        }
+        
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+        
+        /**
+         * Очистка прервана ошибкой (удалена только часть записей)
+         */
+        public boolean isFailed() {
+            return failed;
+        }
+        
+        public long getRowsPerSecond() {
+            return elapsedMillis > 0 ? deleted * 1000 / elapsedMillis : deleted;
+        }
+    }
+    
+    /**
+     * Запись архива: gzip-файл NDJSON на каждый день (UTC)
+     *
+     * Файлы открываются на дозапись; повторная запись в тот же день добавляет
+     * новый gzip-поток в конец файла, что читают gzip/zcat и GZIPInputStream.
+     */
+    private static final class ArchiveWriter {
+        private final File folder;
+        private final String prefix;
+        private final StringBuilder line = new StringBuilder(256);
+        private String day;
+        private FileOutputStream file;
+        private Writer writer;
+        private int fileCount;
+        
+        private ArchiveWriter(File folder, String prefix) {
+            this.folder = folder;
+            this.prefix = prefix;
+        }
+        
+        /**
+         * Запись страницы с принудительным сбросом на диск
+         */
+        private void write(List<LogRecord> records) throws IOException {
+            for (LogRecord record : records) {
+                String recordDay = DAY_FORMAT.format(Instant.ofEpochMilli(record.getTimestamp()));
+                if (!recordDay.equals(day)) {
+                    open(recordDay);
+                }
+                writer.write(toJson(record));
+                writer.write('\n');
+            }
+            sync();
+        }
+        
+        private void open(String newDay) throws IOException {
+            close();
+            if (!folder.isDirectory() && !folder.mkdirs()) {
+                throw new IOException("не удалось создать папку " + folder.getPath());
+            }
+            
+            file = new FileOutputStream(new File(folder, prefix + "logs-" + newDay + ".ndjson.gz"), true);
+            writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(file, 65536, true), StandardCharsets.UTF_8), 65536);
+            day = newDay;
+            fileCount++;
+        }
+        
+        private void sync() throws IOException {
+            if (writer != null) {
+                writer.flush();
+                file.getFD().sync();
+            }
+        }
+        
+        private void close() throws IOException {
+            if (writer == null) {
+                return;
+            }
+            try {
+                sync();
+                writer.close();
+            } finally {
+                writer = null;
+                file = null;
+                day = null;
+            }
+        }
+        
+        private int getFileCount() {
+            return fileCount;
+        }
+        
+        private String toJson(LogRecord record) {
+            line.setLength(0);
+            line.append("{\"id\":").append(record.getId());
+            line.append(",\"timestamp\":\"").append(Instant.ofEpochMilli(record.getTimestamp())).append('"');
+            appendField("uuid", record.getUuid() != null ? record.getUuid().toString() : null);
+            appendField("username", record.getUsername());
+            appendField("action", record.getAction());
+            appendField("ip_address", record.getIpAddress());
+            appendField("details", record.getDetails());
+            return line.append('}').toString();
+        }
+        
+        private void appendField(String name, String value) {
+            line.append(",\"").append(name).append("\":");
+            if (value == null) {
+                line.append("null");
+                return;
+            }
+            
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        line.append("\\\"");
+                        break;
+                    case '\\':
+                        line.append("\\\\");
+                        break;
+                    case '\n':
+                        line.append("\\n");
+                        break;
+                    case '\r':
+                        line.append("\\r");
+                        break;
+                    case '\t':
+                        line.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            line.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            line.append(c);
+                        }
+                        break;
+                }
+            }
+            line.append('"');
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package net.azuremyst.auth.database;
+
+import net.azuremyst.auth.models.PlayerData;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Ограниченный по размеру и времени жизни кэш данных игроков
+ *
+ * Чтение не блокируется. При переполнении кэш вытесняет самую старую запись,
+ * но только если новая запись запрашивалась чаще нее (частота обращений
+ * оценивается приближенно, см. {@link FrequencySketch}) - так редкие входы
+ * не вытесняют данные постоянных игроков.
+ */
+public class PlayerDataCache {
+    
+    private final int maximumSize;
+    private final long expireAfterNanos;
+    private final Map<UUID, Entry> entries;
+    private final ArrayDeque<Entry> insertionOrder;
+    private final FrequencySketch sketch;
+    private final Object writeLock = new Object();
+    
+    /**
+     * Метки текущих загрузок по игрокам: инвалидация снимает метку игрока,
+     * чтобы значение, загруженное до изменения в БД, не попало в кэш.
+     * Загрузки других игроков при этом не отбрасываются
+     */
+    private final Map<UUID, Object> pendingLoads = new ConcurrentHashMap<>();
+    
+    // Статистика
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    
+    public PlayerDataCache(int maximumSize, long expireAfterSeconds) {
+        this.maximumSize = Math.max(1, maximumSize);
+        this.expireAfterNanos = Math.max(1L, expireAfterSeconds) * 1_000_000_000L;
+        this.entries = new ConcurrentHashMap<>(this.maximumSize);
+        this.insertionOrder = new ArrayDeque<>(this.maximumSize);
+        this.sketch = new FrequencySketch(this.maximumSize);
+    }
+    
+    /**
+     * Получение данных из кэша или загрузка через loader
+     *
+     * @param loader загрузка из БД; может вернуть null (значение не кэшируется)
+     */
+    public PlayerData getOrLoad(UUID uuid, Function<UUID, PlayerData> loader) {
+        sketch.increment(uuid);
+        
+        Entry entry = entries.get(uuid);
+        if (entry != null) {
+            if (System.nanoTime() - entry.expiresAt < 0) {
+                hits.increment();
+                return entry.value;
+            }
+            
+            if (entries.remove(uuid, entry)) {
+                expirations.increment();
+            }
+        }
+        
+        misses.increment();
+        Object token = new Object();
+        pendingLoads.put(uuid, token);
+        try {
+            PlayerData value = loader.apply(uuid);
+            if (value != null) {
+                put(uuid, value, token);
+            }
+            return value;
+        } finally {
+            pendingLoads.remove(uuid, token);
+        }
+    }
+    
+    /**
+     * Получение данных только из кэша (без загрузки и учета в статистике)
+     */
+    public PlayerData getIfPresent(UUID uuid) {
+        Entry entry = entries.get(uuid);
+        return entry != null && System.nanoTime() - entry.expiresAt < 0 ? entry.value : null;
+    }
+    
+    private void put(UUID uuid, PlayerData value, Object token) {
+        synchronized (writeLock) {
+            if (!pendingLoads.remove(uuid, token)) {
+                return;
+            }
+            
+            Entry entry = new Entry(uuid, value, System.nanoTime() + expireAfterNanos);
+            Entry previous = entries.put(uuid, entry);
+            insertionOrder.addLast(entry);
+            
+            if (previous == null && entries.size() > maximumSize) {
+                evict(entry);
+            }
+            
+            // Очистка очереди от удаленных записей
+            if (insertionOrder.size() > maximumSize * 2) {
+                insertionOrder.removeIf(queued -> entries.get(queued.uuid) != queued);
+            }
+        }
+    }
+    
+    /**
+     * Вытеснение при переполнении: сравнение частоты новой записи и самой старой
+     */
+    private void evict(Entry candidate) {
+        Entry victim;
+        while ((victim = insertionOrder.peekFirst()) != null) {
+            if (entries.get(victim.uuid) != victim) {
+                insertionOrder.pollFirst();
+                continue;
+            }
+            
+            if (victim == candidate) {
+                return;
+            }
+            
+            if (System.nanoTime() - victim.expiresAt >= 0) {
+                insertionOrder.pollFirst();
+                if (entries.remove(victim.uuid, victim)) {
+                    expirations.increment();
+                }
+                return;
+            }
+            break;
+        }
+        
+        if (victim == null) {
+            return;
+        }
+        
+        if (sketch.frequency(candidate.uuid) > sketch.frequency(victim.uuid)) {
+            insertionOrder.pollFirst();
+            entries.remove(victim.uuid, victim);
+            evictions.increment();
+        } else {
+            // Новая запись используется реже вытесняемой - не допускаем ее в кэш
+            entries.remove(candidate.uuid, candidate);
+            rejections.increment();
+        }
+    }
+    
+    /**
+     * Удаление записи после изменения данных игрока в БД
+     */
+    public void invalidate(UUID uuid) {
+        synchronized (writeLock) {
+            pendingLoads.remove(uuid);
+            entries.remove(uuid);
+        }
+    }
+    
+    /**
+     * Полная очистка кэша
+     */
+    public void invalidateAll() {
+        synchronized (writeLock) {
+            pendingLoads.clear();
+            entries.clear();
+            insertionOrder.clear();
+        }
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+    
+    public long getExpireAfterSeconds() {
+        return expireAfterNanos / 1_000_000_000L;
+    }
+    
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+    
+    public long getExpirationCount() {
+        return expirations.sum();
+    }
+    
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+    
+    /**
+     * Доля попаданий в кэш (0.0 - 1.0)
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+    
+    /**
+     * Запись кэша
+     */
+    private static final class Entry {
+        
+        private final UUID uuid;
+        private final PlayerData value;
+        private final long expiresAt;
+        
+        private Entry(UUID uuid, PlayerData value, long expiresAt) {
+            this.uuid = uuid;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+    
+    /**
+     * Приближенный счетчик частоты обращений (count-min sketch)
+     *
+     * Четыре хеш-функции, счетчики ограничены значением 15. После
+     * 10 * maximumSize обращений все счетчики делятся пополам, чтобы
+     * старая популярность постепенно забывалась. Гонки при увеличении
+     * счетчиков допустимы - оценка и так приближенная.
+     */
+    private static final class FrequencySketch {
+        
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+        
+        private final byte[] counters;
+        private final int mask;
+        private final int resetThreshold;
+        private int additions;
+        
+        private FrequencySketch(int maximumSize) {
+            int width = Integer.highestOneBit(Math.max(16, maximumSize * 4) - 1) << 1;
+            this.counters = new byte[width];
+            this.mask = width - 1;
+            this.resetThreshold = maximumSize * 10;
+        }
+        
+        private void increment(UUID uuid) {
+            int hash = spread(uuid.hashCode());
+            for (int seed : SEEDS) {
+                int index = indexOf(hash, seed);
+                if (counters[index] < MAX_COUNT) {
+                    counters[index]++;
+                }
+            }
+            
+            if (++additions >= resetThreshold) {
+                reset();
+            }
+        }
+        
+        private int frequency(UUID uuid) {
+            int hash = spread(uuid.hashCode());
+            int frequency = MAX_COUNT;
+            for (int seed : SEEDS) {
+                frequency = Math.min(frequency, counters[indexOf(hash, seed)]);
+            }
+            return frequency;
+        }
+        
+        private void reset() {
+            additions = 0;
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] = (byte) (counters[i] >>> 1);
+            }
+        }
+        
+        private int indexOf(int hash, int seed) {
+            int h = hash * seed;
+            h ^= h >>> 17;
+            return h & mask;
+        }
+        
+        private static int spread(int hash) {
+            hash ^= hash >>> 16;
+            hash *= 0x45D9F3B;
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,638 @@
+package net.azuremyst.auth.database;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Версионные миграции схемы БД
+ *
+ * Примененные версии хранятся в таблице {@code <prefix>schema_version}.
+ * Миграции применяются по возрастанию версии, каждая - один раз.
+ * Шаги миграций идемпотентны (CREATE TABLE IF NOT EXISTS, создание индекса
+ * только при его отсутствии): в MySQL DDL не откатывается транзакцией, и
+ * прерванная миграция должна безопасно выполняться повторно.
+ *
+ * Необязательная миграция (компактная схема) применяется только по
+ * настройке; пропущенная, она может быть применена позже, поэтому
+ * учитывается набор примененных версий, а не максимальная.
+ *
+ * Новая миграция добавляется в конец {@link #createMigrations()} со
+ * следующим номером версии; изменять уже выпущенные миграции нельзя.
+ * Миграции после {@link #COMPACT_SCHEMA_VERSION} должны учитывать обе
+ * раскладки таблиц ({@link #isCompactSchema()}).
+ */
+public class SchemaMigrator {
+    
+    /**
+     * Версия необязательной миграции на компактную схему
+     * (UUID - 16 байт, время - миллисекунды эпохи в BIGINT)
+     */
+    public static final int COMPACT_SCHEMA_VERSION = 5;
+    
+    // Строк за один запрос при переносе таблицы в компактную схему
+    private static final int COPY_BATCH_SIZE = 1000;
+    
+    /**
+     * Шаг миграции (выполняется в общей транзакции миграции)
+     */
+    @FunctionalInterface
+    interface Step {
+        void apply(Connection connection) throws SQLException;
+    }
+    
+    /**
+     * Миграция схемы
+     */
+    static final class Migration {
+        private final int version;
+        private final String description;
+        private final boolean optional;
+        private final List<Step> steps;
+        
+        Migration(int version, String description, boolean optional, List<Step> steps) {
+            this.version = version;
+            this.description = description;
+            this.optional = optional;
+            this.steps = steps;
+        }
+    }
+    
+    /**
+     * Тип столбца при переносе в компактную схему
+     */
+    private enum ColumnKind {
+        PLAIN, UUID, NULLABLE_UUID, TIME
+    }
+    
+    private static final class Column {
+        private final String name;
+        private final ColumnKind kind;
+        
+        private Column(String name, ColumnKind kind) {
+            this.name = name;
+            this.kind = kind;
+        }
+    }
+    
+    private final String tablePrefix;
+    private final boolean mysql;
+    private final boolean compactSchemaEnabled;
+    private final Logger logger;
+    private final List<Migration> migrations;
+    private final Set<Integer> appliedVersions = new HashSet<>();
+    
+    /**
+     * @param compactSchemaEnabled применять ли миграцию на компактную схему (database.compact-schema)
+     */
+    public SchemaMigrator(String tablePrefix, boolean mysql, boolean compactSchemaEnabled, Logger logger) {
+        this.tablePrefix = tablePrefix;
+        this.mysql = mysql;
+        this.compactSchemaEnabled = compactSchemaEnabled;
+        this.logger = logger;
+        this.migrations = Collections.unmodifiableList(createMigrations());
+    }
+    
+    /**
+     * Список миграций по возрастанию версии
+     */
+    private List<Migration> createMigrations() {
+        List<Migration> list = new ArrayList<>();
+        
+        list.add(new Migration(1, "Base tables", false, List.of(
+            execute(createUsersTable(tablePrefix + "users", false)),
+            execute(createSessionsTable(tablePrefix + "sessions", false)),
+            execute(createLogsTable(tablePrefix + "logs", false)))));
+        
+        // Проверка сессии, деактивация сессий игрока и очистка устаревших
+        // сессий выполняли полный просмотр таблицы
+        list.add(new Migration(2, "Session indexes", false, List.of(
+            createIndex("sessions", "sessions_uuid_idx", "uuid"),
+            createIndex("sessions", "sessions_expires_idx", "expires_date"))));
+        
+        list.add(new Migration(3, "Log indexes", false, List.of(
+            createIndex("logs", "logs_uuid_idx", "uuid"),
+            createIndex("logs", "logs_timestamp_idx", "timestamp"))));
+        
+        list.add(new Migration(4, "Username index", false, List.of(
+            createIndex("users", "users_username_idx", "username"))));
+        
+        // Таблицы пересоздаются целиком, индексы версий 2-4 строятся заново
+        list.add(new Migration(COMPACT_SCHEMA_VERSION, "Compact storage schema", true, List.of(
+            compactTable("users", this::createUsersTable,
+                new Column("id", ColumnKind.PLAIN), new Column("uuid", ColumnKind.UUID),
+                new Column("username", ColumnKind.PLAIN), new Column("password_hash", ColumnKind.PLAIN),
+                new Column("salt", ColumnKind.PLAIN), new Column("email", ColumnKind.PLAIN),
+                new Column("ip_address", ColumnKind.PLAIN), new Column("registration_date", ColumnKind.TIME),
+                new Column("last_login", ColumnKind.TIME), new Column("is_verified", ColumnKind.PLAIN),
+                new Column("failed_attempts", ColumnKind.PLAIN), new Column("locked_until", ColumnKind.TIME)),
+            createIndex("users", "users_username_idx", "username"),
+            compactTable("sessions", this::createSessionsTable,
+                new Column("id", ColumnKind.PLAIN), new Column("uuid", ColumnKind.UUID),
+                new Column("ip_address", ColumnKind.PLAIN), new Column("session_token", ColumnKind.PLAIN),
+                new Column("created_date", ColumnKind.TIME), new Column("expires_date", ColumnKind.TIME),
+                new Column("is_active", ColumnKind.PLAIN)),
+            createIndex("sessions", "sessions_uuid_idx", "uuid"),
+            createIndex("sessions", "sessions_expires_idx", "expires_date"),
+            compactTable("logs", this::createLogsTable,
+                new Column("id", ColumnKind.PLAIN), new Column("uuid", ColumnKind.NULLABLE_UUID),
+                new Column("username", ColumnKind.PLAIN), new Column("action", ColumnKind.PLAIN),
+                new Column("ip_address", ColumnKind.PLAIN), new Column("details", ColumnKind.PLAIN),
+                new Column("timestamp", ColumnKind.TIME)),
+            createIndex("logs", "logs_uuid_idx", "uuid"),
+            createIndex("logs", "logs_timestamp_idx", "timestamp"))));
+        
+        return list;
+    }
+    
+    /**
+     * Применение всех миграций, которые еще не применены
+     *
+     * @return количество примененных миграций
+     */
+    public int migrate(Connection connection) throws SQLException {
+        createVersionTable(connection);
+        loadAppliedVersions(connection);
+        
+        int current = getCurrentVersion();
+        int latest = getLatestVersion();
+        if (current > latest) {
+            logger.warning("§e[AzureAuth] Версия схемы БД (" + current + ") новее поддерживаемой плагином ("
+                    + latest + "), миграции пропущены");
+            return 0;
+        }
+        
+        int applied = 0;
+        for (Migration migration : migrations) {
+            if (appliedVersions.contains(migration.version)) {
+                continue;
+            }
+            if (migration.optional && !isEnabled(migration)) {
+                continue;
+            }
+            if (mysql && migration.version == COMPACT_SCHEMA_VERSION) {
+                logger.warning("§e[AzureAuth] Перенос таблиц в компактную схему: другие серверы с этой БД "
+                        + "должны быть остановлены, их записи во время переноса будут потеряны");
+            }
+            
+            apply(connection, migration);
+            appliedVersions.add(migration.version);
+            applied++;
+            logger.info("§a[AzureAuth] Миграция схемы БД " + migration.version + ": " + migration.description);
+        }
+        return applied;
+    }
+    
+    private boolean isEnabled(Migration migration) {
+        return migration.version == COMPACT_SCHEMA_VERSION && compactSchemaEnabled;
+    }
+    
+    /**
+     * Применение одной миграции и запись ее версии
+     */
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (Step step : migration.steps) {
+                step.apply(connection);
+            }
+            recordVersion(connection, migration);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new SQLException("Ошибка миграции схемы " + migration.version + " (" + migration.description
+                    + "): " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    
+    private void recordVersion(Connection connection, Migration migration) throws SQLException {
+        String sql = "INSERT INTO " + tablePrefix + "schema_version (version, description) VALUES (?, ?)";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, migration.version);
+            stmt.setString(2, migration.description);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            // Другой сервер с общей БД мог применить ту же миграцию одновременно;
+            // шаги идемпотентны, поэтому достаточно, что версия уже записана
+            if (!isRecorded(connection, migration.version)) {
+                throw e;
+            }
+        }
+    }
+    
+    private boolean isRecorded(Connection connection, int version) throws SQLException {
+        String sql = "SELECT 1 FROM " + tablePrefix + "schema_version WHERE version = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, version);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+    
+    private void createVersionTable(Connection connection) throws SQLException {
+        String sql = "CREATE TABLE IF NOT EXISTS " + tablePrefix + "schema_version (" +
+                "version INTEGER PRIMARY KEY," +
+                "description VARCHAR(100) NOT NULL," +
+                "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                ")";
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+    
+    private void loadAppliedVersions(Connection connection) throws SQLException {
+        appliedVersions.clear();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM " + tablePrefix + "schema_version")) {
+            while (rs.next()) {
+                appliedVersions.add(rs.getInt(1));
+            }
+        }
+    }
+    
+    /**
+     * Наибольшая примененная версия схемы (0 - миграции еще не применялись)
+     */
+    public int getCurrentVersion() {
+        int current = 0;
+        for (int version : appliedVersions) {
+            current = Math.max(current, version);
+        }
+        return current;
+    }
+    
+    /**
+     * Версия схемы после применения всех миграций
+     */
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version;
+    }
+    
+    /**
+     * Таблицы переведены в компактную схему (результат {@link #migrate(Connection)})
+     */
+    public boolean isCompactSchema() {
+        return appliedVersions.contains(COMPACT_SCHEMA_VERSION);
+    }
+    
+    /**
+     * Фактическая раскладка в БД: таблица игроков уже компактная или в нее
+     * идет перенос (существует временная таблица _compact)
+     */
+    public boolean detectCompactLayout(Connection connection) throws SQLException {
+        String users = tablePrefix + "users";
+        return hasBinaryUuid(connection, users) || tableExists(connection, users + "_compact");
+    }
+    
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet rs = metaData.getTables(connection.getCatalog(), null, table, null)) {
+            return rs.next();
+        }
+    }
+    
+    // Шаги миграций
+    
+    private static Step execute(String sql) {
+        return connection -> execute(connection, sql);
+    }
+    
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+    
+    /**
+     * Создание индекса, если индекса с таким именем у таблицы еще нет
+     * (MySQL не поддерживает CREATE INDEX IF NOT EXISTS)
+     */
+    private Step createIndex(String table, String name, String columns) {
+        String tableName = tablePrefix + table;
+        String indexName = tablePrefix + name;
+        return connection -> {
+            if (indexExists(connection, tableName, indexName)) {
+                return;
+            }
+            execute(connection, "CREATE INDEX " + indexName + " ON " + tableName + " (" + columns + ")");
+        };
+    }
+    
+    private static boolean indexExists(Connection connection, String table, String index) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), null, table, false, true)) {
+            while (rs.next()) {
+                if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Перенос таблицы в компактную схему: новая таблица, копирование строк
+     * пакетами по id, замена старой таблицы новой
+     *
+     * В SQLite вся миграция - одна транзакция. В MySQL DDL фиксирует
+     * транзакцию сам, поэтому копия фиксируется после каждого пакета, а
+     * повторный запуск начинает копирование заново или, если таблица уже
+     * заменена, только удаляет остатки.
+     */
+    private Step compactTable(String table, TableDefinition definition, Column... columns) {
+        String tableName = tablePrefix + table;
+        String compactName = tableName + "_compact";
+        String legacyName = tableName + "_legacy";
+        return connection -> {
+            if (hasBinaryUuid(connection, tableName)) {
+                execute(connection, "DROP TABLE IF EXISTS " + compactName);
+                execute(connection, "DROP TABLE IF EXISTS " + legacyName);
+                return;
+            }
+            
+            execute(connection, "DROP TABLE IF EXISTS " + compactName);
+            execute(connection, definition.create(compactName, true));
+            long[] counts = copyRows(connection, tableName, compactName, columns);
+            
+            if (mysql) {
+                execute(connection, "RENAME TABLE " + tableName + " TO " + legacyName + ", "
+                        + compactName + " TO " + tableName);
+                execute(connection, "DROP TABLE " + legacyName);
+            } else {
+                execute(connection, "DROP TABLE " + tableName);
+                execute(connection, "ALTER TABLE " + compactName + " RENAME TO " + tableName);
+            }
+            
+            logger.info("§a[AzureAuth] Таблица " + tableName + " переведена в компактную схему: "
+                    + counts[0] + " строк" + (counts[1] > 0 ? ", пропущено с некорректным UUID: " + counts[1] : ""));
+        };
+    }
+    
+    /**
+     * Копирование строк с преобразованием UUID и времени
+     *
+     * @return {скопировано, пропущено}
+     */
+    private long[] copyRows(Connection connection, String source, String target, Column[] columns) throws SQLException {
+        StringBuilder names = new StringBuilder();
+        StringBuilder placeholders = new StringBuilder();
+        for (Column column : columns) {
+            if (names.length() > 0) {
+                names.append(", ");
+                placeholders.append(", ");
+            }
+            names.append(column.name);
+            placeholders.append('?');
+        }
+        
+        String select = "SELECT " + names + " FROM " + source + " WHERE id > ? ORDER BY id LIMIT " + COPY_BATCH_SIZE;
+        String insert = "INSERT INTO " + target + " (" + names + ") VALUES (" + placeholders + ")";
+        
+        long copied = 0;
+        long skipped = 0;
+        long lastId = 0;
+        try (PreparedStatement selectStmt = connection.prepareStatement(select);
+             PreparedStatement insertStmt = connection.prepareStatement(insert)) {
+            while (true) {
+                selectStmt.setLong(1, lastId);
+                int rows = 0;
+                int batched = 0;
+                try (ResultSet rs = selectStmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                        lastId = rs.getLong("id");
+                        if (bindRow(rs, insertStmt, columns)) {
+                            insertStmt.addBatch();
+                            batched++;
+                        } else {
+                            skipped++;
+                        }
+                    }
+                }
+                
+                if (batched > 0) {
+                    insertStmt.executeBatch();
+                    copied += batched;
+                }
+                if (mysql) {
+                    connection.commit();
+                }
+                if (rows < COPY_BATCH_SIZE) {
+                    break;
+                }
+            }
+        }
+        return new long[] {copied, skipped};
+    }
+    
+    /**
+     * @return false, если строку нельзя перенести (некорректный обязательный UUID)
+     */
+    private boolean bindRow(ResultSet rs, PreparedStatement stmt, Column[] columns) throws SQLException {
+        for (int i = 0; i < columns.length; i++) {
+            Column column = columns[i];
+            int index = i + 1;
+            switch (column.kind) {
+                case UUID:
+                case NULLABLE_UUID:
+                    UUID uuid = parseUuid(rs.getString(column.name));
+                    if (uuid != null) {
+                        stmt.setBytes(index, UuidCodec.toBytes(uuid));
+                    } else if (column.kind == ColumnKind.NULLABLE_UUID) {
+                        stmt.setNull(index, Types.BINARY);
+                    } else {
+                        return false;
+                    }
+                    break;
+                case TIME:
+                    Long millis = readLegacyMillis(rs, column.name, mysql);
+                    if (millis != null) {
+                        stmt.setLong(index, millis);
+                    } else {
+                        stmt.setNull(index, Types.BIGINT);
+                    }
+                    break;
+                default:
+                    stmt.setObject(index, rs.getObject(column.name));
+                    break;
+            }
+        }
+        return true;
+    }
+    
+    private static UUID parseUuid(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value.trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Чтение времени из старой схемы в миллисекундах эпохи
+     *
+     * В SQLite значения, записанные через setTimestamp, хранятся числом
+     * миллисекунд, а значения DEFAULT CURRENT_TIMESTAMP - текстом
+     * "YYYY-MM-DD HH:MM:SS" в UTC.
+     */
+    static Long readLegacyMillis(ResultSet rs, String column, boolean mysql) throws SQLException {
+        if (mysql) {
+            Timestamp timestamp = rs.getTimestamp(column);
+            return timestamp != null ? timestamp.getTime() : null;
+        }
+        
+        Object value = rs.getObject(column);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        
+        String text = value.toString().trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException ignored) {
+            // Не число - текстовая дата
+        }
+        try {
+            return LocalDateTime.parse(text.replace(' ', 'T')).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+    
+    private boolean hasBinaryUuid(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet rs = metaData.getColumns(connection.getCatalog(), null, table, "uuid")) {
+            if (rs.next()) {
+                String type = rs.getString("TYPE_NAME").toUpperCase(Locale.ROOT);
+                return type.contains("BINARY") || type.contains("BLOB");
+            }
+        }
+        return false;
+    }
+    
+    // Определения таблиц
+    
+    /**
+     * Создание таблицы в старой или компактной раскладке
+     */
+    @FunctionalInterface
+    private interface TableDefinition {
+        String create(String tableName, boolean compact);
+    }
+    
+    private String autoIncrement() {
+        return mysql ? "AUTO_INCREMENT" : "AUTOINCREMENT";
+    }
+    
+    private String uuidType() {
+        return mysql ? "BINARY(16)" : "BLOB";
+    }
+    
+    private String createUsersTable(String tableName, boolean compact) {
+        if (compact) {
+            return "CREATE TABLE IF NOT EXISTS " + tableName + " (" +
+                    "id INTEGER PRIMARY KEY " + autoIncrement() + "," +
+                    "uuid " + uuidType() + " UNIQUE NOT NULL," +
+                    "username VARCHAR(16) NOT NULL," +
+                    "password_hash VARCHAR(128) NOT NULL," +
+                    "salt VARCHAR(32) NOT NULL," +
+                    "email VARCHAR(100)," +
+                    "ip_address VARCHAR(45)," +
+                    "registration_date BIGINT," +
+                    "last_login BIGINT," +
+                    "is_verified BOOLEAN DEFAULT FALSE," +
+                    "failed_attempts INTEGER DEFAULT 0," +
+                    "locked_until BIGINT NULL" +
+                    ")";
+        }
+        return "CREATE TABLE IF NOT EXISTS " + tableName + " (" +
+                "id INTEGER PRIMARY KEY " + autoIncrement() + "," +
+                "uuid VARCHAR(36) UNIQUE NOT NULL," +
+                "username VARCHAR(16) NOT NULL," +
+                "password_hash VARCHAR(128) NOT NULL," +
+                "salt VARCHAR(32) NOT NULL," +
+                "email VARCHAR(100)," +
+                "ip_address VARCHAR(45)," +
+                "registration_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                "last_login TIMESTAMP," +
+                "is_verified BOOLEAN DEFAULT FALSE," +
+                "failed_attempts INTEGER DEFAULT 0," +
+                "locked_until TIMESTAMP NULL" +
+                ")";
+    }
+    
+    private String createSessionsTable(String tableName, boolean compact) {
+        if (compact) {
+            return "CREATE TABLE IF NOT EXISTS " + tableName + " (" +
+                    "id INTEGER PRIMARY KEY " + autoIncrement() + "," +
+                    "uuid " + uuidType() + " NOT NULL," +
+                    "ip_address VARCHAR(45) NOT NULL," +
+                    "session_token VARCHAR(64) UNIQUE NOT NULL," +
+                    "created_date BIGINT," +
+                    "expires_date BIGINT NOT NULL," +
+                    "is_active BOOLEAN DEFAULT TRUE" +
+                    ")";
+        }
+        return "CREATE TABLE IF NOT EXISTS " + tableName + " (" +
+                "id INTEGER PRIMARY KEY " + autoIncrement() + "," +
+                "uuid VARCHAR(36) NOT NULL," +
+                "ip_address VARCHAR(45) NOT NULL," +
+                "session_token VARCHAR(64) UNIQUE NOT NULL," +
+                "created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                "expires_date TIMESTAMP NOT NULL," +
+                "is_active BOOLEAN DEFAULT TRUE" +
+                ")";
+    }
+    
+    private String createLogsTable(String tableName, boolean compact) {
+        if (compact) {
+            return "CREATE TABLE IF NOT EXISTS " + tableName + " (" +
+                    "id INTEGER PRIMARY KEY " + autoIncrement() + "," +
+                    "uuid " + uuidType() + "," +
+                    "username VARCHAR(16)," +
+                    "action VARCHAR(50) NOT NULL," +
+                    "ip_address VARCHAR(45)," +
+                    "details TEXT," +
+                    "timestamp BIGINT" +
+                    ")";
+        }
+        return "CREATE TABLE IF NOT EXISTS " + tableName + " (" +
+                "id INTEGER PRIMARY KEY " + autoIncrement() + "," +
+                "uuid VARCHAR(36)," +
+                "username VARCHAR(16)," +
+                "action VARCHAR(50) NOT NULL," +
+                "ip_address VARCHAR(45)," +
+                "details TEXT," +
+                "timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                ")";
+    }
+}
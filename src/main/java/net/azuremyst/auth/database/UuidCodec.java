@@ -0,0 +1,34 @@
+package net.azuremyst.auth.database;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Преобразование UUID в 16 байт для компактной схемы (BINARY(16) / BLOB)
+ *
+ * Порядок байтов - старшие 64 бита, затем младшие (big-endian), как в
+ * строковом представлении, поэтому сортировка байтов совпадает с сортировкой строк.
+ */
+public final class UuidCodec {
+    
+    private UuidCodec() {
+    }
+    
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+    
+    /**
+     * @throws IllegalArgumentException если длина массива не 16 байт
+     */
+    public static UUID fromBytes(byte[] bytes) {
+        if (bytes.length != 16) {
+            throw new IllegalArgumentException("UUID должен занимать 16 байт, получено " + bytes.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -1,39 +1,131 @@
 package net.azuremyst.auth.listeners;
 
 import net.azuremyst.auth.AzureAuth;
+import net.azuremyst.auth.managers.PreLoginCache;
+import net.azuremyst.auth.models.PlayerData;
+import net.azuremyst.auth.models.PreLoginData;
+import net.azuremyst.auth.utils.NotificationThrottler;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.*;
 
+import java.util.UUID;
+
 /**
  * Слушатель событий игроков для авторизации
  */
 public class PlayerListener implements Listener {
     
     private final AzureAuth plugin;
+    private final PreLoginCache preLoginCache;
+    private final NotificationThrottler notificationThrottler;
+    private final RestrictionGuard restrictionGuard;
     
     public PlayerListener(AzureAuth plugin) {
         this.plugin = plugin;
+        this.preLoginCache = new PreLoginCache();
+        this.notificationThrottler = new NotificationThrottler();
+        this.restrictionGuard = new RestrictionGuard(plugin.getAuthManager(), plugin.getConfigManager(),
+            plugin::getCommandAllowlist);
+        applyNotificationCooldowns();
+    }
+    
+    public PreLoginCache getPreLoginCache() {
+        return preLoginCache;
+    }
+    
+    /**
+     * Применение задержек уведомлений (notifications.cooldowns) из текущей конфигурации
+     */
+    public void applyNotificationCooldowns() {
+        notificationThrottler.setCooldowns(
+            plugin.getConfigManager().getMovementNotificationCooldown(),
+            plugin.getConfigManager().getChatNotificationCooldown(),
+            plugin.getConfigManager().getCommandNotificationCooldown());
+    }
+    
+    /**
+     * Предзагрузка состояния авторизации в асинхронном потоке входа,
+     * чтобы обработчик PlayerJoinEvent не обращался к БД
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        
+        UUID uuid = event.getUniqueId();
+        String ipAddress = event.getAddress().getHostAddress();
+        
+        PlayerData playerData = plugin.getDatabaseManager().getPlayerData(uuid);
+        boolean validSession = playerData != null && plugin.getSessionManager().hasValidSession(uuid, ipAddress);
+        
+        preLoginCache.put(new PreLoginData(uuid, ipAddress, playerData, validSession));
+    }
+    
+    /**
+     * Вход отклонен после предзагрузки (бан, белый список, сервер заполнен)
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            preLoginCache.invalidate(event.getPlayer().getUniqueId());
+        }
     }
     
     @EventHandler(priority = EventPriority.LOWEST)
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
+        String ipAddress = player.getAddress().getAddress().getHostAddress();
+        plugin.getAuthManager().trackPlayer(player.getUniqueId());
+        
+        PreLoginData preLoginData = preLoginCache.take(player.getUniqueId(), ipAddress);
+        if (preLoginData != null) {
+            handleJoin(player, preLoginData);
+            return;
+        }
         
+        // Предзагруженных данных нет (например, вход отклонен и разрешен другим плагином) - загружаем асинхронно
+        UUID uuid = player.getUniqueId();
+        plugin.getDatabaseManager().getPlayerDataAsync(uuid)
+                .thenCombine(plugin.getSessionManager().isValidSessionAsync(player),
+                    (playerData, validSession) -> new PreLoginData(uuid, ipAddress, playerData,
+                        playerData != null && validSession))
+                .thenAcceptAsync(data -> {
+                    if (player.isOnline()) {
+                        handleJoin(player, data);
+                    }
+                }, plugin.getMainThreadExecutor())
+                .exceptionally(error -> plugin.handleAsyncError(player, error));
+    }
+    
+    /**
+     * Обработка входа игрока по загруженному состоянию авторизации
+     */
+    private void handleJoin(Player player, PreLoginData data) {
         // Проверка валидной сессии
-        if (plugin.getSessionManager().isValidSession(player)) {
+        if (data.hasValidSession() && !data.isLocked()) {
             plugin.getAuthManager().forceLogin(player);
             plugin.getMessageUtils().sendMessage(player, "session-restored");
             return;
         }
         
+        plugin.getAuthManager().initializeState(player, data);
+        plugin.getAuthManager().startLoginTimeout(player);
+        
         // Проверка регистрации
-        if (plugin.getDatabaseManager().playerExists(player.getUniqueId())) {
-            plugin.getMessageUtils().sendMessage(player, "returning-player");
-        } else {
+        if (!data.isRegistered()) {
             plugin.getMessageUtils().sendMessage(player, "first-join");
+            return;
+        }
+        
+        if (data.isLocked()) {
+            long lockSeconds = data.getPlayerData().getTimeUntilUnlock();
+            plugin.getMessageUtils().sendMessage(player, "too-many-attempts", String.valueOf(lockSeconds));
+        } else {
+            plugin.getMessageUtils().sendMessage(player, "returning-player");
         }
     }
     
@@ -41,17 +133,16 @@ public class PlayerListener implements Listener {
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
         plugin.getAuthManager().cleanupPlayer(player.getUniqueId());
+        notificationThrottler.remove(player.getUniqueId());
     }
     
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onPlayerChat(AsyncPlayerChatEvent event) {
         Player player = event.getPlayer();
         
-        if (!plugin.getAuthManager().isAuthenticated(player)) {
-            if (plugin.getConfigManager().isChatBlocked()) {
-                event.setCancelled(true);
-                plugin.getMessageUtils().sendMessage(player, "chat-blocked");
-            }
+        if (restrictionGuard.blocksChat(player)) {
+            event.setCancelled(true);
+            notify(player, NotificationThrottler.Notification.CHAT_BLOCKED);
         }
     }
     
@@ -59,11 +150,9 @@ public class PlayerListener implements Listener {
     public void onPlayerMove(PlayerMoveEvent event) {
         Player player = event.getPlayer();
         
-        if (!plugin.getAuthManager().isAuthenticated(player)) {
-            if (plugin.getConfigManager().isMovementBlocked()) {
-                event.setCancelled(true);
-                plugin.getMessageUtils().sendMessage(player, "movement-blocked");
-            }
+        if (restrictionGuard.blocksMovement(player, event.getFrom(), event.getTo())) {
+            event.setCancelled(true);
+            notify(player, NotificationThrottler.Notification.MOVEMENT_BLOCKED);
         }
     }
     
@@ -71,35 +160,18 @@ public class PlayerListener implements Listener {
     public void onPlayerCommand(PlayerCommandPreprocessEvent event) {
         Player player = event.getPlayer();
         
-        if (!plugin.getAuthManager().isAuthenticated(player)) {
-            if (plugin.getConfigManager().areCommandsBlocked()) {
-                String command = event.getMessage().split(" ")[0].toLowerCase();
-                
-                // Разрешенные команды
-                if (!isAllowedCommand(command)) {
-                    event.setCancelled(true);
-                    plugin.getMessageUtils().sendMessage(player, "command-blocked");
-                }
-            }
+        if (restrictionGuard.blocksCommand(player, event.getMessage())) {
+            event.setCancelled(true);
+            notify(player, NotificationThrottler.Notification.COMMAND_BLOCKED);
         }
     }
     
     /**
-     * Проверка разрешенных команд
+     * Отправка уведомления об ограничении не чаще заданной задержки
      */
-    private boolean isAllowedCommand(String command) {
-        String[] allowedCommands = {
-            "/login", "/l", "/войти",
-            "/register", "/reg", "/регистрация",
-            "/help", "/?"
-        };
-        
-        for (String allowed : allowedCommands) {
-            if (command.startsWith(allowed)) {
-                return true;
-            }
+    private void notify(Player player, NotificationThrottler.Notification notification) {
+        if (notificationThrottler.tryAcquire(player.getUniqueId(), notification)) {
+            plugin.getMessageUtils().sendMessage(player, notification.getMessageKey());
         }
-        
-        return false;
     }
 }
@@ -0,0 +1,57 @@
+package net.azuremyst.auth.listeners;
+
+import net.azuremyst.auth.config.ConfigManager;
+import net.azuremyst.auth.managers.AuthManager;
+import net.azuremyst.auth.utils.CommandAllowlist;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.function.Supplier;
+
+/**
+ * Проверки ограничений для неавторизованных игроков (движение, чат, команды)
+ *
+ * Вызываются PlayerListener на каждое событие; не зависят от событий Bukkit,
+ * поэтому те же проверки измеряются бенчмарком.
+ */
+public final class RestrictionGuard {
+    
+    private final AuthManager authManager;
+    private final ConfigManager configManager;
+    private final Supplier<CommandAllowlist> commandAllowlist;
+    
+    /**
+     * @param commandAllowlist текущий список разрешенных команд (пересобирается при перезагрузке)
+     */
+    public RestrictionGuard(AuthManager authManager, ConfigManager configManager,
+                            Supplier<CommandAllowlist> commandAllowlist) {
+        this.authManager = authManager;
+        this.configManager = configManager;
+        this.commandAllowlist = commandAllowlist;
+    }
+    
+    /**
+     * Нужно ли отменить перемещение (поворот головы без смещения не блокируется)
+     */
+    public boolean blocksMovement(Player player, Location from, Location to) {
+        if (to == null || (from.getX() == to.getX() && from.getY() == to.getY() && from.getZ() == to.getZ())) {
+            return false;
+        }
+        return !authManager.isAuthenticated(player) && configManager.isMovementBlocked();
+    }
+    
+    /**
+     * Нужно ли отменить сообщение в чат
+     */
+    public boolean blocksChat(Player player) {
+        return !authManager.isAuthenticated(player) && configManager.isChatBlocked();
+    }
+    
+    /**
+     * Нужно ли отменить команду (restrictions.allowed-commands)
+     */
+    public boolean blocksCommand(Player player, String message) {
+        return !authManager.isAuthenticated(player) && configManager.areCommandsBlocked()
+                && !commandAllowlist.get().isAllowed(message);
+    }
+}
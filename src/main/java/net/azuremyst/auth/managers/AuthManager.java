@@ -1,32 +1,95 @@
 package net.azuremyst.auth.managers;
 
 import net.azuremyst.auth.AzureAuth;
+import net.azuremyst.auth.metrics.LabeledCounter;
+import net.azuremyst.auth.models.AuthState;
+import net.azuremyst.auth.models.LoginResult;
+import net.azuremyst.auth.models.PlayerAuthState;
+import net.azuremyst.auth.models.PlayerData;
+import net.azuremyst.auth.models.PreLoginData;
+import net.azuremyst.auth.utils.TimingWheel;
 import org.bukkit.entity.Player;
 
-import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Менеджер авторизации игроков
+ *
+ * Состояние каждого игрока на сервере хранится в {@link PlayerAuthState}:
+ * проверка авторизации не блокируется и безопасна из асинхронных событий.
  */
 public class AuthManager {
     
     private final AzureAuth plugin;
-    private final Map<UUID, Boolean> authenticatedPlayers;
-    private final Map<UUID, String> captchaCodes;
+    private final Map<UUID, PlayerAuthState> states;
+    private final LoginAdmissionController admissionController;
+    private final Map<UUID, TimingWheel.Timeout> loginTimeouts;
+    private final Map<UUID, TimingWheel.Timeout> unlockNotices;
+    private final LabeledCounter loginCounter;
+    private final LabeledCounter registrationCounter;
     
     public AuthManager(AzureAuth plugin) {
         this.plugin = plugin;
-        this.authenticatedPlayers = new HashMap<>();
-        this.captchaCodes = new HashMap<>();
+        this.states = new ConcurrentHashMap<>();
+        this.admissionController = new LoginAdmissionController(plugin);
+        this.loginTimeouts = new ConcurrentHashMap<>();
+        this.unlockNotices = new ConcurrentHashMap<>();
+        this.loginCounter = plugin.getMetrics().counter("logins_total", "Login attempts by result", "result");
+        this.registrationCounter = plugin.getMetrics().counter("registrations_total", "Registrations by result", "result");
+        this.admissionController.start();
     }
     
     /**
      * Проверка авторизации игрока
      */
     public boolean isAuthenticated(Player player) {
-        return authenticatedPlayers.getOrDefault(player.getUniqueId(), false);
+        PlayerAuthState state = states.get(player.getUniqueId());
+        return state != null && state.isAuthenticated();
+    }
+    
+    /**
+     * Текущее состояние авторизации игрока
+     */
+    public AuthState getState(UUID uuid) {
+        PlayerAuthState state = states.get(uuid);
+        return state != null ? state.getState() : AuthState.UNKNOWN;
+    }
+    
+    /**
+     * Регистрация игрока при входе на сервер (данные авторизации еще не загружены)
+     */
+    public void trackPlayer(UUID uuid) {
+        states.put(uuid, new PlayerAuthState(AuthState.UNKNOWN));
+    }
+    
+    /**
+     * Установка состояния по загруженным при входе данным
+     *
+     * Состояние меняется, только если игрок еще не успел авторизоваться
+     * (при асинхронной загрузке данные могут прийти после /login).
+     */
+    public void initializeState(Player player, PreLoginData data) {
+        PlayerAuthState state = states.computeIfAbsent(player.getUniqueId(),
+            uuid -> new PlayerAuthState(AuthState.UNKNOWN));
+        
+        if (!data.isRegistered()) {
+            state.transition(AuthState.UNKNOWN, AuthState.UNREGISTERED);
+            return;
+        }
+        
+        PlayerData playerData = data.getPlayerData();
+        if (data.isLocked()) {
+            if (state.getState() == AuthState.UNKNOWN) {
+                state.lock(playerData.getLockedUntil().getTime());
+                scheduleUnlockNotice(player, state);
+            }
+        } else if (state.transition(AuthState.UNKNOWN, AuthState.PENDING_LOGIN)) {
+            state.setFailedAttempts(playerData.getFailedAttempts());
+        }
     }
     
     /**
@@ -35,27 +98,92 @@ public class AuthManager {
     public void attemptLogin(Player player, String password) {
         UUID uuid = player.getUniqueId();
         
-        // Проверка существования игрока в БД
-        if (!plugin.getDatabaseManager().playerExists(uuid)) {
-            plugin.getMessageUtils().sendMessage(player, "registration-required");
-            return;
+        // Блокировка известна без обращения к БД
+        PlayerAuthState state = states.get(uuid);
+        if (state != null && state.getState() == AuthState.LOCKED) {
+            long now = System.currentTimeMillis();
+            if (!state.unlockIfExpired(now)) {
+                long lockSeconds = (state.getLockedUntil() - now + 999) / 1000;
+                plugin.getMessageUtils().sendMessage(player, "too-many-attempts", String.valueOf(lockSeconds));
+                return;
+            }
         }
         
-        // Проверка пароля
-        if (plugin.getDatabaseManager().checkPassword(uuid, password)) {
-            // Успешный вход
-            authenticatedPlayers.put(uuid, true);
-            plugin.getDatabaseManager().updateLastLogin(uuid, 
-                player.getAddress().getAddress().getHostAddress());
-            plugin.getMessageUtils().sendMessage(player, "login-success");
-        } else {
-            // Неверный пароль
-            plugin.getDatabaseManager().incrementFailedAttempts(uuid);
-            int attempts = plugin.getDatabaseManager().getFailedAttempts(uuid);
-            int maxAttempts = plugin.getConfigManager().getMaxLoginAttempts();
-            
-            plugin.getMessageUtils().sendMessage(player, "wrong-password", 
-                String.valueOf(maxAttempts - attempts));
+        String ipAddress = player.getAddress().getAddress().getHostAddress();
+        int maxAttempts = plugin.getConfigManager().getMaxLoginAttempts();
+        long lockDuration = plugin.getConfigManager().getBruteForceProtectionTime() * 1000L;
+        
+        // Проверка пароля через очередь допуска: при массовом входе проверки
+        // не занимают больше max-concurrent потоков хеширования одновременно.
+        // Слот освобождается по завершении проверки, не дожидаясь тика сервера
+        LoginAdmissionController.Admission admission = admissionController.submit(player, () -> {
+            CompletableFuture<LoginResult> verification =
+                    plugin.getDatabaseManager().verifyLoginAsync(uuid, password, ipAddress, maxAttempts, lockDuration);
+            verification
+                    .thenAcceptAsync(result -> handleLoginResult(player, result), plugin.getMainThreadExecutor())
+                    .exceptionally(error -> plugin.handleAsyncError(player, error));
+            return verification;
+        });
+        
+        switch (admission) {
+            case QUEUED:
+                plugin.getMessageUtils().sendMessage(player, "login-queued",
+                    String.valueOf(admissionController.getQueueSize()));
+                break;
+            case DUPLICATE:
+                plugin.getMessageUtils().sendMessage(player, "login-in-progress");
+                break;
+            case QUEUE_FULL:
+                loginCounter.increment("rejected");
+                plugin.getMessageUtils().sendMessage(player, "login-queue-full");
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Обработка результата попытки входа
+     */
+    private void handleLoginResult(Player player, LoginResult result) {
+        // Игрок мог выйти, пока проверялся пароль
+        PlayerAuthState state = states.get(player.getUniqueId());
+        loginCounter.increment(result.getStatus().name().toLowerCase(Locale.ROOT));
+        
+        switch (result.getStatus()) {
+            case SUCCESS:
+                // Успешный вход
+                if (player.isOnline() && state != null) {
+                    state.authenticate();
+                    cancelTimers(player.getUniqueId());
+                    plugin.getMessageUtils().sendMessage(player, "login-success");
+                    createSessionIfEnabled(player);
+                }
+                break;
+            case WRONG_PASSWORD:
+                if (state != null) {
+                    state.recordFailure();
+                }
+                plugin.getMessageUtils().sendMessage(player, "wrong-password",
+                    String.valueOf(result.getRemainingAttempts()));
+                break;
+            case LOCKED:
+                plugin.getMessageUtils().sendMessage(player, "too-many-attempts",
+                    String.valueOf(result.getLockSeconds()));
+                if (state != null) {
+                    state.lock(System.currentTimeMillis() + result.getLockSeconds() * 1000L);
+                    scheduleUnlockNotice(player, state);
+                }
+                break;
+            case NOT_REGISTERED:
+                if (state != null) {
+                    state.setState(AuthState.UNREGISTERED);
+                }
+                plugin.getMessageUtils().sendMessage(player, "registration-required");
+                break;
+            default:
+                plugin.getMessageUtils().sendMessage(player, "system-error");
+                break;
         }
     }
     
@@ -67,11 +195,30 @@ public class AuthManager {
         String username = player.getName();
         String ipAddress = player.getAddress().getAddress().getHostAddress();
         
-        if (plugin.getDatabaseManager().registerPlayer(uuid, username, password, ipAddress)) {
-            authenticatedPlayers.put(uuid, true);
-            plugin.getMessageUtils().sendMessage(player, "registration-success");
-        } else {
-            plugin.getMessageUtils().sendMessage(player, "registration-failed");
+        plugin.getDatabaseManager().registerPlayerAsync(uuid, username, password, ipAddress)
+                .thenAcceptAsync(registered -> {
+                    registrationCounter.increment(registered ? "success" : "failure");
+                    if (registered) {
+                        PlayerAuthState state = states.get(uuid);
+                        if (player.isOnline() && state != null) {
+                            state.authenticate();
+                            cancelTimers(uuid);
+                            createSessionIfEnabled(player);
+                        }
+                        plugin.getMessageUtils().sendMessage(player, "registration-success");
+                    } else {
+                        plugin.getMessageUtils().sendMessage(player, "registration-failed");
+                    }
+                }, plugin.getMainThreadExecutor())
+                .exceptionally(error -> plugin.handleAsyncError(player, error));
+    }
+    
+    /**
+     * Создание сессии после входа (auth.sessions.auto-create)
+     */
+    private void createSessionIfEnabled(Player player) {
+        if (plugin.getConfigManager().isSessionAutoCreate()) {
+            plugin.getSessionManager().createSession(player);
         }
     }
     
@@ -79,29 +226,126 @@ public class AuthManager {
      * Выход из системы
      */
     public void logout(Player player) {
-        authenticatedPlayers.remove(player.getUniqueId());
-        plugin.getDatabaseManager().deactivateAllSessions(player.getUniqueId());
+        PlayerAuthState state = states.get(player.getUniqueId());
+        if (state != null) {
+            state.transition(AuthState.AUTHENTICATED, AuthState.PENDING_LOGIN);
+        }
+        plugin.getSessionManager().deactivateSession(player.getUniqueId());
     }
     
     /**
      * Принудительная авторизация (для админов)
      */
     public void forceLogin(Player player) {
-        authenticatedPlayers.put(player.getUniqueId(), true);
+        states.computeIfAbsent(player.getUniqueId(), uuid -> new PlayerAuthState(AuthState.UNKNOWN)).authenticate();
+        cancelTimers(player.getUniqueId());
+    }
+    
+    /**
+     * Запуск таймера авторизации: игрок, не вошедший за auth.login-timeout, отключается
+     */
+    public void startLoginTimeout(Player player) {
+        int timeoutSeconds = plugin.getConfigManager().getLoginTimeout();
+        if (timeoutSeconds <= 0) {
+            return;
+        }
+        
+        UUID uuid = player.getUniqueId();
+        TimingWheel.Timeout timeout = plugin.getTimingWheel().schedule(() -> {
+            loginTimeouts.remove(uuid);
+            if (player.isOnline() && !isAuthenticated(player)) {
+                player.kickPlayer(plugin.getMessageUtils().getMessage("login-timeout"));
+            }
+        }, timeoutSeconds * 1000L);
+        
+        replaceTimer(loginTimeouts, uuid, timeout);
+    }
+    
+    /**
+     * Снятие блокировки и уведомление игрока в момент окончания блокировки
+     * (в БД блокировка снимается по времени locked_until без записи)
+     */
+    private void scheduleUnlockNotice(Player player, PlayerAuthState state) {
+        UUID uuid = player.getUniqueId();
+        TimingWheel.Timeout timeout = plugin.getTimingWheel().scheduleAt(() -> {
+            unlockNotices.remove(uuid);
+            if (state.unlockIfExpired(System.currentTimeMillis()) && player.isOnline()) {
+                plugin.getMessageUtils().sendMessage(player, "account-unlocked");
+            }
+        }, state.getLockedUntil());
+        
+        replaceTimer(unlockNotices, uuid, timeout);
+    }
+    
+    private static void replaceTimer(Map<UUID, TimingWheel.Timeout> timers, UUID uuid, TimingWheel.Timeout timeout) {
+        TimingWheel.Timeout previous = timers.put(uuid, timeout);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+    
+    /**
+     * Отмена таймеров авторизации игрока
+     */
+    private void cancelTimers(UUID uuid) {
+        TimingWheel.Timeout loginTimeout = loginTimeouts.remove(uuid);
+        if (loginTimeout != null) {
+            loginTimeout.cancel();
+        }
+        
+        TimingWheel.Timeout unlockNotice = unlockNotices.remove(uuid);
+        if (unlockNotice != null) {
+            unlockNotice.cancel();
+        }
     }
     
     /**
      * Получить количество авторизованных игроков
      */
     public int getAuthenticatedCount() {
-        return authenticatedPlayers.size();
+        int count = 0;
+        for (PlayerAuthState state : states.values()) {
+            if (state.isAuthenticated()) {
+                count++;
+            }
+        }
+        return count;
     }
     
     /**
      * Очистка данных при выходе игрока
      */
     public void cleanupPlayer(UUID uuid) {
-        authenticatedPlayers.remove(uuid);
-        captchaCodes.remove(uuid);
+        states.remove(uuid);
+        admissionController.cancel(uuid);
+        cancelTimers(uuid);
+    }
+    
+    /**
+     * Получение контроллера очереди входа (для статистики)
+     */
+    public LoginAdmissionController getAdmissionController() {
+        return admissionController;
+    }
+    
+    /**
+     * Счётчик попыток входа по результату (для статистики)
+     */
+    public LabeledCounter getLoginCounter() {
+        return loginCounter;
+    }
+    
+    /**
+     * Счётчик регистраций по результату (для статистики)
+     */
+    public LabeledCounter getRegistrationCounter() {
+        return registrationCounter;
+    }
+    
+    /**
+     * Остановка очереди входа
+     */
+    public void shutdown() {
+        admissionController.shutdown();
     }
 }
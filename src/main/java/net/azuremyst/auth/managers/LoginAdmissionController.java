@@ -0,0 +1,287 @@
+package net.azuremyst.auth.managers;
+
+import net.azuremyst.auth.AzureAuth;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Контроль допуска попыток входа к проверке пароля
+ *
+ * Одновременно выполняется не больше max-concurrent проверок, остальные ждут
+ * в очереди в порядке поступления и раз в секунду видят свою позицию в
+ * Action Bar. Повторная попытка игрока, у которого проверка уже в очереди
+ * или выполняется, отклоняется сразу.
+ */
+public class LoginAdmissionController {
+    
+    /**
+     * Результат постановки попытки входа
+     */
+    public enum Admission {
+        /** Проверка запущена сразу */
+        STARTED,
+        /** Попытка поставлена в очередь */
+        QUEUED,
+        /** У игрока уже есть попытка в очереди или в работе */
+        DUPLICATE,
+        /** Очередь переполнена */
+        QUEUE_FULL
+    }
+    
+    private final AzureAuth plugin;
+    private final int maxConcurrent;
+    private final int maxQueueSize;
+    
+    private final Object lock = new Object();
+    private final ArrayDeque<PendingAttempt> queue = new ArrayDeque<>();
+    private final Set<UUID> activePlayers = new HashSet<>();
+    private int inFlight;
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private BukkitTask positionTask;
+    
+    // Статистика
+    private final LongAdder started = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicInteger peakQueueSize = new AtomicInteger();
+    
+    public LoginAdmissionController(AzureAuth plugin) {
+        this.plugin = plugin;
+        
+        int concurrent = plugin.getConfigManager().getLoginMaxConcurrent();
+        if (concurrent <= 0) {
+            concurrent = plugin.getPasswordHashingService().getThreads();
+        }
+        this.maxConcurrent = Math.max(1, concurrent);
+        this.maxQueueSize = Math.max(0, plugin.getConfigManager().getLoginMaxQueueSize());
+    }
+    
+    /**
+     * Запуск рассылки позиций в очереди (раз в секунду)
+     */
+    public void start() {
+        if (positionTask == null) {
+            positionTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::sendQueuePositions, 20L, 20L);
+        }
+    }
+    
+    /**
+     * Постановка попытки входа
+     *
+     * @param attempt запуск проверки; слот освобождается, когда возвращенный future завершится.
+     *                Может быть вызван не в основном потоке сервера.
+     */
+    public Admission submit(Player player, Supplier<CompletableFuture<?>> attempt) {
+        UUID uuid = player.getUniqueId();
+        PendingAttempt pending = new PendingAttempt(uuid, player, attempt);
+        
+        synchronized (lock) {
+            if (activePlayers.contains(uuid)) {
+                duplicates.increment();
+                return Admission.DUPLICATE;
+            }
+            
+            if (inFlight >= maxConcurrent && queue.size() >= maxQueueSize) {
+                rejected.increment();
+                return Admission.QUEUE_FULL;
+            }
+            
+            activePlayers.add(uuid);
+            queue.addLast(pending);
+            peakQueueSize.accumulateAndGet(queue.size(), Math::max);
+        }
+        
+        drain();
+        
+        // Попытку мог запустить и другой поток, выполняющий drain()
+        synchronized (lock) {
+            return pending.started ? Admission.STARTED : Admission.QUEUED;
+        }
+    }
+    
+    /**
+     * Удаление ожидающей попытки игрока (при выходе с сервера)
+     */
+    public void cancel(UUID uuid) {
+        synchronized (lock) {
+            if (queue.removeIf(pending -> pending.uuid.equals(uuid))) {
+                activePlayers.remove(uuid);
+            }
+        }
+    }
+    
+    /**
+     * Запуск ожидающих попыток, пока есть свободные слоты
+     *
+     * Попытка может завершиться сразу (например, при отказе пула) и вызвать
+     * drain() повторно из finish(); счетчик запросов не дает уйти в рекурсию.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        
+        int missed = 1;
+        while (true) {
+            while (true) {
+                PendingAttempt next;
+                synchronized (lock) {
+                    if (inFlight >= maxConcurrent || queue.isEmpty()) {
+                        break;
+                    }
+                    next = queue.pollFirst();
+                    next.started = true;
+                    inFlight++;
+                }
+                run(next);
+            }
+            
+            missed = drainRequests.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+    
+    private void run(PendingAttempt pending) {
+        long waited = System.nanoTime() - pending.enqueuedAt;
+        started.increment();
+        waitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        
+        CompletableFuture<?> future;
+        try {
+            future = pending.attempt.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((result, error) -> finish(pending));
+    }
+    
+    private void finish(PendingAttempt pending) {
+        synchronized (lock) {
+            activePlayers.remove(pending.uuid);
+            inFlight--;
+        }
+        drain();
+    }
+    
+    /**
+     * Отправка позиции в очереди ожидающим игрокам (основной поток)
+     */
+    private void sendQueuePositions() {
+        List<PendingAttempt> snapshot;
+        synchronized (lock) {
+            if (queue.isEmpty()) {
+                return;
+            }
+            snapshot = new ArrayList<>(queue);
+        }
+        
+        String total = String.valueOf(snapshot.size());
+        for (int i = 0; i < snapshot.size(); i++) {
+            Player player = snapshot.get(i).player;
+            if (player.isOnline()) {
+                plugin.getMessageUtils().sendActionBar(player, "actionbar-login-queue", String.valueOf(i + 1), total);
+            }
+        }
+    }
+    
+    /**
+     * Остановка: ожидающие попытки отбрасываются
+     */
+    public void shutdown() {
+        if (positionTask != null) {
+            positionTask.cancel();
+            positionTask = null;
+        }
+        
+        synchronized (lock) {
+            for (PendingAttempt pending : queue) {
+                activePlayers.remove(pending.uuid);
+            }
+            queue.clear();
+        }
+    }
+    
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+    
+    public int getInFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+    
+    public int getQueueSize() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+    
+    public int getPeakQueueSize() {
+        return peakQueueSize.get();
+    }
+    
+    public long getStartedCount() {
+        return started.sum();
+    }
+    
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+    
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+    
+    /**
+     * Среднее время ожидания в очереди в миллисекундах
+     */
+    public double getAverageWaitMillis() {
+        long count = started.sum();
+        return count == 0 ? 0.0 : waitNanos.sum() / (double) count / 1_000_000.0;
+    }
+    
+    /**
+     * Максимальное время ожидания в очереди в миллисекундах
+     */
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+    
+    /**
+     * Попытка входа, ожидающая проверки
+     */
+    private static final class PendingAttempt {
+        
+        private final UUID uuid;
+        private final Player player;
+        private final Supplier<CompletableFuture<?>> attempt;
+        private final long enqueuedAt;
+        // Меняется и читается только под lock
+        private boolean started;
+        
+        private PendingAttempt(UUID uuid, Player player, Supplier<CompletableFuture<?>> attempt) {
+            this.uuid = uuid;
+            this.player = player;
+            this.attempt = attempt;
+            this.enqueuedAt = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package net.azuremyst.auth.managers;
+
+import net.azuremyst.auth.models.PreLoginData;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кратковременный кэш для передачи состояния авторизации
+ * из AsyncPlayerPreLoginEvent в PlayerJoinEvent
+ *
+ * Устаревшие записи удаляются периодической задачей (removeExpired),
+ * а не при каждом сохранении: при массовом входе put() не обходит весь кэш.
+ */
+public class PreLoginCache {
+    
+    /**
+     * Время жизни записи: если игрок не зашел за это время, данные считаются устаревшими
+     */
+    private static final long ENTRY_TTL_MILLIS = 30_000L;
+    
+    private final Map<UUID, PreLoginData> entries;
+    
+    public PreLoginCache() {
+        this.entries = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * Сохранение предзагруженных данных
+     */
+    public void put(PreLoginData data) {
+        entries.put(data.getUuid(), data);
+    }
+    
+    /**
+     * Извлечение данных при входе игрока (запись удаляется из кэша)
+     *
+     * @return данные или null, если их нет, они устарели или получены для другого IP
+     */
+    public PreLoginData take(UUID uuid, String ipAddress) {
+        PreLoginData data = entries.remove(uuid);
+        if (data == null || isExpired(data, System.currentTimeMillis())) {
+            return null;
+        }
+        
+        return data.getIpAddress().equals(ipAddress) ? data : null;
+    }
+    
+    /**
+     * Удаление данных, если вход был отклонен после предзагрузки (PlayerLoginEvent)
+     */
+    public void invalidate(UUID uuid) {
+        entries.remove(uuid);
+    }
+    
+    /**
+     * Удаление устаревших записей (игрок не зашел за время жизни записи)
+     */
+    public void removeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(data -> isExpired(data, now));
+    }
+    
+    private boolean isExpired(PreLoginData data, long now) {
+        return now - data.getLoadedAt() > ENTRY_TTL_MILLIS;
+    }
+}
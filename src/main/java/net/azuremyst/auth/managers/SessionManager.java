@@ -1,24 +1,87 @@
 package net.azuremyst.auth.managers;
 
 import net.azuremyst.auth.AzureAuth;
+import net.azuremyst.auth.metrics.MetricsRegistry;
+import net.azuremyst.auth.models.SessionData;
 import net.azuremyst.auth.utils.PasswordUtils;
+import net.azuremyst.auth.utils.TimingWheel;
 import org.bukkit.entity.Player;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Менеджер сессий игроков
+ *
+ * Активные сессии из таблицы sessions загружаются при запуске в индекс
+ * UUID -> IP -> сессия, поэтому проверка сессии при входе не обращается к БД.
+ * Создание и деактивация сессий сначала меняют индекс, затем таблицу.
+ * Истекшие сессии удаляются из индекса таймером (см. {@link TimingWheel}).
  */
 public class SessionManager {
     
     private final AzureAuth plugin;
-    private final Map<UUID, String> activeSessions;
+    private final MetricsRegistry metrics;
+    private final Map<UUID, Map<String, IndexedSession>> activeSessions;
     
     public SessionManager(AzureAuth plugin) {
         this.plugin = plugin;
-        this.activeSessions = new HashMap<>();
+        this.metrics = plugin.getMetrics();
+        this.activeSessions = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * Загрузка активных сессий из БД (при запуске плагина)
+     */
+    public void loadSessions() {
+        clearIndex();
+        if (!plugin.getConfigManager().isSessionEnabled()) {
+            return;
+        }
+        
+        List<SessionData> sessions = plugin.getDatabaseManager().loadActiveSessions();
+        for (SessionData session : sessions) {
+            index(session);
+        }
+        
+        plugin.getLogger().info("§a[AzureAuth] Загружено активных сессий: " + sessions.size());
+    }
+    
+    /**
+     * Добавление сессии в индекс (остается сессия с наибольшим сроком действия)
+     */
+    private void index(SessionData session) {
+        IndexedSession entry = new IndexedSession(session);
+        activeSessions.compute(session.getUuid(), (uuid, sessions) -> {
+            if (sessions == null) {
+                sessions = new ConcurrentHashMap<>();
+            }
+            
+            IndexedSession current = sessions.get(session.getIpAddress());
+            if (current != null) {
+                if (current.data.getExpiresAt() > session.getExpiresAt()) {
+                    return sessions;
+                }
+                current.expiry.cancel();
+            }
+            
+            entry.expiry = plugin.getTimingWheel().scheduleAt(() -> evict(entry), session.getExpiresAt());
+            sessions.put(session.getIpAddress(), entry);
+            return sessions;
+        });
+    }
+    
+    /**
+     * Удаление истекшей сессии из индекса
+     */
+    private void evict(IndexedSession entry) {
+        activeSessions.computeIfPresent(entry.data.getUuid(), (uuid, sessions) -> {
+            sessions.remove(entry.data.getIpAddress(), entry);
+            return sessions.isEmpty() ? null : sessions;
+        });
     }
     
     /**
@@ -36,42 +99,90 @@ public class SessionManager {
         long duration = plugin.getConfigManager().getSessionDuration() * 1000L;
         long expirationTime = System.currentTimeMillis() + duration;
         
-        plugin.getDatabaseManager().saveSession(uuid, ipAddress, sessionToken, expirationTime);
-        activeSessions.put(uuid, sessionToken);
+        index(new SessionData(uuid, ipAddress, sessionToken, expirationTime));
+        plugin.getDatabaseManager().saveSessionAsync(uuid, ipAddress, sessionToken, expirationTime)
+                .exceptionally(error -> plugin.handleAsyncError(null, error));
     }
     
     /**
-     * Проверка валидности сессии
+     * Проверка валидности сессии по UUID и IP-адресу (без обращения к БД)
      */
-    public boolean isValidSession(Player player) {
+    public boolean hasValidSession(UUID uuid, String ipAddress) {
         if (!plugin.getConfigManager().isSessionEnabled()) {
             return false;
         }
         
-        UUID uuid = player.getUniqueId();
+        long start = System.nanoTime();
+        try {
+            Map<String, IndexedSession> sessions = activeSessions.get(uuid);
+            if (sessions == null) {
+                return false;
+            }
+            
+            // Таймер удаляет сессию с точностью до шага колеса, поэтому срок проверяется и здесь
+            IndexedSession session = sessions.get(ipAddress);
+            return session != null && !session.data.isExpired(System.currentTimeMillis());
+        } finally {
+            metrics.record("session_check", start);
+        }
+    }
+    
+    /**
+     * Асинхронная проверка валидности сессии
+     * (ответ из индекса, future уже завершен)
+     */
+    public CompletableFuture<Boolean> isValidSessionAsync(Player player) {
         String ipAddress = player.getAddress().getAddress().getHostAddress();
-        String sessionToken = activeSessions.get(uuid);
-        
-        if (sessionToken == null) {
-            return false;
+        return CompletableFuture.completedFuture(hasValidSession(player.getUniqueId(), ipAddress));
+    }
+    
+    /**
+     * Деактивация всех сессий игрока
+     */
+    public CompletableFuture<Void> deactivateSession(UUID uuid) {
+        Map<String, IndexedSession> sessions = activeSessions.remove(uuid);
+        if (sessions != null) {
+            sessions.values().forEach(session -> session.expiry.cancel());
         }
-        
-        return plugin.getDatabaseManager().isValidSession(uuid, ipAddress, sessionToken);
+        return plugin.getDatabaseManager().deactivateAllSessionsAsync(uuid)
+                .exceptionally(error -> plugin.handleAsyncError(null, error));
     }
     
     /**
-     * Деактивация сессии
+     * Количество игроков с активными сессиями
      */
-    public void deactivateSession(UUID uuid) {
-        activeSessions.remove(uuid);
-        plugin.getDatabaseManager().deactivateAllSessions(uuid);
+    public int getSessionCount() {
+        return activeSessions.size();
     }
     
     /**
      * Сохранение всех активных сессий
      */
     public void saveAllSessions() {
-        // Сессии автоматически сохраняются в базе данных
-        activeSessions.clear();
+        // Сессии записываются в базу данных при создании и будут загружены
+        // из нее при следующем запуске, здесь освобождается только индекс
+        clearIndex();
+    }
+    
+    private void clearIndex() {
+        for (UUID uuid : activeSessions.keySet()) {
+            Map<String, IndexedSession> sessions = activeSessions.remove(uuid);
+            if (sessions != null) {
+                sessions.values().forEach(session -> session.expiry.cancel());
+            }
+        }
+    }
+    
+    /**
+     * Сессия в индексе и таймер ее удаления
+     */
+    private static final class IndexedSession {
+        
+        private final SessionData data;
+        private TimingWheel.Timeout expiry;
+        
+        private IndexedSession(SessionData data) {
+            this.data = data;
+        }
     }
 }
@@ -0,0 +1,57 @@
+package net.azuremyst.auth.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчик с одной меткой (например, результат входа)
+ */
+public class LabeledCounter {
+    
+    private final String name;
+    private final String help;
+    private final String label;
+    private final ConcurrentHashMap<String, LongAdder> values = new ConcurrentHashMap<>();
+    
+    LabeledCounter(String name, String help, String label) {
+        this.name = name;
+        this.help = help;
+        this.label = label;
+    }
+    
+    public void increment(String value) {
+        values.computeIfAbsent(value, key -> new LongAdder()).increment();
+    }
+    
+    public void add(String value, long amount) {
+        values.computeIfAbsent(value, key -> new LongAdder()).add(amount);
+    }
+    
+    public long get(String value) {
+        LongAdder adder = values.get(value);
+        return adder != null ? adder.sum() : 0;
+    }
+    
+    /**
+     * Текущие значения, отсортированные по метке
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        values.forEach((key, adder) -> snapshot.put(key, adder.sum()));
+        return snapshot;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getHelp() {
+        return help;
+    }
+    
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,119 @@
+package net.azuremyst.auth.metrics;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма длительности операции с фиксированными корзинами
+ *
+ * Корзины от 1 мкс до 10 с покрывают и проверки в памяти, и запросы к БД,
+ * и хеширование паролей. Запись - поиск корзины и два LongAdder без
+ * блокировок, поэтому гистограмму можно обновлять из любого потока.
+ */
+public class LatencyHistogram {
+    
+    // Верхние границы корзин (включительно) в наносекундах
+    private static final long[] BOUNDS = {
+        1_000L, 5_000L, 10_000L, 50_000L, 100_000L, 500_000L,
+        1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L,
+        100_000_000L, 250_000_000L, 500_000_000L,
+        1_000_000_000L, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L
+    };
+    
+    // Границы в секундах для экспорта (le="...")
+    private static final String[] BOUND_LABELS = new String[BOUNDS.length];
+    
+    static {
+        for (int i = 0; i < BOUNDS.length; i++) {
+            BOUND_LABELS[i] = BigDecimal.valueOf(BOUNDS[i], 9).stripTrailingZeros().toPlainString();
+        }
+    }
+    
+    private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+    
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+    
+    /**
+     * Запись длительности в наносекундах
+     */
+    public void record(long nanos) {
+        int index = 0;
+        while (index < BOUNDS.length && nanos > BOUNDS[index]) {
+            index++;
+        }
+        buckets[index].increment();
+        sumNanos.add(Math.max(0, nanos));
+    }
+    
+    /**
+     * Количество записей по корзинам (последняя - больше 10 с)
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+    
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+    
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+    
+    public double getAverageMillis() {
+        long count = getCount();
+        return count == 0 ? 0.0 : getSumNanos() / (double) count / 1_000_000.0;
+    }
+    
+    /**
+     * Оценка перцентиля в миллисекундах (линейно внутри корзины)
+     *
+     * @param quantile доля от 0.0 до 1.0
+     */
+    public double getPercentileMillis(double quantile) {
+        long[] counts = getBucketCounts();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0.0;
+        }
+        
+        double rank = quantile * total;
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 && seen + counts[i] >= rank) {
+                if (i == BOUNDS.length) {
+                    return BOUNDS[BOUNDS.length - 1] / 1_000_000.0;
+                }
+                long lower = i == 0 ? 0 : BOUNDS[i - 1];
+                double fraction = (rank - seen) / counts[i];
+                return (lower + fraction * (BOUNDS[i] - lower)) / 1_000_000.0;
+            }
+            seen += counts[i];
+        }
+        return BOUNDS[BOUNDS.length - 1] / 1_000_000.0;
+    }
+    
+    static int getBoundCount() {
+        return BOUNDS.length;
+    }
+    
+    static String getBoundLabel(int index) {
+        return BOUND_LABELS[index];
+    }
+}
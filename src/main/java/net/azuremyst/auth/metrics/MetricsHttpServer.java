@@ -0,0 +1,118 @@
+package net.azuremyst.auth.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * HTTP-эндпоинт /metrics для сбора метрик Prometheus
+ *
+ * Использует встроенный в JDK HttpServer и один фоновый поток, поэтому не
+ * требует зависимостей и не занимает основной поток сервера.
+ */
+public class MetricsHttpServer {
+    
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    
+    private final MetricsRegistry registry;
+    private final Logger logger;
+    
+    private HttpServer server;
+    private ExecutorService executor;
+    private String host;
+    private int port;
+    
+    public MetricsHttpServer(MetricsRegistry registry, Logger logger) {
+        this.registry = registry;
+        this.logger = logger;
+    }
+    
+    /**
+     * Запуск эндпоинта на указанном адресе
+     *
+     * @return true, если сервер запущен
+     */
+    public synchronized boolean start(String host, int port) {
+        stop();
+        try {
+            HttpServer httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+            httpServer.createContext("/metrics", this::handle);
+            
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "AzureAuth-Metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            httpServer.setExecutor(executor);
+            httpServer.start();
+            
+            this.server = httpServer;
+            this.host = host;
+            this.port = port;
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            logger.severe("§c[AzureAuth] Не удалось запустить эндпоинт метрик на " + host + ":" + port + ": " + e.getMessage());
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+            return false;
+        }
+    }
+    
+    /**
+     * Остановка эндпоинта
+     */
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+    
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+    
+    public synchronized String getHost() {
+        return host;
+    }
+    
+    public synchronized int getPort() {
+        return port;
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            
+            byte[] body = registry.toPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
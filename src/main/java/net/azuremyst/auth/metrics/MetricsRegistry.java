@@ -0,0 +1,145 @@
+package net.azuremyst.auth.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Реестр метрик плагина
+ *
+ * Хранит гистограммы длительности по операциям, счётчики с меткой и
+ * датчики (gauge), значения которых читаются в момент экспорта.
+ * Все структуры потокобезопасны; экспорт - в текстовом формате Prometheus.
+ */
+public class MetricsRegistry {
+    
+    private static final String PREFIX = "azureauth_";
+    private static final String DURATION_METRIC = PREFIX + "operation_duration_seconds";
+    
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+    private final Map<String, LabeledCounter> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentSkipListMap<>();
+    
+    /**
+     * Гистограмма операции (создаётся при первом обращении)
+     */
+    public LatencyHistogram histogram(String operation) {
+        LatencyHistogram histogram = histograms.get(operation);
+        if (histogram != null) {
+            return histogram;
+        }
+        return histograms.computeIfAbsent(operation, key -> new LatencyHistogram());
+    }
+    
+    /**
+     * Запись длительности операции, начатой в момент startNanos (System.nanoTime())
+     */
+    public void record(String operation, long startNanos) {
+        histogram(operation).record(System.nanoTime() - startNanos);
+    }
+    
+    /**
+     * Счётчик с одной меткой; name указывается без префикса azureauth_
+     */
+    public LabeledCounter counter(String name, String help, String label) {
+        return counters.computeIfAbsent(name, key -> new LabeledCounter(PREFIX + name, help, label));
+    }
+    
+    /**
+     * Датчик, значение которого запрашивается при каждом экспорте
+     */
+    public void gauge(String name, String help, DoubleSupplier supplier) {
+        gauges.put(name, new Gauge(PREFIX + name, help, supplier));
+    }
+    
+    /**
+     * Гистограммы операций, отсортированные по имени
+     */
+    public Map<String, LatencyHistogram> getHistograms() {
+        return histograms;
+    }
+    
+    /**
+     * Экспорт всех метрик в текстовом формате Prometheus 0.0.4
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder(8192);
+        
+        if (!histograms.isEmpty()) {
+            out.append("# HELP ").append(DURATION_METRIC).append(" Duration of auth operations\n");
+            out.append("# TYPE ").append(DURATION_METRIC).append(" histogram\n");
+            histograms.forEach((operation, histogram) -> writeHistogram(out, operation, histogram));
+        }
+        
+        for (LabeledCounter counter : counters.values()) {
+            out.append("# HELP ").append(counter.getName()).append(' ').append(counter.getHelp()).append('\n');
+            out.append("# TYPE ").append(counter.getName()).append(" counter\n");
+            counter.snapshot().forEach((value, count) -> out.append(counter.getName())
+                .append('{').append(counter.getLabel()).append("=\"").append(escape(value)).append("\"} ")
+                .append(count).append('\n'));
+        }
+        
+        for (Gauge gauge : gauges.values()) {
+            double value;
+            try {
+                value = gauge.supplier.getAsDouble();
+            } catch (RuntimeException e) {
+                continue;
+            }
+            out.append("# HELP ").append(gauge.name).append(' ').append(gauge.help).append('\n');
+            out.append("# TYPE ").append(gauge.name).append(" gauge\n");
+            out.append(gauge.name).append(' ').append(formatDouble(value)).append('\n');
+        }
+        
+        return out.toString();
+    }
+    
+    private void writeHistogram(StringBuilder out, String operation, LatencyHistogram histogram) {
+        String label = "operation=\"" + escape(operation) + "\"";
+        long[] counts = histogram.getBucketCounts();
+        long cumulative = 0;
+        
+        for (int i = 0; i < LatencyHistogram.getBoundCount(); i++) {
+            cumulative += counts[i];
+            out.append(DURATION_METRIC).append("_bucket{").append(label)
+                .append(",le=\"").append(LatencyHistogram.getBoundLabel(i)).append("\"} ")
+                .append(cumulative).append('\n');
+        }
+        cumulative += counts[counts.length - 1];
+        out.append(DURATION_METRIC).append("_bucket{").append(label).append(",le=\"+Inf\"} ")
+            .append(cumulative).append('\n');
+        out.append(DURATION_METRIC).append("_sum{").append(label).append("} ")
+            .append(formatDouble(histogram.getSumNanos() / 1_000_000_000.0)).append('\n');
+        out.append(DURATION_METRIC).append("_count{").append(label).append("} ")
+            .append(cumulative).append('\n');
+    }
+    
+    private static String formatDouble(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+    
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+    
+    private static final class Gauge {
+        private final String name;
+        private final String help;
+        private final DoubleSupplier supplier;
+        
+        private Gauge(String name, String help, DoubleSupplier supplier) {
+            this.name = name;
+            this.help = help;
+            this.supplier = supplier;
+        }
+    }
+}
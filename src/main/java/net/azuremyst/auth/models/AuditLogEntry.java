@@ -0,0 +1,63 @@
+package net.azuremyst.auth.models;
+
+import java.util.UUID;
+
+/**
+ * Запись журнала действий, ожидающая пакетной записи в БД
+ */
+public class AuditLogEntry {
+    
+    private final UUID uuid;
+    private final String username;
+    private final String action;
+    private final String ipAddress;
+    private final String details;
+    private final long createdAt;
+    
+    public AuditLogEntry(UUID uuid, String username, String action, String ipAddress, String details) {
+        this.uuid = uuid;
+        this.username = username;
+        this.action = action;
+        this.ipAddress = ipAddress;
+        this.details = details;
+        this.createdAt = System.currentTimeMillis();
+    }
+    
+    public UUID getUuid() {
+        return uuid;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public String getAction() {
+        return action;
+    }
+    
+    public String getIpAddress() {
+        return ipAddress;
+    }
+    
+    public String getDetails() {
+        return details;
+    }
+    
+    /**
+     * Время создания записи (мс)
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "AuditLogEntry{" +
+                "uuid=" + uuid +
+                ", username='" + username + '\'' +
+                ", action='" + action + '\'' +
+                ", ipAddress='" + ipAddress + '\'' +
+                ", details='" + details + '\'' +
+                '}';
+    }
+}
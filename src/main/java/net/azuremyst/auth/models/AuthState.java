@@ -0,0 +1,17 @@
+package net.azuremyst.auth.models;
+
+/**
+ * Состояние авторизации игрока на сервере
+ */
+public enum AuthState {
+    /** Данные игрока еще не загружены */
+    UNKNOWN,
+    /** Игрок не зарегистрирован */
+    UNREGISTERED,
+    /** Игрок зарегистрирован и должен войти */
+    PENDING_LOGIN,
+    /** Игрок авторизован */
+    AUTHENTICATED,
+    /** Аккаунт заблокирован после неудачных попыток */
+    LOCKED
+}
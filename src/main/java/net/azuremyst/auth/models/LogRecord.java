@@ -0,0 +1,58 @@
+package net.azuremyst.auth.models;
+
+import java.util.UUID;
+
+/**
+ * Запись журнала действий, прочитанная из БД (для архивации)
+ */
+public class LogRecord {
+    
+    private final long id;
+    private final UUID uuid;
+    private final String username;
+    private final String action;
+    private final String ipAddress;
+    private final String details;
+    private final long timestamp;
+    
+    public LogRecord(long id, UUID uuid, String username, String action, String ipAddress, String details, long timestamp) {
+        this.id = id;
+        this.uuid = uuid;
+        this.username = username;
+        this.action = action;
+        this.ipAddress = ipAddress;
+        this.details = details;
+        this.timestamp = timestamp;
+    }
+    
+    public long getId() {
+        return id;
+    }
+    
+    public UUID getUuid() {
+        return uuid;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public String getAction() {
+        return action;
+    }
+    
+    public String getIpAddress() {
+        return ipAddress;
+    }
+    
+    public String getDetails() {
+        return details;
+    }
+    
+    /**
+     * Время записи в миллисекундах эпохи (0, если не удалось прочитать)
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
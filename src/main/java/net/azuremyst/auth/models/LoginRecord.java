@@ -0,0 +1,53 @@
+package net.azuremyst.auth.models;
+
+import java.sql.Timestamp;
+
+/**
+ * Данные, необходимые для проверки входа: хеш пароля, соль
+ * (только для старых хешей SHA-256), счетчик неудачных попыток и время блокировки
+ */
+public class LoginRecord {
+    
+    private final String passwordHash;
+    private final String salt;
+    private final int failedAttempts;
+    private final Timestamp lockedUntil;
+    
+    public LoginRecord(String passwordHash, String salt, int failedAttempts, Timestamp lockedUntil) {
+        this.passwordHash = passwordHash;
+        this.salt = salt;
+        this.failedAttempts = failedAttempts;
+        this.lockedUntil = lockedUntil;
+    }
+    
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+    
+    public String getSalt() {
+        return salt;
+    }
+    
+    public int getFailedAttempts() {
+        return failedAttempts;
+    }
+    
+    public Timestamp getLockedUntil() {
+        return lockedUntil;
+    }
+    
+    /**
+     * Проверка блокировки аккаунта
+     */
+    public boolean isLocked() {
+        return lockedUntil != null && lockedUntil.getTime() > System.currentTimeMillis();
+    }
+    
+    /**
+     * Время до разблокировки в секундах
+     */
+    public long getTimeUntilUnlock() {
+        if (!isLocked()) return 0;
+        return (lockedUntil.getTime() - System.currentTimeMillis() + 999) / 1000;
+    }
+}
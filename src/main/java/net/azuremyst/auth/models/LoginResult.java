@@ -0,0 +1,86 @@
+package net.azuremyst.auth.models;
+
+/**
+ * Результат проверки входа игрока
+ */
+public class LoginResult {
+    
+    /**
+     * Статус попытки входа
+     */
+    public enum Status {
+        SUCCESS,
+        WRONG_PASSWORD,
+        LOCKED,
+        NOT_REGISTERED,
+        ERROR
+    }
+    
+    private static final LoginResult SUCCESS = new LoginResult(Status.SUCCESS, 0, 0);
+    private static final LoginResult NOT_REGISTERED = new LoginResult(Status.NOT_REGISTERED, 0, 0);
+    private static final LoginResult ERROR = new LoginResult(Status.ERROR, 0, 0);
+    
+    private final Status status;
+    private final int remainingAttempts;
+    private final long lockSeconds;
+    
+    private LoginResult(Status status, int remainingAttempts, long lockSeconds) {
+        this.status = status;
+        this.remainingAttempts = remainingAttempts;
+        this.lockSeconds = lockSeconds;
+    }
+    
+    public static LoginResult success() {
+        return SUCCESS;
+    }
+    
+    public static LoginResult notRegistered() {
+        return NOT_REGISTERED;
+    }
+    
+    /**
+     * Ошибка БД при проверке входа
+     */
+    public static LoginResult error() {
+        return ERROR;
+    }
+    
+    public static LoginResult wrongPassword(int remainingAttempts) {
+        return new LoginResult(Status.WRONG_PASSWORD, remainingAttempts, 0);
+    }
+    
+    public static LoginResult locked(long lockSeconds) {
+        return new LoginResult(Status.LOCKED, 0, lockSeconds);
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public boolean isSuccess() {
+        return status == Status.SUCCESS;
+    }
+    
+    /**
+     * Оставшееся количество попыток (для WRONG_PASSWORD)
+     */
+    public int getRemainingAttempts() {
+        return remainingAttempts;
+    }
+    
+    /**
+     * Время до разблокировки в секундах (для LOCKED)
+     */
+    public long getLockSeconds() {
+        return lockSeconds;
+    }
+    
+    @Override
+    public String toString() {
+        return "LoginResult{" +
+                "status=" + status +
+                ", remainingAttempts=" + remainingAttempts +
+                ", lockSeconds=" + lockSeconds +
+                '}';
+    }
+}
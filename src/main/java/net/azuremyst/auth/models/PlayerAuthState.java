@@ -0,0 +1,104 @@
+package net.azuremyst.auth.models;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Состояние авторизации игрока, находящегося на сервере
+ *
+ * Чтение не блокируется и безопасно из любого потока (в том числе из
+ * асинхронного чата), переходы между состояниями атомарны.
+ */
+public class PlayerAuthState {
+    
+    private final AtomicReference<AuthState> state;
+    private final AtomicInteger failedAttempts;
+    private volatile long lockedUntil;
+    private volatile String captchaCode;
+    
+    public PlayerAuthState(AuthState initialState) {
+        this.state = new AtomicReference<>(initialState);
+        this.failedAttempts = new AtomicInteger();
+    }
+    
+    public AuthState getState() {
+        return state.get();
+    }
+    
+    public boolean isAuthenticated() {
+        return state.get() == AuthState.AUTHENTICATED;
+    }
+    
+    /**
+     * Безусловный переход в состояние
+     *
+     * @return предыдущее состояние
+     */
+    public AuthState setState(AuthState newState) {
+        return state.getAndSet(newState);
+    }
+    
+    /**
+     * Переход, только если текущее состояние равно expected
+     */
+    public boolean transition(AuthState expected, AuthState newState) {
+        return state.compareAndSet(expected, newState);
+    }
+    
+    /**
+     * Успешная авторизация: сброс счетчиков и блокировки
+     */
+    public void authenticate() {
+        failedAttempts.set(0);
+        lockedUntil = 0L;
+        captchaCode = null;
+        state.set(AuthState.AUTHENTICATED);
+    }
+    
+    /**
+     * Неудачная попытка входа
+     *
+     * @return количество неудачных попыток
+     */
+    public int recordFailure() {
+        return failedAttempts.incrementAndGet();
+    }
+    
+    /**
+     * Блокировка до указанного времени (мс с начала эпохи)
+     */
+    public void lock(long untilMillis) {
+        failedAttempts.set(0);
+        lockedUntil = untilMillis;
+        state.set(AuthState.LOCKED);
+    }
+    
+    /**
+     * Снятие истекшей блокировки
+     *
+     * @return true, если блокировка была снята этим вызовом
+     */
+    public boolean unlockIfExpired(long now) {
+        return lockedUntil <= now && state.compareAndSet(AuthState.LOCKED, AuthState.PENDING_LOGIN);
+    }
+    
+    public int getFailedAttempts() {
+        return failedAttempts.get();
+    }
+    
+    public void setFailedAttempts(int attempts) {
+        failedAttempts.set(attempts);
+    }
+    
+    public long getLockedUntil() {
+        return lockedUntil;
+    }
+    
+    public String getCaptchaCode() {
+        return captchaCode;
+    }
+    
+    public void setCaptchaCode(String captchaCode) {
+        this.captchaCode = captchaCode;
+    }
+}
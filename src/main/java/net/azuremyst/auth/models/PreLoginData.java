@@ -0,0 +1,66 @@
+package net.azuremyst.auth.models;
+
+import java.util.UUID;
+
+/**
+ * Состояние авторизации игрока, загруженное при AsyncPlayerPreLoginEvent
+ * и передаваемое в обработчик PlayerJoinEvent
+ */
+public class PreLoginData {
+    
+    private final UUID uuid;
+    private final String ipAddress;
+    private final PlayerData playerData;
+    private final boolean validSession;
+    private final long loadedAt;
+    
+    public PreLoginData(UUID uuid, String ipAddress, PlayerData playerData, boolean validSession) {
+        this.uuid = uuid;
+        this.ipAddress = ipAddress;
+        this.playerData = playerData;
+        this.validSession = validSession;
+        this.loadedAt = System.currentTimeMillis();
+    }
+    
+    public UUID getUuid() {
+        return uuid;
+    }
+    
+    public String getIpAddress() {
+        return ipAddress;
+    }
+    
+    /**
+     * Данные игрока или null, если игрок не зарегистрирован
+     */
+    public PlayerData getPlayerData() {
+        return playerData;
+    }
+    
+    public boolean isRegistered() {
+        return playerData != null;
+    }
+    
+    public boolean isLocked() {
+        return playerData != null && playerData.isLocked();
+    }
+    
+    public boolean hasValidSession() {
+        return validSession;
+    }
+    
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "PreLoginData{" +
+                "uuid=" + uuid +
+                ", ipAddress='" + ipAddress + '\'' +
+                ", registered=" + isRegistered() +
+                ", locked=" + isLocked() +
+                ", validSession=" + validSession +
+                '}';
+    }
+}
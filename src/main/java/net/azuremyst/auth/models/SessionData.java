@@ -0,0 +1,44 @@
+package net.azuremyst.auth.models;
+
+import java.util.UUID;
+
+/**
+ * Активная сессия игрока (строка таблицы sessions)
+ */
+public class SessionData {
+    
+    private final UUID uuid;
+    private final String ipAddress;
+    private final String sessionToken;
+    private final long expiresAt;
+    
+    public SessionData(UUID uuid, String ipAddress, String sessionToken, long expiresAt) {
+        this.uuid = uuid;
+        this.ipAddress = ipAddress;
+        this.sessionToken = sessionToken;
+        this.expiresAt = expiresAt;
+    }
+    
+    public UUID getUuid() {
+        return uuid;
+    }
+    
+    public String getIpAddress() {
+        return ipAddress;
+    }
+    
+    public String getSessionToken() {
+        return sessionToken;
+    }
+    
+    /**
+     * Время истечения сессии (мс с начала эпохи)
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public boolean isExpired(long now) {
+        return expiresAt <= now;
+    }
+}
@@ -0,0 +1,230 @@
+package net.azuremyst.auth.security;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Фильтр Блума утекших паролей, отображенный в память
+ *
+ * Файл строится утилитой {@link BreachedPasswordFilterBuilder} из списка
+ * паролей или их SHA-1 и не загружается в кучу: биты читаются напрямую из
+ * отображения файла. Проверка не создает объектов - буферы SHA-1 хранятся
+ * в потоке. Возможны ложные срабатывания (с вероятностью, заданной при
+ * построении), пропусков нет.
+ *
+ * Формат: заголовок 32 байта (магическое число, версия, число хеш-функций,
+ * число бит, число записей), затем биты. Индексы бит получаются двойным
+ * хешированием из первых 16 байт SHA-1 пароля в UTF-8.
+ */
+public final class BreachedPasswordFilter {
+    
+    static final int MAGIC = 0x415A4246; // "AZBF"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int SEGMENT_BITS = 30;
+    static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    
+    private static final ThreadLocal<Sha1Buffer> BUFFERS = ThreadLocal.withInitial(Sha1Buffer::new);
+    
+    private final MappedByteBuffer[] segments;
+    private final int hashCount;
+    private final long bitCount;
+    private final long entryCount;
+    
+    // Файл, из которого открыт фильтр, и его размер и время изменения на момент открытия
+    private final Path file;
+    private final long fileSize;
+    private final long lastModified;
+    
+    private BreachedPasswordFilter(MappedByteBuffer[] segments, int hashCount, long bitCount, long entryCount,
+                                   Path file, long fileSize, long lastModified) {
+        this.segments = segments;
+        this.hashCount = hashCount;
+        this.bitCount = bitCount;
+        this.entryCount = entryCount;
+        this.file = file;
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+    }
+    
+    /**
+     * Открытие файла фильтра (только чтение)
+     */
+    public static BreachedPasswordFilter open(Path file) throws IOException {
+        Path path = file.toAbsolutePath().normalize();
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("файл слишком короткий");
+            }
+            
+            MappedByteBuffer[] segments = map(channel, FileChannel.MapMode.READ_ONLY, size);
+            ByteBuffer header = segments[0];
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("неизвестный формат файла");
+            }
+            
+            int hashCount = header.getInt(8);
+            long bitCount = header.getLong(16);
+            long entryCount = header.getLong(24);
+            if (hashCount < 1 || bitCount < 64 || HEADER_SIZE + (bitCount + 7) / 8 > size) {
+                throw new IOException("поврежденный заголовок");
+            }
+            
+            // Отображение остается действительным после закрытия канала
+            return new BreachedPasswordFilter(segments, hashCount, bitCount, entryCount, path, size, lastModified);
+        }
+    }
+    
+    /**
+     * Открыт ли фильтр из этого файла и не изменился ли файл с тех пор (размер и время изменения)
+     *
+     * Позволяет при перезагрузке конфигурации не отображать тот же файл повторно:
+     * прежнее отображение освобождается только сборщиком мусора.
+     */
+    public boolean isOpenedFrom(Path other) {
+        Path path = other.toAbsolutePath().normalize();
+        if (!path.equals(file)) {
+            return false;
+        }
+        
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.size() == fileSize && attributes.lastModifiedTime().toMillis() == lastModified;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Отображение файла частями по 1 ГБ (одно отображение ограничено 2 ГБ)
+     */
+    static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, long size) throws IOException {
+        int count = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+        MappedByteBuffer[] segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long position = (long) i << SEGMENT_BITS;
+            segments[i] = channel.map(mode, position, Math.min(SEGMENT_SIZE, size - position));
+        }
+        return segments;
+    }
+    
+    /**
+     * Проверка пароля
+     *
+     * @return true, если пароль, вероятно, есть в списке утечек
+     */
+    public boolean mightContain(String password) {
+        byte[] digest = BUFFERS.get().digest(password);
+        return mightContainDigest(digest);
+    }
+    
+    private boolean mightContainDigest(byte[] digest) {
+        long h1 = readLong(digest, 0);
+        long h2 = readLong(digest, 8) | 1L;
+        
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            long position = HEADER_SIZE + (bit >>> 3);
+            byte value = segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & (SEGMENT_SIZE - 1)));
+            if ((value & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+    
+    public int getHashCount() {
+        return hashCount;
+    }
+    
+    public long getBitCount() {
+        return bitCount;
+    }
+    
+    public long getEntryCount() {
+        return entryCount;
+    }
+    
+    /**
+     * Буферы SHA-1 потока: пароль кодируется в UTF-8 без создания строк и массивов
+     */
+    static final class Sha1Buffer {
+        
+        private final MessageDigest sha1;
+        private final byte[] digest = new byte[20];
+        private byte[] input = new byte[64];
+        
+        Sha1Buffer() {
+            try {
+                sha1 = MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-1 недоступен", e);
+            }
+        }
+        
+        byte[] digest(CharSequence password) {
+            int length = encodeUtf8(password);
+            sha1.update(input, 0, length);
+            try {
+                sha1.digest(digest, 0, digest.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            return digest;
+        }
+        
+        /**
+         * Кодирование в UTF-8 (непарные суррогаты заменяются на '?', как в String.getBytes)
+         */
+        private int encodeUtf8(CharSequence text) {
+            int required = text.length() * 3;
+            if (input.length < required) {
+                input = new byte[Math.max(required, input.length * 2)];
+            }
+            
+            int length = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    input[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    input[length++] = (byte) (0xC0 | (c >> 6));
+                    input[length++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    input[length++] = (byte) (0xF0 | (codePoint >> 18));
+                    input[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    input[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    input[length++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    input[length++] = '?';
+                } else {
+                    input[length++] = (byte) (0xE0 | (c >> 12));
+                    input[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    input[length++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            return length;
+        }
+    }
+}
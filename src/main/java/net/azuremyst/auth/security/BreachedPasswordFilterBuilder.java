@@ -0,0 +1,164 @@
+package net.azuremyst.auth.security;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Построение файла {@link BreachedPasswordFilter} из списка утекших паролей
+ *
+ * Запуск без сервера:
+ * <pre>
+ * java -cp AzureAuth.jar net.azuremyst.auth.security.BreachedPasswordFilterBuilder \
+ *     &lt;список&gt; &lt;файл фильтра&gt; [вероятность ложного срабатывания] [--plain]
+ * </pre>
+ * Каждая строка списка - пароль в открытом виде или SHA-1 в hex (40 символов,
+ * допускается формат HASH:COUNT). Строки из 40 hex-символов считаются хешами,
+ * если не указан --plain. Список читается дважды: для подсчета записей и для
+ * заполнения фильтра, который пишется прямо в отображенный файл.
+ */
+public final class BreachedPasswordFilterBuilder {
+    
+    private static final double DEFAULT_FALSE_POSITIVE_RATE = 0.001;
+    
+    private BreachedPasswordFilterBuilder() {
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Использование: BreachedPasswordFilterBuilder <список> <файл фильтра> "
+                + "[вероятность ложного срабатывания, по умолчанию " + DEFAULT_FALSE_POSITIVE_RATE + "] [--plain]");
+            System.exit(1);
+        }
+        
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        double falsePositiveRate = DEFAULT_FALSE_POSITIVE_RATE;
+        boolean plain = false;
+        for (int i = 2; i < args.length; i++) {
+            if ("--plain".equals(args[i])) {
+                plain = true;
+            } else {
+                falsePositiveRate = Double.parseDouble(args[i]);
+            }
+        }
+        
+        long started = System.nanoTime();
+        long entries = build(input, output, falsePositiveRate, plain);
+        System.out.printf(Locale.ROOT, "Записей: %d, размер файла: %.1f МБ, время: %.1f с%n",
+            entries, Files.size(output) / (1024.0 * 1024.0), (System.nanoTime() - started) / 1e9);
+    }
+    
+    /**
+     * Построение фильтра
+     *
+     * @return количество записей
+     */
+    public static long build(Path input, Path output, double falsePositiveRate, boolean plain) throws IOException {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("вероятность ложного срабатывания должна быть между 0 и 1");
+        }
+        
+        long entries = 0;
+        try (BufferedReader reader = open(input)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    entries++;
+                }
+            }
+        }
+        
+        // m = -n ln p / (ln 2)^2, k = m / n * ln 2
+        long bitCount = (long) Math.ceil(-Math.max(1, entries) * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        bitCount = Math.max(64, (bitCount + 63) & ~63L);
+        int hashCount = (int) Math.max(1, Math.min(30, Math.round((double) bitCount / Math.max(1, entries) * Math.log(2))));
+        long size = BreachedPasswordFilter.HEADER_SIZE + bitCount / 8;
+        
+        Files.deleteIfExists(output);
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+             BufferedReader reader = open(input)) {
+            channel.truncate(size);
+            MappedByteBuffer[] segments = BreachedPasswordFilter.map(channel, FileChannel.MapMode.READ_WRITE, size);
+            
+            BreachedPasswordFilter.Sha1Buffer sha1 = new BreachedPasswordFilter.Sha1Buffer();
+            byte[] parsed = new byte[20];
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                
+                byte[] digest = !plain && parseSha1(line, parsed) ? parsed : sha1.digest(line);
+                add(segments, digest, hashCount, bitCount);
+            }
+            
+            MappedByteBuffer header = segments[0];
+            header.putInt(0, BreachedPasswordFilter.MAGIC);
+            header.putInt(4, BreachedPasswordFilter.VERSION);
+            header.putInt(8, hashCount);
+            header.putInt(12, 0);
+            header.putLong(16, bitCount);
+            header.putLong(24, entries);
+            
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        }
+        return entries;
+    }
+    
+    private static BufferedReader open(Path input) throws IOException {
+        // Списки утечек часто содержат некорректный UTF-8 - такие байты заменяются
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(input),
+            StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)), 1 << 16);
+    }
+    
+    private static void add(MappedByteBuffer[] segments, byte[] digest, int hashCount, long bitCount) {
+        long h1 = BreachedPasswordFilter.readLong(digest, 0);
+        long h2 = BreachedPasswordFilter.readLong(digest, 8) | 1L;
+        
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            long position = BreachedPasswordFilter.HEADER_SIZE + (bit >>> 3);
+            MappedByteBuffer segment = segments[(int) (position >>> BreachedPasswordFilter.SEGMENT_BITS)];
+            int offset = (int) (position & (BreachedPasswordFilter.SEGMENT_SIZE - 1));
+            segment.put(offset, (byte) (segment.get(offset) | (1 << (bit & 7))));
+        }
+    }
+    
+    /**
+     * Разбор строки "SHA1" или "SHA1:COUNT"
+     */
+    private static boolean parseSha1(String line, byte[] out) {
+        int end = line.indexOf(':');
+        if (end < 0) {
+            end = line.length();
+        }
+        if (end != 40) {
+            return false;
+        }
+        
+        for (int i = 0; i < 20; i++) {
+            int high = Character.digit(line.charAt(i * 2), 16);
+            int low = Character.digit(line.charAt(i * 2 + 1), 16);
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            out[i] = (byte) ((high << 4) | low);
+        }
+        return true;
+    }
+}
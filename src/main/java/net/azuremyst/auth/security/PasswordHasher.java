@@ -0,0 +1,30 @@
+package net.azuremyst.auth.security;
+
+/**
+ * Алгоритм хеширования паролей
+ *
+ * Хеш хранится в формате PHC: {@code $<id>$<параметры>$<соль>$<хеш>},
+ * поэтому алгоритм, параметры и соль определяются по самой строке.
+ */
+public interface PasswordHasher {
+    
+    /**
+     * Идентификатор алгоритма (первый сегмент строки хеша)
+     */
+    String getId();
+    
+    /**
+     * Хеширование пароля со случайной солью и текущими параметрами
+     */
+    String hash(String password);
+    
+    /**
+     * Проверка пароля по строке хеша этого алгоритма
+     */
+    boolean verify(String password, String encoded);
+    
+    /**
+     * Проверка, что хеш создан с другими (устаревшими) параметрами
+     */
+    boolean needsRehash(String encoded);
+}
@@ -0,0 +1,217 @@
+package net.azuremyst.auth.security;
+
+import net.azuremyst.auth.AzureAuth;
+import net.azuremyst.auth.config.ConfigManager;
+import net.azuremyst.auth.metrics.MetricsRegistry;
+import net.azuremyst.auth.utils.PasswordUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Хеширование и проверка паролей в отдельном пуле потоков
+ *
+ * Вычисление хеша намеренно дорогое, поэтому выполняется в пуле фиксированного
+ * размера (по числу ядер) с ограниченной очередью - и не занимает ни основной
+ * поток сервера, ни потоки БД. Хеши без префикса {@code $} считаются старыми
+ * SHA-256 с солью в отдельном столбце и проверяются через {@link PasswordUtils#hashPassword}.
+ */
+public class PasswordHashingService {
+    
+    private final AzureAuth plugin;
+    private final Map<String, PasswordHasher> hashers;
+    private final PasswordHasher defaultHasher;
+    private final ThreadPoolExecutor executor;
+    private final MetricsRegistry metrics;
+    
+    // Статистика
+    private final LongAdder hashCount = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    
+    public PasswordHashingService(AzureAuth plugin) {
+        this.plugin = plugin;
+        this.metrics = plugin.getMetrics();
+        ConfigManager config = plugin.getConfigManager();
+        
+        this.hashers = new HashMap<>();
+        PasswordHasher pbkdf2 = new Pbkdf2PasswordHasher(config.getPbkdf2Iterations());
+        PasswordHasher scrypt = new ScryptPasswordHasher(config.getScryptLogCost(),
+                config.getScryptBlockSize(), config.getScryptParallelization());
+        hashers.put(pbkdf2.getId(), pbkdf2);
+        hashers.put(scrypt.getId(), scrypt);
+        
+        if ("PBKDF2".equalsIgnoreCase(config.getPasswordHashAlgorithm())) {
+            this.defaultHasher = pbkdf2;
+        } else {
+            this.defaultHasher = scrypt;
+        }
+        
+        int threads = config.getHashingThreads();
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getHashingQueueSize())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "AzureAuth-Hash-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        
+        plugin.getLogger().info("§a[AzureAuth] Хеширование паролей: " + defaultHasher.getId()
+                + ", потоков: " + threads);
+    }
+    
+    /**
+     * Хеширование пароля алгоритмом по умолчанию (в текущем потоке)
+     */
+    public String hash(String password) {
+        long start = System.nanoTime();
+        try {
+            return defaultHasher.hash(password);
+        } finally {
+            recordTiming(start);
+            metrics.record("password_hash", start);
+        }
+    }
+    
+    /**
+     * Проверка пароля (в текущем потоке)
+     *
+     * @param legacySalt соль из отдельного столбца, используется только для старых хешей SHA-256
+     */
+    public boolean verify(String password, String storedHash, String legacySalt) {
+        if (storedHash == null) {
+            return false;
+        }
+        
+        long start = System.nanoTime();
+        try {
+            if (!storedHash.startsWith("$")) {
+                String legacyHash = PasswordUtils.hashPassword(password, legacySalt != null ? legacySalt : "");
+                return MessageDigest.isEqual(legacyHash.getBytes(StandardCharsets.UTF_8),
+                        storedHash.getBytes(StandardCharsets.UTF_8));
+            }
+            
+            PasswordHasher hasher = hashers.get(getAlgorithmId(storedHash));
+            if (hasher == null) {
+                plugin.getLogger().warning("§e[AzureAuth] Неизвестный алгоритм хеша пароля: " + getAlgorithmId(storedHash));
+                return false;
+            }
+            return hasher.verify(password, storedHash);
+        } finally {
+            recordTiming(start);
+            metrics.record("password_verify", start);
+        }
+    }
+    
+    /**
+     * Проверка, что хеш нужно пересчитать (старый SHA-256, другой алгоритм или параметры)
+     */
+    public boolean needsRehash(String storedHash) {
+        return storedHash == null || !storedHash.startsWith("$" + defaultHasher.getId() + "$")
+                || defaultHasher.needsRehash(storedHash);
+    }
+    
+    /**
+     * Асинхронное хеширование пароля
+     */
+    public CompletableFuture<String> hashAsync(String password) {
+        return submit(() -> hash(password));
+    }
+    
+    /**
+     * Асинхронная проверка пароля
+     */
+    public CompletableFuture<Boolean> verifyAsync(String password, String storedHash, String legacySalt) {
+        return submit(() -> verify(password, storedHash, legacySalt));
+    }
+    
+    /**
+     * Асинхронная проверка пароля по фильтру утекших паролей
+     */
+    public CompletableFuture<Boolean> isBreachedAsync(String password) {
+        return submit(() -> PasswordUtils.isBreachedPassword(password));
+    }
+    
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            plugin.getLogger().warning("§e[AzureAuth] Очередь хеширования паролей переполнена, запрос отклонен");
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private static String getAlgorithmId(String storedHash) {
+        int end = storedHash.indexOf('$', 1);
+        return end > 0 ? storedHash.substring(1, end) : storedHash.substring(1);
+    }
+    
+    private void recordTiming(long start) {
+        hashCount.increment();
+        hashNanos.add(System.nanoTime() - start);
+    }
+    
+    /**
+     * Остановка пула (ожидающие задачи дорабатывают)
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    public String getAlgorithm() {
+        return defaultHasher.getId();
+    }
+    
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+    
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+    
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+    
+    public long getHashCount() {
+        return hashCount.sum();
+    }
+    
+    public long getRejectedCount() {
+        return rejections.sum();
+    }
+    
+    /**
+     * Среднее время одного хеширования или проверки в миллисекундах
+     */
+    public double getAverageMillis() {
+        long count = hashCount.sum();
+        return count == 0 ? 0.0 : hashNanos.sum() / (double) count / 1_000_000.0;
+    }
+}
@@ -0,0 +1,79 @@
+package net.azuremyst.auth.security;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * PBKDF2-HMAC-SHA256
+ *
+ * Формат: {@code $pbkdf2-sha256$i=<итерации>$<соль>$<хеш>}
+ */
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+    
+    public static final String ID = "pbkdf2-sha256";
+    
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+    
+    private final SecureRandom random = new SecureRandom();
+    private final int iterations;
+    
+    public Pbkdf2PasswordHasher(int iterations) {
+        this.iterations = Math.max(1, iterations);
+    }
+    
+    @Override
+    public String getId() {
+        return ID;
+    }
+    
+    @Override
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_LENGTH];
+        random.nextBytes(salt);
+        byte[] hash = derive(password, salt, iterations, HASH_LENGTH);
+        
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return "$" + ID + "$i=" + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+    
+    @Override
+    public boolean verify(String password, String encoded) {
+        String[] parts = encoded.split("\\$");
+        if (parts.length != 5 || !ID.equals(parts[1]) || !parts[2].startsWith("i=")) {
+            return false;
+        }
+        
+        try {
+            int storedIterations = Integer.parseInt(parts[2].substring(2));
+            byte[] salt = Base64.getDecoder().decode(parts[3]);
+            byte[] expected = Base64.getDecoder().decode(parts[4]);
+            if (storedIterations < 1 || expected.length == 0) {
+                return false;
+            }
+            return MessageDigest.isEqual(expected, derive(password, salt, storedIterations, expected.length));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    @Override
+    public boolean needsRehash(String encoded) {
+        return !encoded.startsWith("$" + ID + "$i=" + iterations + "$");
+    }
+    
+    private static byte[] derive(String password, byte[] salt, int iterations, int length) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, length * 8);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2WithHmacSHA256 недоступен", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
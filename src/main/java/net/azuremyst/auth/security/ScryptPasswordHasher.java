@@ -0,0 +1,248 @@
+package net.azuremyst.auth.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * scrypt (RFC 7914) - требует N * r * 128 байт памяти на каждое вычисление
+ *
+ * Формат: {@code $scrypt$ln=<log2 N>,r=<r>,p=<p>$<соль>$<хеш>}
+ */
+public class ScryptPasswordHasher implements PasswordHasher {
+    
+    public static final String ID = "scrypt";
+    
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+    
+    private final SecureRandom random = new SecureRandom();
+    private final int logCost;
+    private final int blockSize;
+    private final int parallelization;
+    private final String parameters;
+    
+    /**
+     * @param logCost         log2 параметра стоимости N
+     * @param blockSize       r
+     * @param parallelization p
+     */
+    public ScryptPasswordHasher(int logCost, int blockSize, int parallelization) {
+        this.logCost = Math.max(1, Math.min(24, logCost));
+        this.blockSize = Math.max(1, blockSize);
+        this.parallelization = Math.max(1, parallelization);
+        this.parameters = formatParameters(this.logCost, this.blockSize, this.parallelization);
+    }
+    
+    @Override
+    public String getId() {
+        return ID;
+    }
+    
+    @Override
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_LENGTH];
+        random.nextBytes(salt);
+        byte[] hash = scrypt(password.getBytes(StandardCharsets.UTF_8), salt,
+                1 << logCost, blockSize, parallelization, HASH_LENGTH);
+        
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return "$" + ID + "$" + parameters + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+    
+    @Override
+    public boolean verify(String password, String encoded) {
+        String[] parts = encoded.split("\\$");
+        if (parts.length != 5 || !ID.equals(parts[1])) {
+            return false;
+        }
+        
+        try {
+            int storedLogCost = -1;
+            int storedBlockSize = -1;
+            int storedParallelization = -1;
+            for (String parameter : parts[2].split(",")) {
+                if (parameter.startsWith("ln=")) {
+                    storedLogCost = Integer.parseInt(parameter.substring(3));
+                } else if (parameter.startsWith("r=")) {
+                    storedBlockSize = Integer.parseInt(parameter.substring(2));
+                } else if (parameter.startsWith("p=")) {
+                    storedParallelization = Integer.parseInt(parameter.substring(2));
+                }
+            }
+            
+            byte[] salt = Base64.getDecoder().decode(parts[3]);
+            byte[] expected = Base64.getDecoder().decode(parts[4]);
+            if (storedLogCost < 1 || storedLogCost > 24 || storedBlockSize < 1 || storedParallelization < 1
+                    || expected.length == 0) {
+                return false;
+            }
+            
+            byte[] actual = scrypt(password.getBytes(StandardCharsets.UTF_8), salt,
+                    1 << storedLogCost, storedBlockSize, storedParallelization, expected.length);
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    @Override
+    public boolean needsRehash(String encoded) {
+        return !encoded.startsWith("$" + ID + "$" + parameters + "$");
+    }
+    
+    private static String formatParameters(int logCost, int blockSize, int parallelization) {
+        return "ln=" + logCost + ",r=" + blockSize + ",p=" + parallelization;
+    }
+    
+    /**
+     * Вычисление scrypt(password, salt, N, r, p, dkLen)
+     */
+    static byte[] scrypt(byte[] password, byte[] salt, int cost, int blockSize, int parallelization, int length) {
+        int blockBytes = 128 * blockSize;
+        byte[] blocks = pbkdf2(password, salt, parallelization * blockBytes);
+        
+        int[] work = new int[32 * blockSize];
+        int[] scratch = new int[32 * blockSize];
+        int[] memory = new int[32 * blockSize * cost];
+        int[] salsa = new int[16];
+        
+        for (int i = 0; i < parallelization; i++) {
+            romix(blocks, i * blockBytes, blockSize, cost, work, scratch, memory, salsa);
+        }
+        
+        return pbkdf2(password, blocks, length);
+    }
+    
+    /**
+     * scryptROMix для одного блока, результат записывается на место исходного
+     */
+    private static void romix(byte[] blocks, int offset, int blockSize, int cost,
+                              int[] work, int[] scratch, int[] memory, int[] salsa) {
+        int blockInts = 32 * blockSize;
+        for (int k = 0; k < blockInts; k++) {
+            int index = offset + k * 4;
+            work[k] = (blocks[index] & 0xFF) | (blocks[index + 1] & 0xFF) << 8
+                    | (blocks[index + 2] & 0xFF) << 16 | (blocks[index + 3] & 0xFF) << 24;
+        }
+        
+        for (int i = 0; i < cost; i++) {
+            System.arraycopy(work, 0, memory, i * blockInts, blockInts);
+            blockMix(work, scratch, salsa, blockSize);
+        }
+        
+        for (int i = 0; i < cost; i++) {
+            int j = work[(2 * blockSize - 1) * 16] & (cost - 1);
+            int base = j * blockInts;
+            for (int k = 0; k < blockInts; k++) {
+                work[k] ^= memory[base + k];
+            }
+            blockMix(work, scratch, salsa, blockSize);
+        }
+        
+        for (int k = 0; k < blockInts; k++) {
+            int index = offset + k * 4;
+            int value = work[k];
+            blocks[index] = (byte) value;
+            blocks[index + 1] = (byte) (value >>> 8);
+            blocks[index + 2] = (byte) (value >>> 16);
+            blocks[index + 3] = (byte) (value >>> 24);
+        }
+    }
+    
+    /**
+     * scryptBlockMix: четные подблоки результата идут в первую половину, нечетные - во вторую
+     */
+    private static void blockMix(int[] block, int[] scratch, int[] salsa, int blockSize) {
+        System.arraycopy(block, (2 * blockSize - 1) * 16, salsa, 0, 16);
+        
+        for (int i = 0; i < 2 * blockSize; i++) {
+            for (int k = 0; k < 16; k++) {
+                salsa[k] ^= block[i * 16 + k];
+            }
+            salsa208(salsa);
+            int target = (i % 2 == 0 ? i / 2 : blockSize + i / 2) * 16;
+            System.arraycopy(salsa, 0, scratch, target, 16);
+        }
+        
+        System.arraycopy(scratch, 0, block, 0, 32 * blockSize);
+    }
+    
+    /**
+     * Salsa20/8 core
+     */
+    private static void salsa208(int[] b) {
+        int x0 = b[0], x1 = b[1], x2 = b[2], x3 = b[3], x4 = b[4], x5 = b[5], x6 = b[6], x7 = b[7];
+        int x8 = b[8], x9 = b[9], x10 = b[10], x11 = b[11], x12 = b[12], x13 = b[13], x14 = b[14], x15 = b[15];
+        
+        for (int i = 0; i < 8; i += 2) {
+            x4 ^= Integer.rotateLeft(x0 + x12, 7);
+            x8 ^= Integer.rotateLeft(x4 + x0, 9);
+            x12 ^= Integer.rotateLeft(x8 + x4, 13);
+            x0 ^= Integer.rotateLeft(x12 + x8, 18);
+            x9 ^= Integer.rotateLeft(x5 + x1, 7);
+            x13 ^= Integer.rotateLeft(x9 + x5, 9);
+            x1 ^= Integer.rotateLeft(x13 + x9, 13);
+            x5 ^= Integer.rotateLeft(x1 + x13, 18);
+            x14 ^= Integer.rotateLeft(x10 + x6, 7);
+            x2 ^= Integer.rotateLeft(x14 + x10, 9);
+            x6 ^= Integer.rotateLeft(x2 + x14, 13);
+            x10 ^= Integer.rotateLeft(x6 + x2, 18);
+            x3 ^= Integer.rotateLeft(x15 + x11, 7);
+            x7 ^= Integer.rotateLeft(x3 + x15, 9);
+            x11 ^= Integer.rotateLeft(x7 + x3, 13);
+            x15 ^= Integer.rotateLeft(x11 + x7, 18);
+            
+            x1 ^= Integer.rotateLeft(x0 + x3, 7);
+            x2 ^= Integer.rotateLeft(x1 + x0, 9);
+            x3 ^= Integer.rotateLeft(x2 + x1, 13);
+            x0 ^= Integer.rotateLeft(x3 + x2, 18);
+            x6 ^= Integer.rotateLeft(x5 + x4, 7);
+            x7 ^= Integer.rotateLeft(x6 + x5, 9);
+            x4 ^= Integer.rotateLeft(x7 + x6, 13);
+            x5 ^= Integer.rotateLeft(x4 + x7, 18);
+            x11 ^= Integer.rotateLeft(x10 + x9, 7);
+            x8 ^= Integer.rotateLeft(x11 + x10, 9);
+            x9 ^= Integer.rotateLeft(x8 + x11, 13);
+            x10 ^= Integer.rotateLeft(x9 + x8, 18);
+            x12 ^= Integer.rotateLeft(x15 + x14, 7);
+            x13 ^= Integer.rotateLeft(x12 + x15, 9);
+            x14 ^= Integer.rotateLeft(x13 + x12, 13);
+            x15 ^= Integer.rotateLeft(x14 + x13, 18);
+        }
+        
+        b[0] += x0; b[1] += x1; b[2] += x2; b[3] += x3; b[4] += x4; b[5] += x5; b[6] += x6; b[7] += x7;
+        b[8] += x8; b[9] += x9; b[10] += x10; b[11] += x11; b[12] += x12; b[13] += x13; b[14] += x14; b[15] += x15;
+    }
+    
+    /**
+     * PBKDF2-HMAC-SHA256 с одной итерацией (так его использует scrypt)
+     */
+    private static byte[] pbkdf2(byte[] password, byte[] salt, int length) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            // Пустой ключ HMAC эквивалентен ключу из одного нулевого байта
+            // (ключ дополняется нулями до размера блока), а SecretKeySpec пустой ключ не принимает
+            mac.init(new SecretKeySpec(password.length == 0 ? new byte[1] : password, "HmacSHA256"));
+            
+            byte[] result = new byte[length];
+            byte[] counter = new byte[4];
+            for (int block = 1, offset = 0; offset < length; block++, offset += 32) {
+                counter[0] = (byte) (block >>> 24);
+                counter[1] = (byte) (block >>> 16);
+                counter[2] = (byte) (block >>> 8);
+                counter[3] = (byte) block;
+                mac.update(salt);
+                byte[] digest = mac.doFinal(counter);
+                System.arraycopy(digest, 0, result, offset, Math.min(32, length - offset));
+            }
+            return result;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 недоступен", e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package net.azuremyst.auth.utils;
+
+import org.bukkit.Server;
+import org.bukkit.command.PluginCommand;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Неизменяемый список команд, разрешенных неавторизованным игрокам
+ *
+ * Строится из restrictions.allowed-commands при загрузке и перезагрузке:
+ * для команд плагинов добавляются основное имя, все псевдонимы и формы
+ * с префиксом плагина (azureauth:login). Метка команды сравнивается
+ * целиком без учета регистра, так что /loginfoo не совпадает с /login.
+ *
+ * Поиск не создает объектов: метка читается прямо из сообщения, хеш
+ * считается по символам, таблица с открытой адресацией.
+ */
+public final class CommandAllowlist {
+    
+    private final String[] table;
+    private final int mask;
+    private final int size;
+    
+    private CommandAllowlist(Set<String> labels) {
+        int capacity = Integer.highestOneBit(Math.max(4, labels.size() * 2) - 1) << 1;
+        this.table = new String[capacity];
+        this.mask = capacity - 1;
+        this.size = labels.size();
+        
+        for (String label : labels) {
+            int index = hash(label, 0, label.length()) & mask;
+            while (table[index] != null) {
+                index = (index + 1) & mask;
+            }
+            table[index] = label;
+        }
+    }
+    
+    /**
+     * Сборка списка из настроенных меток
+     *
+     * @param server сервер для поиска псевдонимов команд плагинов; null - только метки из конфига
+     */
+    public static CommandAllowlist compile(Collection<String> configured, Server server) {
+        Set<String> labels = new LinkedHashSet<>();
+        
+        for (String entry : configured) {
+            if (entry == null) {
+                continue;
+            }
+            
+            String label = normalize(entry);
+            if (label.isEmpty()) {
+                continue;
+            }
+            labels.add(label);
+            
+            PluginCommand command = server != null ? server.getPluginCommand(label) : null;
+            if (command != null) {
+                String prefix = command.getPlugin() != null ? normalize(command.getPlugin().getName()) + ":" : null;
+                addWithPrefix(labels, prefix, command.getName());
+                for (String alias : command.getAliases()) {
+                    addWithPrefix(labels, prefix, alias);
+                }
+            }
+        }
+        
+        return new CommandAllowlist(labels);
+    }
+    
+    private static void addWithPrefix(Set<String> labels, String prefix, String name) {
+        String label = normalize(name);
+        if (label.isEmpty()) {
+            return;
+        }
+        labels.add(label);
+        if (prefix != null) {
+            labels.add(prefix + label);
+        }
+    }
+    
+    /**
+     * Приведение метки к виду для таблицы: без "/" и пробелов, в нижнем регистре
+     * (посимвольно - так же, как считается хеш при поиске)
+     */
+    private static String normalize(String label) {
+        String trimmed = label.trim();
+        if (trimmed.startsWith("/")) {
+            trimmed = trimmed.substring(1);
+        }
+        
+        StringBuilder builder = new StringBuilder(trimmed.length());
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (Character.isWhitespace(c)) {
+                break;
+            }
+            builder.append(Character.toLowerCase(c));
+        }
+        return builder.toString();
+    }
+    
+    /**
+     * Проверка сообщения команды ("/login пароль")
+     */
+    public boolean isAllowed(String message) {
+        int start = message.startsWith("/") ? 1 : 0;
+        int end = message.indexOf(' ', start);
+        if (end < 0) {
+            end = message.length();
+        }
+        
+        int length = end - start;
+        if (length == 0) {
+            return false;
+        }
+        
+        int index = hash(message, start, end) & mask;
+        String label;
+        while ((label = table[index]) != null) {
+            if (label.length() == length && label.regionMatches(true, 0, message, start, length)) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+    
+    private static int hash(String value, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + Character.toLowerCase(value.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+    
+    /**
+     * Количество разрешенных меток (с псевдонимами)
+     */
+    public int size() {
+        return size;
+    }
+}
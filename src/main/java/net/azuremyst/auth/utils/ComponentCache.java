@@ -0,0 +1,162 @@
+package net.azuremyst.auth.utils;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кэш готовых компонентов для Action Bar
+ *
+ * Ключ - итоговый текст сообщения, поэтому одинаковый отсчет у многих
+ * игроков разбирается один раз. Размер ограничен, вытесняется запись,
+ * к которой дольше всего не обращались.
+ *
+ * При промахе сообщение с параметрами не разбирается целиком: литералы
+ * шаблона разбираются один раз и переиспользуются, заново разбираются
+ * только подставленные значения (с цветом, действующим перед параметром).
+ */
+public class ComponentCache {
+    
+    private static final BaseComponent[] EMPTY = new BaseComponent[0];
+    
+    private final int maximumSize;
+    private final Map<String, BaseComponent[]> components;
+    private final Map<MessageTemplate, BaseComponent[][]> literalSegments;
+    
+    // Статистика
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    public ComponentCache(int maximumSize) {
+        this.maximumSize = Math.max(1, maximumSize);
+        this.components = new LinkedHashMap<String, BaseComponent[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BaseComponent[]> eldest) {
+                return size() > ComponentCache.this.maximumSize;
+            }
+        };
+        this.literalSegments = new IdentityHashMap<>();
+    }
+    
+    /**
+     * Компоненты сообщения с подставленными параметрами
+     */
+    public BaseComponent[] get(MessageTemplate template, String... params) {
+        String text = template.format(params);
+        
+        synchronized (this) {
+            BaseComponent[] cached = components.get(text);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        
+        misses.increment();
+        BaseComponent[] built = canAssemble(template, params)
+            ? assemble(template, params)
+            : TextComponent.fromLegacyText(text);
+        
+        synchronized (this) {
+            components.put(text, built);
+        }
+        return built;
+    }
+    
+    /**
+     * Сборка по частям возможна, если все значения переданы и не меняют цвет
+     * (иначе цвет следующего литерала зависит от значения)
+     */
+    private static boolean canAssemble(MessageTemplate template, String[] params) {
+        if (template.getParameterCount() == 0 || params == null) {
+            return false;
+        }
+        
+        for (int i = 0; i < template.getParameterCount(); i++) {
+            int index = template.getParameter(i);
+            if (index >= params.length || params[index] == null || params[index].indexOf('§') >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private BaseComponent[] assemble(MessageTemplate template, String[] params) {
+        BaseComponent[][] literals = getLiteralSegments(template);
+        
+        List<BaseComponent> result = new ArrayList<>();
+        Collections.addAll(result, literals[0]);
+        for (int i = 0; i < template.getParameterCount(); i++) {
+            String value = params[template.getParameter(i)];
+            if (!value.isEmpty()) {
+                Collections.addAll(result, TextComponent.fromLegacyText(template.getActiveFormat(i) + value));
+            }
+            Collections.addAll(result, literals[i + 1]);
+        }
+        return result.toArray(EMPTY);
+    }
+    
+    /**
+     * Разобранные литералы шаблона (разбираются один раз на шаблон)
+     */
+    private synchronized BaseComponent[][] getLiteralSegments(MessageTemplate template) {
+        BaseComponent[][] segments = literalSegments.get(template);
+        if (segments != null) {
+            return segments;
+        }
+        
+        int count = template.getParameterCount();
+        segments = new BaseComponent[count + 1][];
+        segments[0] = parse("", template.getLiteral(0));
+        for (int i = 0; i < count; i++) {
+            segments[i + 1] = parse(template.getActiveFormat(i), template.getLiteral(i + 1));
+        }
+        
+        literalSegments.put(template, segments);
+        return segments;
+    }
+    
+    private static BaseComponent[] parse(String format, String literal) {
+        return literal.isEmpty() ? EMPTY : TextComponent.fromLegacyText(format + literal);
+    }
+    
+    /**
+     * Очистка (при перезагрузке сообщений)
+     */
+    public synchronized void clear() {
+        components.clear();
+        literalSegments.clear();
+    }
+    
+    public synchronized int size() {
+        return components.size();
+    }
+    
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+    
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    /**
+     * Доля попаданий в кэш (0.0 - 1.0)
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+}
@@ -0,0 +1,181 @@
+package net.azuremyst.auth.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разобранное сообщение с параметрами {0}, {1}, ...
+ *
+ * Текст разбивается при загрузке на литералы и номера параметров, поэтому
+ * подстановка - один проход без поиска и промежуточных строк. Префикс
+ * сообщений хранится уже готовым. Объект неизменяем.
+ */
+public final class MessageTemplate {
+    
+    private final String prefix;
+    private final String[] literals;
+    private final int[] parameters;
+    private final String text;
+    private final String prefixedText;
+    private final int literalLength;
+    
+    /**
+     * Активные цвет и форматирование (коды §) перед каждым параметром
+     */
+    private final String[] activeFormats;
+    
+    private MessageTemplate(String prefix, String[] literals, int[] parameters, String text) {
+        this.prefix = prefix;
+        this.literals = literals;
+        this.parameters = parameters;
+        this.text = text;
+        this.prefixedText = prefix.isEmpty() ? text : prefix + text;
+        
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+        
+        this.activeFormats = new String[parameters.length];
+        StringBuilder preceding = new StringBuilder();
+        for (int i = 0; i < parameters.length; i++) {
+            preceding.append(literals[i]);
+            activeFormats[i] = activeFormat(preceding);
+        }
+    }
+    
+    /**
+     * Коды цвета и форматирования, действующие в конце текста
+     * (цвет или §r сбрасывают форматирование, §x - цвет в формате RGB)
+     */
+    private static String activeFormat(CharSequence text) {
+        StringBuilder codes = new StringBuilder();
+        for (int i = 0; i < text.length() - 1; i++) {
+            if (text.charAt(i) != '§') {
+                continue;
+            }
+            
+            char code = Character.toLowerCase(text.charAt(i + 1));
+            if (code == 'x' && i + 14 <= text.length()) {
+                codes.setLength(0);
+                codes.append(text, i, i + 14);
+                i += 13;
+            } else if ((code >= '0' && code <= '9') || (code >= 'a' && code <= 'f') || code == 'r') {
+                codes.setLength(0);
+                if (code != 'r') {
+                    codes.append('§').append(code);
+                }
+                i++;
+            } else if (code >= 'k' && code <= 'o') {
+                codes.append('§').append(code);
+                i++;
+            }
+        }
+        return codes.toString();
+    }
+    
+    /**
+     * Разбор сообщения
+     *
+     * @param prefix готовый префикс (с пробелом) или пустая строка
+     */
+    public static MessageTemplate compile(String message, String prefix) {
+        StringBuilder literal = new StringBuilder();
+        List<String> literals = new ArrayList<>();
+        List<Integer> parameters = new ArrayList<>();
+        
+        int i = 0;
+        while (i < message.length()) {
+            char c = message.charAt(i);
+            int end = c == '{' ? parameterEnd(message, i) : -1;
+            if (end < 0) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            
+            literals.add(literal.toString());
+            literal.setLength(0);
+            parameters.add(Integer.parseInt(message.substring(i + 1, end)));
+            i = end + 1;
+        }
+        literals.add(literal.toString());
+        
+        int[] indices = new int[parameters.size()];
+        for (int p = 0; p < indices.length; p++) {
+            indices[p] = parameters.get(p);
+        }
+        return new MessageTemplate(prefix, literals.toArray(new String[0]), indices, message);
+    }
+    
+    /**
+     * Позиция закрывающей скобки параметра {N}, начинающегося с from, или -1
+     * ({01} параметром не считается, как и при замене "{" + i + "}")
+     */
+    private static int parameterEnd(String message, int from) {
+        int i = from + 1;
+        if (i + 1 < message.length() && message.charAt(i) == '0' && Character.isDigit(message.charAt(i + 1))) {
+            return -1;
+        }
+        while (i < message.length() && i - from <= 9 && Character.isDigit(message.charAt(i))) {
+            i++;
+        }
+        return i > from + 1 && i < message.length() && message.charAt(i) == '}' ? i : -1;
+    }
+    
+    /**
+     * Текст сообщения с подставленными параметрами
+     */
+    public String format(String... params) {
+        return parameters.length == 0 ? text : render("", params);
+    }
+    
+    /**
+     * Текст сообщения с префиксом и подставленными параметрами
+     */
+    public String formatPrefixed(String... params) {
+        return parameters.length == 0 ? prefixedText : render(prefix, params);
+    }
+    
+    private String render(String head, String[] params) {
+        StringBuilder builder = new StringBuilder(head.length() + literalLength + parameters.length * 8);
+        builder.append(head).append(literals[0]);
+        for (int i = 0; i < parameters.length; i++) {
+            int index = parameters[i];
+            if (params != null && index < params.length) {
+                builder.append(params[index]);
+            } else {
+                // Параметр не передан - оставляем как есть
+                builder.append('{').append(index).append('}');
+            }
+            builder.append(literals[i + 1]);
+        }
+        return builder.toString();
+    }
+    
+    // Сегменты для сборки компонентов по частям (см. ComponentCache)
+    
+    int getParameterCount() {
+        return parameters.length;
+    }
+    
+    String getLiteral(int index) {
+        return literals[index];
+    }
+    
+    int getParameter(int index) {
+        return parameters[index];
+    }
+    
+    String getActiveFormat(int index) {
+        return activeFormats[index];
+    }
+    
+    /**
+     * Пустое сообщение (отключено в файле сообщений)
+     */
+    public boolean isEmpty() {
+        return text.isEmpty();
+    }
+}
@@ -1,6 +1,7 @@
 package net.azuremyst.auth.utils;
 
 import net.azuremyst.auth.AzureAuth;
+import net.azuremyst.auth.metrics.MetricsRegistry;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
@@ -8,21 +9,31 @@ import org.bukkit.entity.Player;
 import java.io.File;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Утилиты для работы с сообщениями
+ *
+ * Сообщения разбираются в {@link MessageTemplate} при загрузке; таблица
+ * шаблонов неизменяема и заменяется целиком при перезагрузке, поэтому
+ * чтение безопасно из любого потока (в том числе из асинхронного чата).
  */
 public class MessageUtils {
     
     private final AzureAuth plugin;
-    private FileConfiguration messages;
-    private final Map<String, String> messageCache;
+    private final MetricsRegistry metrics;
+    private volatile Map<String, MessageTemplate> templates;
+    private final ComponentCache componentCache;
     
     public MessageUtils(AzureAuth plugin) {
         this.plugin = plugin;
-        this.messageCache = new HashMap<>();
+        this.metrics = plugin.getMetrics();
+        this.templates = Collections.emptyMap();
+        this.componentCache = new ComponentCache(plugin.getConfigManager().getComponentCacheSize());
         loadMessages();
     }
     
@@ -37,29 +48,39 @@ public class MessageUtils {
             plugin.saveResource("messages_" + language + ".yml", false);
         }
         
-        messages = YamlConfiguration.loadConfiguration(messagesFile);
+        FileConfiguration messages = YamlConfiguration.loadConfiguration(messagesFile);
+        Set<String> keys = new LinkedHashSet<>(messages.getKeys(true));
         
         // Загрузка по умолчанию из ресурсов
         InputStream defConfigStream = plugin.getResource("messages_" + language + ".yml");
         if (defConfigStream != null) {
             YamlConfiguration defConfig = YamlConfiguration.loadConfiguration(new InputStreamReader(defConfigStream));
             messages.setDefaults(defConfig);
+            keys.addAll(defConfig.getKeys(true));
         }
         
-        cacheMessages();
+        compileTemplates(messages, keys);
     }
     
     /**
-     * Кэширование сообщений для производительности
+     * Разбор всех сообщений в шаблоны и атомарная замена таблицы
      */
-    private void cacheMessages() {
-        messageCache.clear();
-        for (String key : messages.getKeys(false)) {
-            String value = messages.getString(key);
-            if (value != null) {
-                messageCache.put(key, colorize(value));
+    private void compileTemplates(FileConfiguration messages, Set<String> keys) {
+        String prefix = "";
+        String configuredPrefix = plugin.getConfigManager().getMessagePrefix();
+        if (plugin.getConfigManager().isShowPrefix() && !configuredPrefix.isEmpty()) {
+            prefix = colorize(configuredPrefix) + " ";
+        }
+        
+        Map<String, MessageTemplate> compiled = new HashMap<>(keys.size() * 2);
+        for (String key : keys) {
+            if (messages.isString(key)) {
+                compiled.put(key, MessageTemplate.compile(colorize(messages.getString(key)), prefix));
             }
         }
+        
+        templates = Collections.unmodifiableMap(compiled);
+        componentCache.clear();
     }
     
     /**
@@ -73,42 +94,26 @@ public class MessageUtils {
      * Отправка сообщения игроку с параметрами
      */
     public void sendMessage(Player player, String key, String... params) {
-        String message = getMessage(key, params);
-        if (message != null && !message.isEmpty()) {
-            String prefix = plugin.getConfig().getString("messages.prefix", "");
-            if (plugin.getConfig().getBoolean("messages.show-prefix", true) && !prefix.isEmpty()) {
-                message = colorize(prefix) + " " + message;
-            }
-            player.sendMessage(message);
+        long start = System.nanoTime();
+        MessageTemplate template = templates.get(key);
+        if (template == null) {
+            player.sendMessage(missingMessage(key));
+        } else if (!template.isEmpty()) {
+            player.sendMessage(template.formatPrefixed(params));
         }
+        metrics.record("message_send", start);
     }
     
     /**
      * Получение сообщения по ключу
      */
     public String getMessage(String key, String... params) {
-        String message = messageCache.get(key);
-        
-        if (message == null) {
-            message = messages.getString(key);
-            if (message != null) {
-                message = colorize(message);
-                messageCache.put(key, message);
-            }
-        }
-        
-        if (message == null) {
-            return "§cСообщение не найдено: " + key;
-        }
-        
-        // Замена параметров
-        if (params != null) {
-            for (int i = 0; i < params.length; i++) {
-                message = message.replace("{" + i + "}", params[i]);
-            }
-        }
-        
-        return message;
+        MessageTemplate template = templates.get(key);
+        return template != null ? template.format(params) : missingMessage(key);
+    }
+    
+    private static String missingMessage(String key) {
+        return "§cСообщение не найдено: " + key;
     }
     
     /**
@@ -134,10 +139,12 @@ public class MessageUtils {
             return;
         }
         
+        long start = System.nanoTime();
         String title = getMessage(titleKey);
         String subtitle = getMessage(subtitleKey);
         
         player.sendTitle(title, subtitle, 10, 70, 20);
+        metrics.record("title_send", start);
     }
     
     /**
@@ -148,14 +155,28 @@ public class MessageUtils {
             return;
         }
         
-        String message = getMessage(key, params);
+        long start = System.nanoTime();
+        MessageTemplate template = templates.get(key);
+        if (template == null) {
+            player.sendMessage(missingMessage(key));
+            return;
+        }
+        
         // Используем spigot API для action bar
         try {
-            player.spigot().sendMessage(net.md_5.bungee.api.ChatMessageType.ACTION_BAR, 
-                net.md_5.bungee.api.chat.TextComponent.fromLegacyText(message));
+            player.spigot().sendMessage(net.md_5.bungee.api.ChatMessageType.ACTION_BAR,
+                componentCache.get(template, params));
         } catch (Exception e) {
             // Fallback - отправляем как обычное сообщение
-            player.sendMessage(message);
+            player.sendMessage(template.format(params));
         }
+        metrics.record("actionbar_send", start);
+    }
+    
+    /**
+     * Получение кэша компонентов (для статистики)
+     */
+    public ComponentCache getComponentCache() {
+        return componentCache;
     }
 }
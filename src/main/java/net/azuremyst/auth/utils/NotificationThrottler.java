@@ -0,0 +1,90 @@
+package net.azuremyst.auth.utils;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ограничение частоты уведомлений об ограничениях для каждого игрока
+ *
+ * Для каждого игрока хранится массив времени последней отправки по типам
+ * уведомлений. Подавленное уведомление не создает объектов: только чтение
+ * из карты и сравнение времени.
+ */
+public class NotificationThrottler {
+    
+    /**
+     * Тип уведомления и ключ его сообщения
+     */
+    public enum Notification {
+        MOVEMENT_BLOCKED("movement-blocked"),
+        CHAT_BLOCKED("chat-blocked"),
+        COMMAND_BLOCKED("command-blocked");
+        
+        private static final Notification[] VALUES = values();
+        
+        private final String messageKey;
+        
+        Notification(String messageKey) {
+            this.messageKey = messageKey;
+        }
+        
+        public String getMessageKey() {
+            return messageKey;
+        }
+    }
+    
+    private volatile long[] cooldownNanos;
+    private final Map<UUID, long[]> lastSent;
+    
+    /**
+     * @param cooldownMillis задержка между уведомлениями по порядку {@link Notification#values()}
+     */
+    public NotificationThrottler(long... cooldownMillis) {
+        setCooldowns(cooldownMillis);
+        this.lastSent = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * Замена задержек (при перезагрузке конфигурации)
+     *
+     * @param cooldownMillis задержка между уведомлениями по порядку {@link Notification#values()}
+     */
+    public void setCooldowns(long... cooldownMillis) {
+        long[] nanos = new long[Notification.VALUES.length];
+        for (int i = 0; i < nanos.length && i < cooldownMillis.length; i++) {
+            nanos[i] = Math.max(0L, cooldownMillis[i]) * 1_000_000L;
+        }
+        this.cooldownNanos = nanos;
+    }
+    
+    /**
+     * Проверка, можно ли отправить уведомление сейчас (с отметкой отправки)
+     *
+     * Вызывается и из асинхронного чата: при гонке игрок может получить
+     * уведомление дважды, это допустимо.
+     */
+    public boolean tryAcquire(UUID uuid, Notification notification) {
+        long now = System.nanoTime();
+        long[] times = lastSent.get(uuid);
+        if (times == null) {
+            times = lastSent.computeIfAbsent(uuid, key -> new long[Notification.VALUES.length]);
+        }
+        
+        int index = notification.ordinal();
+        long last = times[index];
+        if (last != 0L && now - last < cooldownNanos[index]) {
+            return false;
+        }
+        
+        times[index] = now;
+        return true;
+    }
+    
+    /**
+     * Удаление данных игрока (при выходе с сервера)
+     */
+    public void remove(UUID uuid) {
+        lastSent.remove(uuid);
+    }
+}
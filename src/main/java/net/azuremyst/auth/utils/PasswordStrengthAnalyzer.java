@@ -0,0 +1,225 @@
+package net.azuremyst.auth.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * Оценка сложности пароля за один проход
+ *
+ * Классы символов и повторы (три одинаковых символа подряд) определяются
+ * одним сканированием пароля. Слабые слова и последовательности 123/abc/qwe
+ * ищутся в пароле в нижнем регистре автоматом Ахо-Корасик, который строится
+ * один раз из списка слов (security.weak-passwords).
+ *
+ * Результат совпадает с прежней проверкой регулярными выражениями, включая
+ * ее особенности: проверки через ".*X.*" не срабатывают, если в пароле есть
+ * перевод строки.
+ */
+public final class PasswordStrengthAnalyzer {
+    
+    private static final String[] SEQUENCES = {"123", "abc", "qwe"};
+    
+    // Признаки совпадения в состоянии автомата
+    private static final byte WEAK_WORD = 1;
+    private static final byte SEQUENCE = 2;
+    
+    // Классы символов ASCII
+    private static final byte LOWERCASE = 1;
+    private static final byte UPPERCASE = 2;
+    private static final byte DIGIT = 4;
+    private static final byte SPECIAL = 8;
+    private static final byte[] CHAR_CLASSES = new byte[128];
+    
+    static {
+        for (char c = 'a'; c <= 'z'; c++) CHAR_CLASSES[c] = LOWERCASE;
+        for (char c = 'A'; c <= 'Z'; c++) CHAR_CLASSES[c] = UPPERCASE;
+        for (char c = '0'; c <= '9'; c++) CHAR_CLASSES[c] = DIGIT;
+        for (char c : "!@#$%^&*()_+-=[]{};':\"\\|,.<>/?".toCharArray()) CHAR_CLASSES[c] = SPECIAL;
+    }
+    
+    private final int[] asciiSymbols;
+    private final char[] otherChars;
+    private final int otherBase;
+    private final int symbolCount;
+    private final int[] transitions;
+    private final byte[] outputs;
+    
+    /**
+     * Построение автомата
+     *
+     * @param weakWords слабые слова (ищутся как подстроки без учета регистра)
+     */
+    public PasswordStrengthAnalyzer(Collection<String> weakWords) {
+        List<String> patterns = new ArrayList<>();
+        List<Byte> flags = new ArrayList<>();
+        for (String word : weakWords) {
+            if (word != null && !word.isEmpty()) {
+                patterns.add(word.toLowerCase(Locale.ROOT));
+                flags.add(WEAK_WORD);
+            }
+        }
+        for (String sequence : SEQUENCES) {
+            patterns.add(sequence);
+            flags.add(SEQUENCE);
+        }
+        
+        // Алфавит: символы, встречающиеся в словах; остальные - символ 0
+        TreeSet<Character> alphabet = new TreeSet<>();
+        for (String pattern : patterns) {
+            for (int i = 0; i < pattern.length(); i++) {
+                alphabet.add(pattern.charAt(i));
+            }
+        }
+        
+        this.asciiSymbols = new int[128];
+        List<Character> others = new ArrayList<>();
+        int symbol = 1;
+        for (char c : alphabet) {
+            if (c < 128) {
+                asciiSymbols[c] = symbol++;
+            } else {
+                others.add(c);
+            }
+        }
+        this.otherChars = new char[others.size()];
+        for (int i = 0; i < otherChars.length; i++) {
+            otherChars[i] = others.get(i);
+        }
+        this.otherBase = symbol;
+        this.symbolCount = otherBase + otherChars.length;
+        
+        // Бор
+        int maxStates = 1;
+        for (String pattern : patterns) {
+            maxStates += pattern.length();
+        }
+        int[] trie = new int[maxStates * symbolCount];
+        Arrays.fill(trie, -1);
+        byte[] output = new byte[maxStates];
+        int states = 1;
+        
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p);
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                int index = state * symbolCount + symbolOf(pattern.charAt(i));
+                if (trie[index] < 0) {
+                    trie[index] = states++;
+                }
+                state = trie[index];
+            }
+            output[state] |= flags.get(p);
+        }
+        
+        // Суффиксные ссылки (обход в ширину) и полная таблица переходов
+        int[] fail = new int[states];
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        for (int s = 0; s < symbolCount; s++) {
+            int next = trie[s];
+            if (next < 0) {
+                trie[s] = 0;
+            } else {
+                fail[next] = 0;
+                queue[tail++] = next;
+            }
+        }
+        
+        while (head < tail) {
+            int state = queue[head++];
+            output[state] |= output[fail[state]];
+            for (int s = 0; s < symbolCount; s++) {
+                int index = state * symbolCount + s;
+                int next = trie[index];
+                if (next < 0) {
+                    trie[index] = trie[fail[state] * symbolCount + s];
+                } else {
+                    fail[next] = trie[fail[state] * symbolCount + s];
+                    queue[tail++] = next;
+                }
+            }
+        }
+        
+        this.transitions = Arrays.copyOf(trie, states * symbolCount);
+        this.outputs = Arrays.copyOf(output, states);
+    }
+    
+    private int symbolOf(char c) {
+        if (c < 128) {
+            return asciiSymbols[c];
+        }
+        int index = Arrays.binarySearch(otherChars, c);
+        return index >= 0 ? otherBase + index : 0;
+    }
+    
+    /**
+     * Оценка сложности пароля
+     */
+    public PasswordUtils.PasswordStrength analyze(String password) {
+        if (password == null || password.length() < 6) {
+            return PasswordUtils.PasswordStrength.VERY_WEAK;
+        }
+        
+        int classes = 0;
+        boolean lineTerminator = false;
+        boolean repeated = false;
+        int length = password.length();
+        
+        for (int i = 0; i < length; ) {
+            int codePoint = password.codePointAt(i);
+            int width = Character.charCount(codePoint);
+            
+            if (codePoint < 128) {
+                classes |= CHAR_CLASSES[codePoint];
+            }
+            if (codePoint == '\n' || codePoint == '\r' || codePoint == '\u0085'
+                    || codePoint == '\u2028' || codePoint == '\u2029') {
+                lineTerminator = true;
+            }
+            
+            // Символ и два его повтора (посимвольно, как обратная ссылка в (.)\1{2,})
+            if (!repeated && i + 3 * width <= length
+                    && password.regionMatches(i, password, i + width, width)
+                    && password.regionMatches(i, password, i + 2 * width, width)) {
+                repeated = true;
+            }
+            i += width;
+        }
+        
+        // Строка в нижнем регистре может отличаться по длине (например, для İ),
+        // поэтому слова ищутся в ней, как и раньше
+        String lowerPassword = password.toLowerCase();
+        int state = 0;
+        int matches = 0;
+        for (int i = 0; i < lowerPassword.length(); i++) {
+            state = transitions[state * symbolCount + symbolOf(lowerPassword.charAt(i))];
+            matches |= outputs[state];
+        }
+        
+        int score = 0;
+        
+        // Длина пароля
+        if (length >= 8) score++;
+        if (length >= 12) score++;
+        
+        // Проверки ".*X.*" не совпадают со строкой, содержащей перевод строки
+        if (!lineTerminator) {
+            if ((classes & LOWERCASE) != 0) score++;
+            if ((classes & UPPERCASE) != 0) score++;
+            if ((classes & DIGIT) != 0) score++;
+            if ((classes & SPECIAL) != 0) score++;
+        }
+        
+        // Не содержит общих паттернов
+        boolean commonPattern = (matches & WEAK_WORD) != 0
+            || (!lineTerminator && ((matches & SEQUENCE) != 0 || repeated));
+        if (!commonPattern) score++;
+        
+        return PasswordUtils.PasswordStrength.fromScore(score);
+    }
+}
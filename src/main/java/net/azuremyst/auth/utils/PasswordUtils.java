@@ -1,11 +1,14 @@
 package net.azuremyst.auth.utils;
 
+import net.azuremyst.auth.security.BreachedPasswordFilter;
+
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Base64;
-import java.util.regex.Pattern;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Утилиты для работы с паролями
@@ -15,11 +18,17 @@ public class PasswordUtils {
     private static final SecureRandom RANDOM = new SecureRandom();
     private static final String SALT_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
     
-    // Регулярные выражения для проверки безопасности пароля
-    private static final Pattern LOWERCASE = Pattern.compile(".*[a-z].*");
-    private static final Pattern UPPERCASE = Pattern.compile(".*[A-Z].*");
-    private static final Pattern DIGITS = Pattern.compile(".*[0-9].*");
-    private static final Pattern SPECIAL_CHARS = Pattern.compile(".*[!@#$%^&*()_+\\-=\\[\\]{};':\"\\\\|,.<>\\/?].*");
+    /**
+     * Общие небезопасные пароли (если security.weak-passwords не задан)
+     */
+    public static final List<String> DEFAULT_WEAK_PASSWORDS = List.of(
+        "password", "123456", "qwerty", "admin", "root", "user",
+        "minecraft", "123123", "111111", "000000", "password123",
+        "azuremyst", "server", "game", "player"
+    );
+    
+    private static volatile PasswordStrengthAnalyzer strengthAnalyzer = new PasswordStrengthAnalyzer(DEFAULT_WEAK_PASSWORDS);
+    private static volatile BreachedPasswordFilter breachedPasswords;
     
     /**
      * Генерация соли для хеширования пароля
@@ -33,7 +42,10 @@ public class PasswordUtils {
     }
     
     /**
-     * Хеширование пароля с солью
+     * Хеширование пароля с солью (старый формат SHA-256)
+     *
+     * Используется только для проверки хешей, созданных до перехода на
+     * {@link net.azuremyst.auth.security.PasswordHashingService}.
      */
     public static String hashPassword(String password, String salt) {
         try {
@@ -50,66 +62,39 @@ public class PasswordUtils {
      * Проверка безопасности пароля
      */
     public static PasswordStrength checkPasswordStrength(String password) {
-        if (password == null || password.length() < 6) {
-            return PasswordStrength.VERY_WEAK;
-        }
-        
-        int score = 0;
-        
-        // Длина пароля
-        if (password.length() >= 8) score++;
-        if (password.length() >= 12) score++;
-        
-        // Содержит строчные буквы
-        if (LOWERCASE.matcher(password).matches()) score++;
-        
-        // Содержит заглавные буквы
-        if (UPPERCASE.matcher(password).matches()) score++;
-        
-        // Содержит цифры
-        if (DIGITS.matcher(password).matches()) score++;
-        
-        // Содержит специальные символы
-        if (SPECIAL_CHARS.matcher(password).matches()) score++;
-        
-        // Не содержит общих паттернов
-        if (!containsCommonPatterns(password)) score++;
-        
-        return PasswordStrength.fromScore(score);
+        return strengthAnalyzer.analyze(password);
     }
     
     /**
-     * Проверка на наличие общих небезопасных паттернов
+     * Замена списка небезопасных слов (при загрузке конфигурации)
      */
-    private static boolean containsCommonPatterns(String password) {
-        String lowerPassword = password.toLowerCase();
-        
-        // Список общих небезопасных паролей
-        String[] commonPasswords = {
-            "password", "123456", "qwerty", "admin", "root", "user",
-            "minecraft", "123123", "111111", "000000", "password123",
-            "azuremyst", "server", "game", "player"
-        };
-        
-        for (String common : commonPasswords) {
-            if (lowerPassword.contains(common)) {
-                return true;
-            }
-        }
-        
-        // Проверка на последовательности
-        if (lowerPassword.matches(".*123.*") || 
-            lowerPassword.matches(".*abc.*") || 
-            lowerPassword.matches(".*qwe.*")) {
-            return true;
-        }
-        
-        // Проверка на повторяющиеся символы
-        if (password.matches(".*(.)\\1{2,}.*")) {
-            return true;
-        }
-        
-        return false;
+    public static void setWeakPasswords(Collection<String> weakPasswords) {
+        strengthAnalyzer = new PasswordStrengthAnalyzer(weakPasswords);
+    }
+    
+    /**
+     * Проверка пароля по фильтру утекших паролей (security.breached-passwords)
+     *
+     * Может обращаться к диску при первом чтении страниц файла,
+     * поэтому вызывается не в основном потоке.
+     */
+    public static boolean isBreachedPassword(String password) {
+        BreachedPasswordFilter filter = breachedPasswords;
+        return filter != null && filter.mightContain(password);
+    }
+    
+    /**
+     * Замена фильтра утекших паролей (null - проверка отключена)
+     */
+    public static void setBreachedPasswordFilter(BreachedPasswordFilter filter) {
+        breachedPasswords = filter;
+    }
+    
+    /**
+     * Текущий фильтр утекших паролей (null, если проверка отключена)
+     */
+    public static BreachedPasswordFilter getBreachedPasswordFilter() {
+        return breachedPasswords;
     }
     
     /**
@@ -0,0 +1,199 @@
+package net.azuremyst.auth.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Иерархическое колесо таймеров
+ *
+ * Четыре уровня по 64 ячейки: задача попадает в уровень по оставшемуся
+ * времени, и по мере приближения срока переносится на нижние уровни.
+ * Добавление и отмена - O(1), продвижение на один шаг - O(задач в ячейке).
+ * Задачи дальше 64^4 шагов ставятся на верхний уровень и переносятся повторно.
+ *
+ * Колесо не создает потоков: {@link #advance(long)} вызывается внешним
+ * таймером, и задачи выполняются в его потоке.
+ */
+public class TimingWheel {
+    
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS);
+    
+    private final Logger logger;
+    private final long tickMillis;
+    private final long startMillis;
+    private final Timeout[][] wheels;
+    private long currentTick;
+    private int size;
+    
+    public TimingWheel(Logger logger, long tickMillis) {
+        this.logger = logger;
+        this.tickMillis = Math.max(1L, tickMillis);
+        this.startMillis = System.currentTimeMillis();
+        this.wheels = new Timeout[LEVELS][SLOTS];
+        
+        // Каждая ячейка - кольцевой двусвязный список с фиктивным элементом
+        for (Timeout[] level : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Timeout head = new Timeout(this, null, 0L);
+                head.prev = head;
+                head.next = head;
+                level[slot] = head;
+            }
+        }
+    }
+    
+    /**
+     * Планирование задачи через delayMillis миллисекунд
+     */
+    public Timeout schedule(Runnable task, long delayMillis) {
+        return scheduleAt(task, System.currentTimeMillis() + Math.max(0L, delayMillis));
+    }
+    
+    /**
+     * Планирование задачи на момент времени (мс с начала эпохи)
+     */
+    public synchronized Timeout scheduleAt(Runnable task, long timeMillis) {
+        // Округление вверх: задача не выполняется раньше срока
+        long deadline = Math.floorDiv(timeMillis - startMillis + tickMillis - 1, tickMillis);
+        Timeout timeout = new Timeout(this, task, Math.max(deadline, currentTick + 1));
+        insert(timeout);
+        size++;
+        return timeout;
+    }
+    
+    private void insert(Timeout timeout) {
+        long delta = timeout.deadline - currentTick;
+        long slotTick = delta < MAX_SPAN ? timeout.deadline : currentTick + MAX_SPAN - 1;
+        
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        
+        Timeout head = wheels[level][(int) (slotTick >>> (SLOT_BITS * level)) & SLOT_MASK];
+        timeout.prev = head.prev;
+        timeout.next = head;
+        head.prev.next = timeout;
+        head.prev = timeout;
+    }
+    
+    private void unlink(Timeout timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+    }
+    
+    private synchronized boolean cancel(Timeout timeout) {
+        if (timeout.prev == null) {
+            return false;
+        }
+        unlink(timeout);
+        size--;
+        return true;
+    }
+    
+    /**
+     * Продвижение колеса до момента nowMillis и выполнение наступивших задач
+     */
+    public void advance(long nowMillis) {
+        List<Runnable> expired = new ArrayList<>();
+        
+        synchronized (this) {
+            long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+            if (size == 0 && targetTick > currentTick) {
+                currentTick = targetTick;
+            }
+            
+            while (currentTick < targetTick) {
+                currentTick++;
+                cascade();
+                
+                Timeout head = wheels[0][(int) currentTick & SLOT_MASK];
+                Timeout timeout = head.next;
+                while (timeout != head) {
+                    Timeout next = timeout.next;
+                    unlink(timeout);
+                    if (timeout.deadline <= currentTick) {
+                        size--;
+                        expired.add(timeout.task);
+                    } else {
+                        // Задача дальше MAX_SPAN: переносим снова
+                        insert(timeout);
+                    }
+                    timeout = next;
+                }
+            }
+        }
+        
+        for (Runnable task : expired) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "§c[AzureAuth] Ошибка в задаче таймера: " + e.getMessage(), e);
+            }
+        }
+    }
+    
+    /**
+     * Перенос задач с верхних уровней, когда их ячейка становится текущей
+     * (сверху вниз, чтобы перенесенные задачи сразу попадали на нижний уровень)
+     */
+    private void cascade() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            int shift = SLOT_BITS * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                continue;
+            }
+            
+            Timeout head = wheels[level][(int) (currentTick >>> shift) & SLOT_MASK];
+            Timeout timeout = head.next;
+            while (timeout != head) {
+                Timeout next = timeout.next;
+                unlink(timeout);
+                insert(timeout);
+                timeout = next;
+            }
+        }
+    }
+    
+    /**
+     * Количество запланированных задач
+     */
+    public synchronized int size() {
+        return size;
+    }
+    
+    /**
+     * Запланированная задача
+     */
+    public static final class Timeout {
+        
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private final long deadline;
+        private Timeout prev;
+        private Timeout next;
+        
+        private Timeout(TimingWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+        
+        /**
+         * Отмена задачи
+         *
+         * @return false, если задача уже выполнена или отменена
+         */
+        public boolean cancel() {
+            return wheel.cancel(this);
+        }
+    }
+}